@@ -0,0 +1,193 @@
+-- Index plan regression check (see docs/INDEXES.md).
+--
+-- Seeds ~1M rows into a migrated database, runs EXPLAIN on each hot repository query and fails
+-- if a query doesn't use its expected index or seq-scans the big table. Everything runs in one
+-- transaction that is rolled back, so the database is left as it was.
+--
+--   psql "postgresql://postgres@localhost:5432/luna_db" -v ON_ERROR_STOP=1 -f loadtest/index-plans.sql
+
+-- Plain SQL without psql variables, so IndexPlanTests can run the same file through JDBC.
+-- Seeds 20,000 users and 1,000,000 posts.
+
+BEGIN;
+
+-- Fails the check unless the plan uses expected_index and has no Seq Scan on relation. For a
+-- partitioned relation, its non-empty partitions and their copies of the index count as well.
+CREATE FUNCTION pg_temp.assert_index_scan(label TEXT, relation TEXT, expected_index TEXT, query TEXT)
+RETURNS void LANGUAGE plpgsql AS $$
+DECLARE
+    plan JSONB;
+    relations JSONB := to_jsonb(relation || ARRAY(
+        SELECT c.relname::text FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = relation::regclass AND c.reltuples > 0));
+    indexes JSONB := to_jsonb(expected_index || ARRAY(
+        SELECT c.relname::text FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = expected_index::regclass));
+BEGIN
+    EXECUTE 'EXPLAIN (FORMAT JSON) ' || query INTO plan;
+    IF jsonb_path_exists(plan, '$.** ? (@."Node Type" == "Seq Scan" && @."Relation Name" == $rels[*])',
+                         jsonb_build_object('rels', relations)) THEN
+        RAISE EXCEPTION '% seq-scans %: %', label, relation, jsonb_pretty(plan);
+    END IF;
+    IF NOT jsonb_path_exists(plan, '$.** ? (@."Index Name" == $idx[*])', jsonb_build_object('idx', indexes)) THEN
+        RAISE EXCEPTION '% does not use %: %', label, expected_index, jsonb_pretty(plan);
+    END IF;
+    RAISE NOTICE 'ok  %', label;
+END
+$$;
+
+-- Fails the check unless the plan reads exactly expected partitions of relation
+CREATE FUNCTION pg_temp.assert_partitions_scanned(label TEXT, relation TEXT, expected INT, query TEXT)
+RETURNS void LANGUAGE plpgsql AS $$
+DECLARE
+    plan JSONB;
+    scanned INT;
+BEGIN
+    EXECUTE 'EXPLAIN (FORMAT JSON) ' || query INTO plan;
+    SELECT COUNT(DISTINCT c.relname) INTO scanned
+    FROM jsonb_path_query(plan, '$.**."Relation Name"') AS r(name)
+    JOIN pg_class c ON to_jsonb(c.relname::text) = r.name
+    JOIN pg_inherits i ON i.inhrelid = c.oid AND i.inhparent = relation::regclass;
+    IF scanned <> expected THEN
+        RAISE EXCEPTION '% reads % partition(s) of %, expected %: %', label, scanned, relation, expected, jsonb_pretty(plan);
+    END IF;
+    RAISE NOTICE 'ok  %', label;
+END
+$$;
+
+-- Seed data
+INSERT INTO users (email, username, password, role, is_active, email_verified, created_at, updated_at)
+SELECT 'plan' || g || '@example.test', 'plan_user_' || g, 'x', 'USER', true, true, now(), now()
+FROM generate_series(1, 20000) g;
+
+CREATE TEMP TABLE seed_users AS
+SELECT id, row_number() OVER (ORDER BY id) AS n FROM users WHERE username LIKE 'plan\_user\_%';
+CREATE INDEX ON seed_users (n);
+
+INSERT INTO posts (title, content, user_id, created_at, deleted_at)
+SELECT 'post ' || g, 'content ' || g, u.id,
+       now() - (g % 525600) * interval '1 minute',
+       CASE WHEN g % 20 = 0 THEN now() END
+FROM generate_series(1, 1000000) g
+JOIN seed_users u ON u.n = 1 + g % 20000;
+
+CREATE TEMP TABLE seed_posts AS
+SELECT p.id, row_number() OVER (ORDER BY p.id) AS n FROM posts p JOIN seed_users u ON u.id = p.user_id;
+CREATE INDEX ON seed_posts (n);
+
+INSERT INTO post_likes (post_id, user_id, created_at)
+SELECT p.id, u.id, now() FROM seed_posts p JOIN seed_users u ON u.n = 1 + (p.n * 7) % 20000;
+
+INSERT INTO saved_posts (user_id, post_id, saved_at)
+SELECT u.id, p.id, now() - p.n * interval '1 second'
+FROM seed_posts p JOIN seed_users u ON u.n = 1 + p.n % 20000 WHERE p.n <= 200000;
+
+INSERT INTO reposts (user_id, post_id, created_at)
+SELECT u.id, p.id, now() - p.n * interval '1 second'
+FROM seed_posts p JOIN seed_users u ON u.n = 1 + (p.n * 3) % 20000 WHERE p.n > 200000 AND p.n <= 400000;
+
+INSERT INTO comments (content, post_id, user_id, depth, created_at)
+SELECT 'comment', p.id, u.id, 0, now() - p.n * interval '1 second'
+FROM seed_posts p JOIN seed_users u ON u.n = 1 + (p.n * 11) % 20000 WHERE p.n % 3 = 0;
+
+-- Each follower follows the next 25 users
+INSERT INTO user_follows (follower_id, following_id, created_at)
+SELECT f.id, t.id, now() - g * interval '1 second'
+FROM generate_series(0, 20000 * 25 - 1) g
+JOIN seed_users f ON f.n = 1 + g % 20000
+JOIN seed_users t ON t.n = 1 + (g % 20000 + 1 + g / 20000) % 20000;
+
+INSERT INTO hashtags (name) SELECT 'plantag' || g FROM generate_series(1, 1000) g;
+INSERT INTO post_hashtags (post_id, hashtag_id)
+SELECT p.id, h.id FROM seed_posts p JOIN hashtags h ON h.name = 'plantag' || (1 + p.n % 1000);
+
+-- Seeded activities span this month and last; make sure both have a partition
+SELECT create_activities_partition((now() - INTERVAL '1 month')::date), create_activities_partition(now()::date);
+
+INSERT INTO activities (user_id, activity_type, entity_type, entity_id, target_user_id, created_at)
+SELECT u.id, CASE WHEN p.n % 3 = 0 THEN 'LIKE' ELSE 'COMMENT' END, 'POST', p.id, t.id,
+       now() - p.n * interval '1 second'
+FROM seed_posts p
+JOIN seed_users u ON u.n = 1 + p.n % 20000
+JOIN seed_users t ON t.n = 1 + (p.n * 13) % 20000;
+
+ANALYZE users, posts, post_likes, saved_posts, reposts, comments, user_follows, hashtags, post_hashtags, activities;
+
+-- The user and post the queries below look up
+CREATE TEMP TABLE probe AS
+SELECT (SELECT id FROM seed_users WHERE n = 42) AS uid, (SELECT id FROM seed_posts WHERE n = 4242) AS pid;
+
+-- PostRepository.findByAuthorIdOrderByCreatedAtDesc / findIdsByAuthorBefore
+SELECT pg_temp.assert_index_scan('posts by author', 'posts', 'idx_posts_author_live_created', format($q$
+    SELECT p.id FROM posts p
+    WHERE p.user_id = %L AND p.deleted_at IS NULL
+      AND (p.created_at, p.id) < (now(), 'ffffffff-ffff-ffff-ffff-ffffffffffff')
+    ORDER BY p.created_at DESC, p.id DESC LIMIT 21 $q$, (SELECT uid FROM probe)));
+
+-- PostRepository.findTimelineIdsBefore
+SELECT pg_temp.assert_index_scan('timeline', 'posts', 'idx_posts_author_live_created', format($q$
+    SELECT p.id FROM posts p
+    WHERE p.user_id IN (SELECT f.following_id FROM user_follows f WHERE f.follower_id = %L)
+      AND p.deleted_at IS NULL
+      AND (p.created_at, p.id) < (now(), 'ffffffff-ffff-ffff-ffff-ffffffffffff')
+    ORDER BY p.created_at DESC, p.id DESC LIMIT 21 $q$, (SELECT uid FROM probe)));
+
+-- PostLikeRepository.existsByPostIdAndUserId
+SELECT pg_temp.assert_index_scan('like exists', 'post_likes', 'unique_post_like', format($q$
+    SELECT 1 FROM post_likes WHERE post_id = %L AND user_id = %L LIMIT 1 $q$, (SELECT pid FROM probe), (SELECT uid FROM probe)));
+
+-- RepostRepository.existsByUserIdAndOriginalPostId
+SELECT pg_temp.assert_index_scan('repost exists', 'reposts', 'unique_user_repost', format($q$
+    SELECT 1 FROM reposts WHERE user_id = %L AND post_id = %L LIMIT 1 $q$, (SELECT uid FROM probe), (SELECT pid FROM probe)));
+
+-- RepostRepository.findByUserIdOrderByCreatedAtDesc
+SELECT pg_temp.assert_index_scan('reposts by user', 'reposts', 'idx_reposts_user_created', format($q$
+    SELECT * FROM reposts WHERE user_id = %L ORDER BY created_at DESC LIMIT 20 $q$, (SELECT uid FROM probe)));
+
+-- SavedPostRepository.findSavedRefsBefore
+SELECT pg_temp.assert_index_scan('saved feed', 'saved_posts', 'idx_saved_posts_user_saved', format($q$
+    SELECT sp.post_id, sp.saved_at, sp.id FROM saved_posts sp
+    WHERE sp.user_id = %L AND (sp.saved_at, sp.id) < (now(), 'ffffffff-ffff-ffff-ffff-ffffffffffff')
+    ORDER BY sp.saved_at DESC, sp.id DESC LIMIT 21 $q$, (SELECT uid FROM probe)));
+
+-- PostRepository.findIdsByHashtagBefore
+SELECT pg_temp.assert_index_scan('posts by hashtag', 'post_hashtags', 'idx_post_hashtags_hashtag_post', $q$
+    SELECT p.id FROM posts p
+    JOIN post_hashtags ph ON ph.post_id = p.id
+    JOIN hashtags h ON h.id = ph.hashtag_id
+    WHERE h.name = 'plantag7' AND p.deleted_at IS NULL
+      AND (p.created_at, p.id) < (now(), 'ffffffff-ffff-ffff-ffff-ffffffffffff')
+    ORDER BY p.created_at DESC, p.id DESC LIMIT 21 $q$);
+
+-- CommentRepository.findByPostIdAndParentIsNullOrderByCreatedAtDesc
+SELECT pg_temp.assert_index_scan('top-level comments', 'comments', 'idx_comments_post_top_level_created', format($q$
+    SELECT * FROM comments WHERE post_id = %L AND parent_id IS NULL ORDER BY created_at DESC LIMIT 20 $q$,
+    (SELECT post_id FROM comments LIMIT 1)));
+
+-- UserFollowRepository.findFollowerIds
+SELECT pg_temp.assert_index_scan('follower ids', 'user_follows', 'idx_user_follows_following_created', format($q$
+    SELECT follower_id FROM user_follows WHERE following_id = %L ORDER BY created_at, id LIMIT 500 $q$, (SELECT uid FROM probe)));
+
+-- UserFollowRepository.findFollowingIds
+SELECT pg_temp.assert_index_scan('following ids', 'user_follows', 'idx_user_follows_follower_created', format($q$
+    SELECT following_id FROM user_follows WHERE follower_id = %L ORDER BY created_at DESC LIMIT 200 $q$, (SELECT uid FROM probe)));
+
+-- ActivityRepository.findByUserIdOrderByCreatedAtDesc
+SELECT pg_temp.assert_index_scan('activity by user', 'activities', 'idx_activity_user_created', format($q$
+    SELECT * FROM activities WHERE user_id = %L ORDER BY created_at DESC LIMIT 20 $q$, (SELECT uid FROM probe)));
+
+-- ActivityRepository.findByUserIdAndActivityTypeOrderByCreatedAtDesc
+SELECT pg_temp.assert_index_scan('activity by user and type', 'activities', 'idx_activity_user_type_created', format($q$
+    SELECT * FROM activities WHERE user_id = %L AND activity_type = 'LIKE' ORDER BY created_at DESC LIMIT 20 $q$, (SELECT uid FROM probe)));
+
+-- ActivityRepository.findByTargetUserIdOrderByCreatedAtDesc
+SELECT pg_temp.assert_index_scan('activity by target', 'activities', 'idx_activity_target_user_created', format($q$
+    SELECT * FROM activities WHERE target_user_id = %L ORDER BY created_at DESC LIMIT 20 $q$, (SELECT uid FROM probe)));
+
+-- Partition pruning: a created_at range within one month reads only that month's partition
+SELECT pg_temp.assert_partitions_scanned('activity month pruning', 'activities', 1, format($q$
+    SELECT * FROM activities WHERE user_id = %L AND created_at >= %L AND created_at < %L
+    ORDER BY created_at DESC LIMIT 20 $q$,
+    (SELECT uid FROM probe), date_trunc('month', now())::timestamp, date_trunc('month', now())::timestamp + INTERVAL '1 month'));
+
+ROLLBACK;
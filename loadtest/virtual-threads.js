@@ -0,0 +1,42 @@
+// Compares platform-thread and virtual-thread request handling (see docs/VIRTUAL_THREADS.md).
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e TOKEN=<access token> -e POST_ID=<post uuid> \
+//          -e USER_ID=<user uuid> loadtest/virtual-threads.js
+//
+// Run it once per mode against the same database and Redis, with the same DB_POOL_SIZE.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const params = { headers: { Authorization: `Bearer ${__ENV.TOKEN}` } };
+
+export const options = {
+    scenarios: {
+        ramp: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '1m', target: 200 },
+                { duration: '2m', target: 1000 },
+                { duration: '2m', target: 2000 },
+                { duration: '1m', target: 0 },
+            ],
+        },
+    },
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+        http_req_duration: ['p(99)<2000'],
+    },
+};
+
+export default function () {
+    // Timeline (Redis + DB), comment thread (DB) and profile (Redis-cached stats)
+    const responses = http.batch([
+        ['GET', `${BASE_URL}/api/posts/timeline?size=20`, null, params],
+        ['GET', `${BASE_URL}/api/posts/${__ENV.POST_ID}/comments?size=20`, null, params],
+        ['GET', `${BASE_URL}/api/users/${__ENV.USER_ID}/profile`, null, params],
+    ]);
+    for (const res of responses) {
+        check(res, { 'status is 200': (r) => r.status === 200 });
+    }
+}
@@ -0,0 +1,70 @@
+package com.luna.post.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building and serializing one feed page of 20 posts, as returned by the timeline endpoint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PostResponseBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private ObjectMapper objectMapper;
+    private List<PostResponse> page;
+    private UUID authorId;
+    private LocalDateTime createdAt;
+
+    @Setup
+    public void setup() {
+        objectMapper = JsonMapper.builder().findAndAddModules().build();
+        authorId = UUID.randomUUID();
+        createdAt = LocalDateTime.now();
+        page = buildPage();
+    }
+
+    @Benchmark
+    public List<PostResponse> buildPage() {
+        List<PostResponse> responses = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            responses.add(PostResponse.builder()
+                    .id(UUID.randomUUID())
+                    .title("Post " + i)
+                    .content("Sunset at the beach, more photos soon #travel #photography")
+                    .imageUrls(List.of("https://res.cloudinary.com/luna/image/upload/v1700000000/luna/posts/abcdef.jpg"))
+                    .videoUrls(List.of())
+                    .author(PostResponse.AuthorInfo.builder()
+                            .id(authorId)
+                            .username("benchmark")
+                            .email("benchmark@luna.test")
+                            .build())
+                    .likeCount(120L)
+                    .commentCount(14L)
+                    .repostCount(3L)
+                    .saveCount(8L)
+                    .isLikedByCurrentUser(true)
+                    .isSavedByCurrentUser(false)
+                    .isRepostedByCurrentUser(false)
+                    .createdAt(createdAt)
+                    .updatedAt(createdAt)
+                    .build());
+        }
+        return responses;
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
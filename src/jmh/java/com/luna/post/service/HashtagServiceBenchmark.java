@@ -0,0 +1,43 @@
+package com.luna.post.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashtag extraction runs on every post create and update.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HashtagServiceBenchmark {
+
+    @Param({"none", "short", "long"})
+    public String content;
+
+    private String text;
+
+    @Setup
+    public void setup() {
+        text = switch (content) {
+            case "none" -> "Just got back from the beach, the sunset was unreal tonight.";
+            case "short" -> "Sunset at the beach #travel #Sunset #photography";
+            default -> longPost();
+        };
+    }
+
+    private static String longPost() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            builder.append("Day ").append(i).append(" of the trip, more photos coming soon #day").append(i)
+                    .append(" #Travel #photography ");
+        }
+        return builder.toString();
+    }
+
+    @Benchmark
+    public Set<String> extractHashtags() {
+        return HashtagService.extractHashtags(text);
+    }
+}
@@ -0,0 +1,44 @@
+package com.luna.post.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Media URLs are written on post create and read for every post in every feed page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MediaUrlCodecBenchmark {
+
+    @Param({"1", "4"})
+    public int urlCount;
+
+    private MediaUrlCodec codec;
+    private List<String> urls;
+    private String json;
+
+    @Setup
+    public void setup() {
+        codec = new MediaUrlCodec(new ObjectMapper());
+        urls = new ArrayList<>();
+        for (int i = 0; i < urlCount; i++) {
+            urls.add("https://res.cloudinary.com/luna/image/upload/v1700000000/luna/posts/abcdef" + i + ".jpg");
+        }
+        json = codec.toJson(urls);
+    }
+
+    @Benchmark
+    public String toJson() {
+        return codec.toJson(urls);
+    }
+
+    @Benchmark
+    public List<String> fromJson() {
+        return codec.fromJson(json);
+    }
+}
@@ -0,0 +1,55 @@
+package com.luna.security;
+
+import com.luna.BenchmarkSupport;
+import com.luna.user.entity.Role;
+import com.luna.user.entity.User;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token generation runs on every login and refresh; parsing runs on every authenticated request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtServiceBenchmark {
+
+    private JwtService jwtService;
+    private User user;
+    private String accessToken;
+
+    @Setup
+    public void setup() {
+        jwtService = new JwtService();
+        BenchmarkSupport.setField(jwtService, "secret", "luna-benchmark-secret-key-for-jwt-token-signing-0123456789");
+        BenchmarkSupport.setField(jwtService, "accessTokenExpiration", 900_000L);
+        BenchmarkSupport.setField(jwtService, "refreshTokenExpiration", 604_800_000L);
+        jwtService.init();
+
+        user = User.builder()
+                .id(UUID.randomUUID())
+                .email("benchmark@luna.test")
+                .username("benchmark")
+                .role(Role.USER)
+                .build();
+        accessToken = jwtService.generateAccessToken(user);
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtService.generateAccessToken(user);
+    }
+
+    @Benchmark
+    public String generateRefreshToken() {
+        return jwtService.generateRefreshToken(user);
+    }
+
+    @Benchmark
+    public Claims parseClaims() {
+        return jwtService.parseClaims(accessToken);
+    }
+}
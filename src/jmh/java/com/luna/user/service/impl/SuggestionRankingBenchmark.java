@@ -0,0 +1,91 @@
+package com.luna.user.service.impl;
+
+import com.luna.user.dto.UserSuggestionProjection;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ranking of graph-based suggestion candidates in UserServiceImpl.getSuggestedUsers, which
+ * loads twice the requested number of candidates and keeps the best scored.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SuggestionRankingBenchmark {
+
+    private static final String[] COUNTRIES = {"US", "MM", "TH", "GB", "JP"};
+
+    @Param({"20", "100"})
+    public int limit;
+
+    private List<UserSuggestionProjection> candidates;
+    private UserSuggestionProjection single;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        candidates = new ArrayList<>();
+        for (int i = 0; i < limit * 2; i++) {
+            candidates.add(new Candidate(
+                    UUID.randomUUID(),
+                    COUNTRIES[random.nextInt(COUNTRIES.length)],
+                    random.nextInt(30),
+                    (long) random.nextInt(100_000)));
+        }
+        single = candidates.get(0);
+    }
+
+    @Benchmark
+    public double computeScore() {
+        return UserServiceImpl.computeScore(single, "MM");
+    }
+
+    @Benchmark
+    public List<UserSuggestionProjection> rankByScore() {
+        return UserServiceImpl.rankByScore(candidates, "MM", limit);
+    }
+
+    private record Candidate(UUID id, String countryCode, int mutualConnections, long followers)
+            implements UserSuggestionProjection {
+
+        @Override
+        public UUID getId() {
+            return id;
+        }
+
+        @Override
+        public String getUsername() {
+            return "user-" + id;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return null;
+        }
+
+        @Override
+        public String getProfileImageUrl() {
+            return null;
+        }
+
+        @Override
+        public String getCountryCode() {
+            return countryCode;
+        }
+
+        @Override
+        public Integer getMutualConnectionCount() {
+            return mutualConnections;
+        }
+
+        @Override
+        public Long getFollowerCount() {
+            return followers;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.luna.activity.scheduler;
+
+import com.luna.activity.service.ActivityPartitionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(
+    value = "app.scheduling.enabled",
+    havingValue = "true",
+    matchIfMissing = true
+)
+public class ActivityPartitionScheduler {
+
+    private final ActivityPartitionService activityPartitionService;
+
+    /**
+     * Creates upcoming monthly activity partitions on startup as well, so a daily run missed
+     * while the application was down can't leave inserts without a partition.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void createActivityPartitionsOnStartup() {
+        try {
+            activityPartitionService.createUpcomingPartitions();
+        } catch (Exception e) {
+            log.error("Error creating activity partitions on startup", e);
+            // Retried by the daily run
+        }
+        checkCoverage();
+    }
+
+    /**
+     * Creates upcoming monthly activity partitions and checks how far ahead they reach, then
+     * archives and drops the ones past retention. Runs daily at 4:00 AM server time by default.
+     */
+    @Scheduled(cron = "${app.activity.partition-cron:0 0 4 * * *}")
+    public void maintainActivityPartitions() {
+        try {
+            activityPartitionService.createUpcomingPartitions();
+        } catch (Exception e) {
+            log.error("Error creating activity partitions", e);
+            // Don't rethrow - let scheduler continue running
+        }
+        checkCoverage();
+
+        try {
+            int dropped = activityPartitionService.expireOldPartitions();
+            if (dropped > 0) {
+                log.info("Expired {} activity partition(s)", dropped);
+            }
+        } catch (Exception e) {
+            log.error("Error expiring activity partitions", e);
+            // Don't rethrow - let scheduler continue running
+        }
+    }
+
+    private void checkCoverage() {
+        try {
+            activityPartitionService.checkCoverage();
+        } catch (Exception e) {
+            log.error("Error checking activity partitions", e);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.luna.activity.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Maintains the monthly partitions of the activities table (see V27 and
+ * docs/ACTIVITY_PARTITIONS.md).
+ *
+ * Partitions are created partitions-ahead months in advance; there is no default partition, so
+ * an insert for a month without one fails. Before that happens, checkCoverage() logs an error
+ * and the luna.activity.partitions.months.covered gauge drops. If retention-months is set (it
+ * is off by default), partitions for older months are detached concurrently and dropped, after
+ * being exported to archive-dir as gzipped CSV if archiving is on.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ActivityPartitionService {
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("activities_(\\d{4})_(\\d{2})");
+    private static final int ARCHIVE_BUFFER_SIZE = 64 * 1024;
+
+    // Monthly partition tables, including ones an interrupted expiry left detached or half-detached
+    private static final String LIST_PARTITIONS = """
+        SELECT c.relname, i.inhrelid IS NOT NULL AS attached, COALESCE(i.inhdetachpending, false) AS detach_pending
+        FROM pg_class c
+        LEFT JOIN pg_inherits i ON i.inhrelid = c.oid AND i.inhparent = 'activities'::regclass
+        WHERE c.relkind = 'r'
+          AND c.relnamespace = current_schema()::regnamespace
+          AND c.relname ~ '^activities_[0-9]{4}_[0-9]{2}$'
+        ORDER BY c.relname
+        """;
+
+    // Partitions currently attached to activities
+    private static final String LIST_ATTACHED_PARTITIONS = """
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'activities'::regclass AND NOT i.inhdetachpending
+        """;
+
+    private record Partition(String name, boolean attached, boolean detachPending) {}
+
+    @Value("${app.activity.partitions-ahead:3}")
+    private int partitionsAhead;
+
+    @Value("${app.activity.min-months-covered:3}")
+    private int minMonthsCovered;
+
+    @Value("${app.activity.retention-months:0}")
+    private int retentionMonths;
+
+    @Value("${app.activity.archive-enabled:false}")
+    private boolean archiveEnabled;
+
+    @Value("${app.activity.archive-dir:./archive/activities}")
+    private String archiveDir;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    // Consecutive months from the current one with a partition, as of the last check
+    private final AtomicInteger monthsCovered = new AtomicInteger();
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("luna.activity.partitions.months.covered", monthsCovered, AtomicInteger::get)
+            .description("Consecutive months from the current one that have an activities partition, as of the last check")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Create the partitions for this month and the next partitions-ahead months if missing.
+     * Returns the number of partitions created.
+     */
+    public int createUpcomingPartitions() {
+        YearMonth current = YearMonth.now();
+        int created = 0;
+        for (int i = 0; i <= partitionsAhead; i++) {
+            LocalDate monthStart = current.plusMonths(i).atDay(1);
+            Boolean isNew = jdbcTemplate.queryForObject(
+                "SELECT create_activities_partition(?)", Boolean.class, monthStart);
+            if (Boolean.TRUE.equals(isNew)) {
+                log.info("Created activities partition for {}", current.plusMonths(i));
+                created++;
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Count the consecutive months from the current one that have an attached partition, and log
+     * an error if fewer than min-months-covered are left. Activity inserts start failing once
+     * the count reaches 0. Returns the count.
+     */
+    public int checkCoverage() {
+        Set<String> attached = new HashSet<>(jdbcTemplate.queryForList(LIST_ATTACHED_PARTITIONS, String.class));
+        YearMonth month = YearMonth.now();
+        int covered = 0;
+        while (attached.contains(String.format("activities_%04d_%02d", month.getYear(), month.getMonthValue()))) {
+            covered++;
+            month = month.plusMonths(1);
+        }
+        monthsCovered.set(covered);
+        if (covered < minMonthsCovered) {
+            log.error("Activities partitions only cover {} month(s), fewer than {}: activity inserts will fail from {}. "
+                + "Check the errors from partition creation", covered, minMonthsCovered, month);
+        }
+        return covered;
+    }
+
+    /**
+     * Archive (if enabled), detach and drop partitions for months before the retention window.
+     * DETACH ... CONCURRENTLY only waits for queries already using activities instead of
+     * blocking reads and inserts, and can't run inside a transaction, so this must not be
+     * called from one. A partition whose export or detach fails is retried on the next run.
+     * Returns the number of partitions dropped.
+     */
+    public int expireOldPartitions() {
+        if (retentionMonths <= 0) {
+            return 0;
+        }
+        YearMonth oldestKept = YearMonth.now().minusMonths(retentionMonths);
+        List<Partition> partitions = jdbcTemplate.query(LIST_PARTITIONS, (rs, rowNum) ->
+            new Partition(rs.getString("relname"), rs.getBoolean("attached"), rs.getBoolean("detach_pending")));
+
+        int dropped = 0;
+        for (Partition partition : partitions) {
+            Matcher matcher = PARTITION_NAME.matcher(partition.name());
+            if (!matcher.matches()) {
+                continue;
+            }
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (!month.isBefore(oldestKept)) {
+                continue;
+            }
+            // Safe to concatenate: the name matched PARTITION_NAME
+            String name = partition.name();
+            try {
+                if (archiveEnabled) {
+                    archive(name);
+                }
+                if (partition.detachPending()) {
+                    jdbcTemplate.execute("ALTER TABLE activities DETACH PARTITION " + name + " FINALIZE");
+                } else if (partition.attached()) {
+                    jdbcTemplate.execute("ALTER TABLE activities DETACH PARTITION " + name + " CONCURRENTLY");
+                }
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + name);
+                log.info("Dropped activities partition {}", name);
+                dropped++;
+            } catch (Exception e) {
+                log.error("Failed to expire activities partition {}", name, e);
+            }
+        }
+        return dropped;
+    }
+
+    /**
+     * Export a partition with COPY into archive-dir/partition.csv.gz. Written to a temporary
+     * file first, so a complete archive is never replaced by a partial one.
+     */
+    private void archive(String partition) throws IOException {
+        Path directory = Path.of(archiveDir).toAbsolutePath();
+        Files.createDirectories(directory);
+        Path target = directory.resolve(partition + ".csv.gz");
+        Path temp = directory.resolve(partition + ".csv.gz.tmp");
+
+        long start = System.currentTimeMillis();
+        Long rows = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp), ARCHIVE_BUFFER_SIZE)) {
+                return connection.unwrap(PGConnection.class).getCopyAPI()
+                    .copyOut("COPY " + partition + " TO STDOUT WITH (FORMAT csv, HEADER)", out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        log.info("Archived {} row(s) from {} to {} in {} ms",
+            rows, partition, target, System.currentTimeMillis() - start);
+    }
+}
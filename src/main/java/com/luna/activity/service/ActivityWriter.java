@@ -0,0 +1,209 @@
+package com.luna.activity.service;
+
+import com.luna.activity.entity.ActivityType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffers activity events in a bounded queue and writes them from a single background thread
+ * as multi-row INSERTs, every flush-interval-ms or as soon as batch-size events are waiting.
+ *
+ * Callers never block: when the queue is full the event is dropped and counted, since the
+ * activity log is best-effort and must not slow down likes, follows or posts.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ActivityWriter {
+
+    private static final String INSERT_PREFIX = """
+        INSERT INTO activities (id, user_id, activity_type, entity_type, entity_id, target_user_id, metadata, created_at)
+        SELECT gen_random_uuid(), v.user_id, v.activity_type, v.entity_type, v.entity_id, v.target_user_id, v.metadata, v.created_at
+        FROM (VALUES
+        """;
+    // Join on users so events for deleted users are skipped instead of failing the whole batch
+    private static final String INSERT_SUFFIX = """
+        ) AS v(user_id, activity_type, entity_type, entity_id, target_user_id, metadata, created_at)
+        JOIN users u ON u.id = v.user_id
+        """;
+    private static final String VALUES_ROW = "(?::uuid, ?, ?, ?::uuid, ?::uuid, ?, ?::timestamp)";
+    private static final int COLUMNS_PER_ROW = 7;
+
+    @Value("${app.activity.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.activity.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.activity.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private BlockingQueue<ActivityEvent> queue;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    private Counter droppedCounter;
+    private Counter writtenCounter;
+    private Counter failedCounter;
+    private Timer flushTimer;
+
+    public record ActivityEvent(UUID userId, ActivityType activityType, String entityType,
+                                UUID entityId, UUID targetUserId, String metadata,
+                                LocalDateTime createdAt) {}
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("luna.activity.queue.depth", queue, BlockingQueue::size)
+            .description("Activity events waiting to be written")
+            .register(meterRegistry);
+        droppedCounter = Counter.builder("luna.activity.dropped")
+            .description("Activity events dropped because the queue was full")
+            .register(meterRegistry);
+        writtenCounter = Counter.builder("luna.activity.written")
+            .description("Activity events written to the database")
+            .register(meterRegistry);
+        failedCounter = Counter.builder("luna.activity.failed")
+            .description("Activity events lost because a batch insert failed")
+            .register(meterRegistry);
+        flushTimer = Timer.builder("luna.activity.flush")
+            .description("Time spent writing one batch of activity events")
+            .register(meterRegistry);
+
+        running = true;
+        writerThread = new Thread(this::run, "activity-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Queue an event without blocking. Returns false if it was dropped.
+     */
+    public boolean enqueue(ActivityEvent event) {
+        if (queue.offer(event)) {
+            return true;
+        }
+        droppedCounter.increment();
+        log.debug("Activity queue full, dropped {} by user {}", event.activityType(), event.userId());
+        return false;
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        writerThread.interrupt();
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Write whatever is still queued before the datasource goes away
+        drainAndWrite();
+    }
+
+    private void run() {
+        List<ActivityEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    ActivityEvent event = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (event == null) {
+                        break;
+                    }
+                    batch.add(event);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+                if (!batch.isEmpty()) {
+                    write(batch);
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                // Shutdown; stop() writes the remainder
+                if (!batch.isEmpty()) {
+                    write(batch);
+                }
+                return;
+            } catch (Exception e) {
+                log.error("Activity writer loop failed", e);
+                batch.clear();
+            }
+        }
+    }
+
+    private void drainAndWrite() {
+        List<ActivityEvent> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<ActivityEvent> batch) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX);
+        for (int i = 0; i < batch.size(); i++) {
+            if (i > 0) {
+                sql.append(",\n");
+            }
+            sql.append(VALUES_ROW);
+        }
+        sql.append(INSERT_SUFFIX);
+
+        long start = System.nanoTime();
+        try {
+            int inserted = jdbcTemplate.update(sql.toString(), ps -> bind(ps, batch));
+            writtenCounter.increment(inserted);
+            if (inserted < batch.size()) {
+                log.debug("Skipped {} activity event(s) for non-existent users", batch.size() - inserted);
+            }
+        } catch (Exception e) {
+            failedCounter.increment(batch.size());
+            log.error("Failed to write {} activity event(s)", batch.size(), e);
+            // Don't rethrow - activity logging should not break main flow
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void bind(PreparedStatement ps, List<ActivityEvent> batch) throws SQLException {
+        int index = 1;
+        for (ActivityEvent event : batch) {
+            ps.setObject(index, event.userId());
+            ps.setString(index + 1, event.activityType().name());
+            ps.setString(index + 2, event.entityType());
+            ps.setObject(index + 3, event.entityId());
+            ps.setObject(index + 4, event.targetUserId());
+            ps.setString(index + 5, event.metadata());
+            ps.setTimestamp(index + 6, Timestamp.valueOf(event.createdAt()));
+            index += COLUMNS_PER_ROW;
+        }
+    }
+}
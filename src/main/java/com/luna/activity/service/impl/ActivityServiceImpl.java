@@ -4,55 +4,42 @@ import com.luna.activity.dto.ActivityResponse;
 import com.luna.activity.entity.Activity;
 import com.luna.activity.entity.ActivityType;
 import com.luna.activity.repository.ActivityRepository;
+import com.luna.activity.service.ActivityWriter;
 import com.luna.activity.service.IActivityService;
-import com.luna.user.entity.User;
-import com.luna.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
-@Slf4j
 public class ActivityServiceImpl implements IActivityService {
 
     private final ActivityRepository activityRepository;
-    private final UserRepository userRepository;
+    private final ActivityWriter activityWriter;
 
     @Override
-    @Async
-    @Transactional
     public void logActivity(UUID userId, ActivityType activityType, String entityType,
                            UUID entityId, UUID targetUserId, String metadata) {
-        try {
-            User user = userRepository.findById(userId).orElse(null);
-            if (user == null) {
-                log.warn("Cannot log activity for non-existent user: {}", userId);
-                return;
-            }
+        ActivityWriter.ActivityEvent event = new ActivityWriter.ActivityEvent(
+            userId, activityType, entityType, entityId, targetUserId, metadata, LocalDateTime.now());
 
-            Activity activity = Activity.builder()
-                .user(user)
-                .activityType(activityType)
-                .entityType(entityType)
-                .entityId(entityId)
-                .targetUserId(targetUserId)
-                .metadata(metadata)
-                .build();
-
-            activityRepository.save(activity);
-            log.debug("Activity logged: {} by user {} on {} {}",
-                activityType, userId, entityType, entityId);
-
-        } catch (Exception e) {
-            log.error("Failed to log activity: {} for user {}", activityType, userId, e);
-            // Don't throw - activity logging should not break main flow
+        // Only record actions whose transaction actually commits
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    activityWriter.enqueue(event);
+                }
+            });
+        } else {
+            activityWriter.enqueue(event);
         }
     }
 
@@ -5,7 +5,6 @@ import com.luna.auth.service.IAuthService;
 import com.luna.common.dto.ApiResponse;
 import com.luna.common.exception.BadRequestException;
 import com.luna.common.service.RateLimitService;
-import io.github.bucket4j.Bucket;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -37,10 +36,9 @@ public class AuthController {
             HttpServletRequest httpRequest) {
         
         // Rate limit by IP
-        String key = "register:" + getClientIP(httpRequest);
-        Bucket bucket = rateLimitService.resolveBucket(key);
+        String key = getClientIP(httpRequest);
         
-        if (!bucket.tryConsume(1)) {
+        if (!rateLimitService.tryConsume("register", key)) {
             throw new BadRequestException("Too many registration attempts. Please try again later.");
         }
         
@@ -62,10 +60,9 @@ public class AuthController {
             HttpServletRequest httpRequest) {
 
         // Rate limit by IP + email
-        String key = "verify-email:" + getClientIP(httpRequest) + ":" + request.getEmail();
-        Bucket bucket = rateLimitService.resolveBucket(key);
-
-        if (!bucket.tryConsume(1)) {
+        String key = getClientIP(httpRequest) + ":" + request.getEmail();
+        
+        if (!rateLimitService.tryConsume("verify-email", key)) {
             throw new BadRequestException("Too many verification attempts. Please try again later.");
         }
 
@@ -87,10 +84,9 @@ public class AuthController {
             HttpServletRequest httpRequest) {
         
         // Rate limit by IP + email
-        String key = "resend:" + getClientIP(httpRequest) + ":" + request.getEmail();
-        Bucket bucket = rateLimitService.resolveBucket(key);
+        String key = getClientIP(httpRequest) + ":" + request.getEmail();
         
-        if (!bucket.tryConsume(1)) {
+        if (!rateLimitService.tryConsume("resend", key)) {
             throw new BadRequestException("Too many requests. Please try again later.");
         }
         
@@ -114,10 +110,9 @@ public class AuthController {
             HttpServletRequest httpRequest) {
         
         // Rate limit by IP + email (prevent brute force)
-        String key = "login:" + getClientIP(httpRequest) + ":" + request.getEmail();
-        Bucket bucket = rateLimitService.resolveBucket(key);
+        String key = getClientIP(httpRequest) + ":" + request.getEmail();
         
-        if (!bucket.tryConsume(1)) {
+        if (!rateLimitService.tryConsume("login", key)) {
             throw new BadRequestException("Too many login attempts. Please try again later.");
         }
 
@@ -144,10 +139,9 @@ public class AuthController {
             HttpServletRequest httpRequest) {
 
         // Rate limit by IP + email
-        String key = "verify-device:" + getClientIP(httpRequest) + ":" + request.getEmail();
-        Bucket bucket = rateLimitService.resolveBucket(key);
-
-        if (!bucket.tryConsume(1)) {
+        String key = getClientIP(httpRequest) + ":" + request.getEmail();
+        
+        if (!rateLimitService.tryConsume("verify-device", key)) {
             throw new BadRequestException("Too many verification attempts. Please try again later.");
         }
 
@@ -167,10 +161,9 @@ public class AuthController {
             HttpServletRequest httpRequest) {
         
         // Rate limit by IP + email
-        String key = "resend-device:" + getClientIP(httpRequest) + ":" + request.getEmail();
-        Bucket bucket = rateLimitService.resolveBucket(key);
+        String key = getClientIP(httpRequest) + ":" + request.getEmail();
         
-        if (!bucket.tryConsume(1)) {
+        if (!rateLimitService.tryConsume("resend-device", key)) {
             throw new BadRequestException("Too many requests. Please try again later.");
         }
         
@@ -203,10 +196,9 @@ public class AuthController {
             HttpServletRequest httpRequest) {
 
         // Rate limit by IP + email
-        String key = "forgot-password:" + getClientIP(httpRequest) + ":" + request.getEmail();
-        Bucket bucket = rateLimitService.resolveBucket(key);
-
-        if (!bucket.tryConsume(1)) {
+        String key = getClientIP(httpRequest) + ":" + request.getEmail();
+        
+        if (!rateLimitService.tryConsume("forgot-password", key)) {
             throw new BadRequestException("Too many requests. Please try again later.");
         }
 
@@ -227,10 +219,9 @@ public class AuthController {
             HttpServletRequest httpRequest) {
 
         // Rate limit by IP + email
-        String key = "verify-reset-otp:" + getClientIP(httpRequest) + ":" + request.getEmail();
-        Bucket bucket = rateLimitService.resolveBucket(key);
-
-        if (!bucket.tryConsume(1)) {
+        String key = getClientIP(httpRequest) + ":" + request.getEmail();
+        
+        if (!rateLimitService.tryConsume("verify-reset-otp", key)) {
             throw new BadRequestException("Too many requests. Please try again later.");
         }
 
@@ -251,10 +242,9 @@ public class AuthController {
             HttpServletRequest httpRequest) {
 
         // Rate limit by IP + email
-        String key = "reset-password:" + getClientIP(httpRequest) + ":" + request.getEmail();
-        Bucket bucket = rateLimitService.resolveBucket(key);
-
-        if (!bucket.tryConsume(1)) {
+        String key = getClientIP(httpRequest) + ":" + request.getEmail();
+        
+        if (!rateLimitService.tryConsume("reset-password", key)) {
             throw new BadRequestException("Too many requests. Please try again later.");
         }
 
@@ -276,10 +266,9 @@ public class AuthController {
             HttpServletRequest httpRequest) {
 
         // Rate limit by IP
-        String key = "google-auth:" + getClientIP(httpRequest);
-        Bucket bucket = rateLimitService.resolveBucket(key);
-
-        if (!bucket.tryConsume(1)) {
+        String key = getClientIP(httpRequest);
+        
+        if (!rateLimitService.tryConsume("google-auth", key)) {
             throw new BadRequestException("Too many requests. Please try again later.");
         }
 
@@ -9,10 +9,12 @@ import com.luna.common.exception.UnauthorizedException;
 import com.luna.common.service.EmailService;
 import com.luna.common.service.GeoIpService;
 import com.luna.user.entity.*;
+import com.luna.user.event.UserProfileChangedEvent;
 import com.luna.user.repository.*;
 import com.luna.security.JwtService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -42,6 +44,7 @@ public class AuthServiceImpl implements IAuthService {
     private final GeoIpService geoIpService;
     private final PasswordResetTokenRepository passwordResetTokenRepository;
     private final GoogleTokenVerifierService googleTokenVerifierService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -256,6 +259,7 @@ public class AuthServiceImpl implements IAuthService {
         user.setEmailVerified(true);
         user.setIsActive(true);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserProfileChangedEvent(user.getId()));
 
         // Mark token as used
         verificationToken.setUsed(true);
@@ -308,7 +312,7 @@ public class AuthServiceImpl implements IAuthService {
         // Generate and send new device OTP
         String otp = generateOtp();
         createDeviceVerificationToken(user, deviceFingerprint, otp);
-        emailService.sendDeviceVerificationEmail(user.getEmail(), deviceFingerprint, otp);
+        emailService.sendDeviceVerificationEmail(user.getEmail(), otp, deviceFingerprint);
     }
 
     private String generateOtp() {
@@ -503,6 +507,7 @@ public class AuthServiceImpl implements IAuthService {
                 user.setProfileImageUrl(pictureUrl);
             }
             userRepository.save(user);
+            eventPublisher.publishEvent(new UserProfileChangedEvent(user.getId()));
 
             var accessToken = jwtService.generateAccessToken(user);
             var refreshToken = createRefreshToken(user);
@@ -538,6 +543,7 @@ public class AuthServiceImpl implements IAuthService {
                 .country(country)
                 .build();
         userRepository.save(newUser);
+        eventPublisher.publishEvent(new UserProfileChangedEvent(newUser.getId()));
 
         var accessToken = jwtService.generateAccessToken(newUser);
         var refreshToken = createRefreshToken(newUser);
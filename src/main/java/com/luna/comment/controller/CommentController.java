@@ -5,6 +5,8 @@ import com.luna.comment.dto.CreateCommentRequest;
 import com.luna.comment.service.ICommentService;
 import com.luna.common.dto.ApiResponse;
 import com.luna.common.dto.PagedResponse;
+import com.luna.common.exception.BadRequestException;
+import com.luna.common.service.RateLimitService;
 import com.luna.security.SecurityUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -30,6 +32,7 @@ import java.util.UUID;
 public class CommentController {
 
     private final ICommentService commentService;
+    private final RateLimitService rateLimitService;
 
     @PostMapping("/posts/{postId}/comments")
     @Operation(summary = "Create a comment on a post",
@@ -39,13 +42,16 @@ public class CommentController {
             @Valid @RequestBody CreateCommentRequest request,
             Authentication authentication) {
         UUID userId = SecurityUtils.getUserId(authentication);
+        if (!rateLimitService.tryConsume("comment", userId.toString())) {
+            throw new BadRequestException("Too many requests. Please try again later.");
+        }
         CommentResponse response = commentService.createComment(postId, userId, request);
         return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success(response));
     }
 
     @GetMapping("/posts/{postId}/comments")
     @Operation(summary = "Get comments for a post",
-               description = "Returns paginated top-level comments with nested replies")
+               description = "Returns paginated top-level comments with a preview of their nested replies")
     public ResponseEntity<ApiResponse<PagedResponse<CommentResponse>>> getPostComments(
             @PathVariable("postId") UUID postId,
             @Parameter(description = "Page number (0-indexed)") @RequestParam(name = "page", defaultValue = "0") int page,
@@ -55,8 +61,20 @@ public class CommentController {
         return ResponseEntity.ok(ApiResponse.success(PagedResponse.of(comments)));
     }
 
+    @GetMapping("/comments/{commentId}/replies")
+    @Operation(summary = "Get replies to a comment",
+               description = "Returns paginated direct replies, oldest first, each with a preview of its own replies")
+    public ResponseEntity<ApiResponse<PagedResponse<CommentResponse>>> getReplies(
+            @PathVariable("commentId") UUID commentId,
+            @Parameter(description = "Page number (0-indexed)") @RequestParam(name = "page", defaultValue = "0") int page,
+            @Parameter(description = "Number of replies per page") @RequestParam(name = "size", defaultValue = "20") int size) {
+        Pageable pageable = PageRequest.of(page, Math.min(size, 50));
+        Page<CommentResponse> replies = commentService.getReplies(commentId, pageable);
+        return ResponseEntity.ok(ApiResponse.success(PagedResponse.of(replies)));
+    }
+
     @GetMapping("/comments/{commentId}")
-    @Operation(summary = "Get a single comment with its replies")
+    @Operation(summary = "Get a single comment with a preview of its replies")
     public ResponseEntity<ApiResponse<CommentResponse>> getComment(@PathVariable("commentId") UUID commentId) {
         CommentResponse response = commentService.getComment(commentId);
         return ResponseEntity.ok(ApiResponse.success(response));
@@ -50,6 +50,11 @@ public class Comment {
     @Builder.Default
     private Integer depth = 0;  // 0 = top-level, 1 = reply, 2 = reply to reply (max)
     
+    // Direct replies only; changed with atomic UPDATEs (see CommentRepository), never by saving the entity
+    @Column(name = "reply_count", updatable = false)
+    @Builder.Default
+    private Integer replyCount = 0;
+    
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -3,17 +3,82 @@ package com.luna.comment.repository;
 import com.luna.comment.entity.Comment;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, UUID> {
 
     // Get top-level comments for a post
+    @EntityGraph(attributePaths = "author")
     Page<Comment> findByPostIdAndParentIsNullOrderByCreatedAtDesc(UUID postId, Pageable pageable);
 
+    // Get direct replies of a comment, oldest first
+    @EntityGraph(attributePaths = "author")
+    Page<Comment> findByParentIdOrderByCreatedAtAscIdAsc(UUID parentId, Pageable pageable);
+
+    @EntityGraph(attributePaths = "author")
+    @Query("SELECT c FROM Comment c WHERE c.id IN :ids")
+    List<Comment> findAllWithAuthorByIdIn(@Param("ids") Collection<UUID> ids);
+
+    // Ids of the first :perParent replies (oldest first) under each of the given comments, repeated
+    // level by level down to :maxDepth
+    @Query(value = """
+        WITH RECURSIVE thread AS (
+            SELECT r.id, r.depth
+            FROM comments p
+            CROSS JOIN LATERAL (
+                SELECT c.id, c.depth FROM comments c
+                WHERE c.parent_id = p.id
+                ORDER BY c.created_at, c.id
+                LIMIT :perParent
+            ) r
+            WHERE p.id IN (:parentIds)
+            UNION ALL
+            SELECT r.id, r.depth
+            FROM thread t
+            CROSS JOIN LATERAL (
+                SELECT c.id, c.depth FROM comments c
+                WHERE c.parent_id = t.id
+                ORDER BY c.created_at, c.id
+                LIMIT :perParent
+            ) r
+            WHERE t.depth < :maxDepth
+        )
+        SELECT id FROM thread
+        """, nativeQuery = true)
+    List<UUID> findReplyPreviewIds(@Param("parentIds") Collection<UUID> parentIds,
+                                   @Param("perParent") int perParent,
+                                   @Param("maxDepth") int maxDepth);
+
+    // Size of the subtree rooted at a comment, the comment included
+    @Query(value = """
+        WITH RECURSIVE subtree AS (
+            SELECT id FROM comments WHERE id = :commentId
+            UNION ALL
+            SELECT c.id FROM comments c JOIN subtree s ON c.parent_id = s.id
+        )
+        SELECT COUNT(*) FROM subtree
+        """, nativeQuery = true)
+    long countSubtree(@Param("commentId") UUID commentId);
+
+    @Modifying
+    @Query("UPDATE Comment c SET c.replyCount = c.replyCount + :delta WHERE c.id = :commentId")
+    int addReplyCount(@Param("commentId") UUID commentId, @Param("delta") int delta);
+
+    // Replies go with it through ON DELETE CASCADE on parent_id
+    @Modifying
+    @Query(value = "DELETE FROM comments WHERE id = :commentId", nativeQuery = true)
+    int deleteSubtree(@Param("commentId") UUID commentId);
+
     // Count top-level comments for a post
     long countByPostIdAndParentIsNull(UUID postId);
 
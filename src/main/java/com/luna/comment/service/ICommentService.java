@@ -17,6 +17,8 @@ public interface ICommentService {
 
     Page<CommentResponse> getPostComments(UUID postId, Pageable pageable);
 
+    Page<CommentResponse> getReplies(UUID commentId, Pageable pageable);
+
     CommentResponse getComment(UUID commentId);
 
     long getCommentCount(UUID postId);
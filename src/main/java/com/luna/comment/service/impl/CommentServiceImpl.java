@@ -10,25 +10,38 @@ import com.luna.common.exception.ResourceNotFoundException;
 import com.luna.common.exception.UnauthorizedException;
 import com.luna.post.entity.Post;
 import com.luna.post.repository.PostRepository;
+import com.luna.post.service.PostCounterService;
 import com.luna.user.entity.User;
 import com.luna.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CommentServiceImpl implements ICommentService {
 
+    private static final Comparator<Comment> THREAD_ORDER =
+        Comparator.comparing(Comment::getCreatedAt).thenComparing(Comment::getId);
+
+    @Value("${app.comments.reply-preview-size:3}")
+    private int replyPreviewSize;
+
     private final CommentRepository commentRepository;
     private final PostRepository postRepository;
     private final UserRepository userRepository;
+    private final PostCounterService postCounterService;
 
     @Override
     @Transactional
@@ -59,6 +72,7 @@ public class CommentServiceImpl implements ICommentService {
             }
 
             depth = parent.getDepth() + 1;
+            commentRepository.addReplyCount(parent.getId(), 1);
         }
 
         Comment comment = Comment.builder()
@@ -71,7 +85,9 @@ public class CommentServiceImpl implements ICommentService {
 
         comment = commentRepository.save(comment);
 
-        return mapToResponse(comment, true);
+        postCounterService.increment(postId, PostCounterService.Counter.COMMENTS);
+
+        return mapToResponse(comment, Map.of());
     }
 
     @Override
@@ -87,7 +103,7 @@ public class CommentServiceImpl implements ICommentService {
         comment.setContent(content);
         comment = commentRepository.save(comment);
 
-        return mapToResponse(comment, false);
+        return mapToResponse(comment, null);
     }
 
     @Override
@@ -100,7 +116,16 @@ public class CommentServiceImpl implements ICommentService {
             throw new UnauthorizedException("You can only delete your own comments");
         }
 
-        commentRepository.delete(comment);
+        // Replies are removed by cascade, so the post loses the whole subtree
+        long removed = commentRepository.countSubtree(commentId);
+        UUID postId = comment.getPost().getId();
+
+        if (comment.getParent() != null) {
+            commentRepository.addReplyCount(comment.getParent().getId(), -1);
+        }
+        commentRepository.deleteSubtree(commentId);
+
+        postCounterService.add(postId, PostCounterService.Counter.COMMENTS, -removed);
     }
 
     @Override
@@ -111,17 +136,34 @@ public class CommentServiceImpl implements ICommentService {
         }
 
         Page<Comment> comments = commentRepository.findByPostIdAndParentIsNullOrderByCreatedAtDesc(postId, pageable);
+        Map<UUID, List<Comment>> repliesByParent = loadReplyPreviews(comments.getContent());
+
+        return comments.map(comment -> mapToResponse(comment, repliesByParent));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<CommentResponse> getReplies(UUID commentId, Pageable pageable) {
+        if (!commentRepository.existsById(commentId)) {
+            throw new ResourceNotFoundException("Comment not found");
+        }
 
-        return comments.map(comment -> mapToResponse(comment, true));
+        Page<Comment> replies = commentRepository.findByParentIdOrderByCreatedAtAscIdAsc(commentId, pageable);
+        Map<UUID, List<Comment>> repliesByParent = loadReplyPreviews(replies.getContent());
+
+        return replies.map(reply -> mapToResponse(reply, repliesByParent));
     }
 
     @Override
     @Transactional(readOnly = true)
     public CommentResponse getComment(UUID commentId) {
-        Comment comment = commentRepository.findById(commentId)
-            .orElseThrow(() -> new ResourceNotFoundException("Comment not found"));
+        List<Comment> found = commentRepository.findAllWithAuthorByIdIn(List.of(commentId));
+        if (found.isEmpty()) {
+            throw new ResourceNotFoundException("Comment not found");
+        }
 
-        return mapToResponse(comment, true);
+        Comment comment = found.get(0);
+        return mapToResponse(comment, loadReplyPreviews(found));
     }
 
     @Override
@@ -130,13 +172,46 @@ public class CommentServiceImpl implements ICommentService {
         return commentRepository.countByPostId(postId);
     }
 
-    private CommentResponse mapToResponse(Comment comment, boolean includeReplies) {
+    /**
+     * Loads the first few replies under each comment, and theirs in turn, with authors in two
+     * queries. The rest of a thread is fetched page by page through {@link #getReplies}.
+     */
+    private Map<UUID, List<Comment>> loadReplyPreviews(Collection<Comment> comments) {
+        List<UUID> parentIds = comments.stream()
+            .filter(comment -> comment.getReplyCount() > 0)
+            .map(Comment::getId)
+            .toList();
+        if (parentIds.isEmpty() || replyPreviewSize <= 0) {
+            return Map.of();
+        }
+
+        List<UUID> replyIds = commentRepository.findReplyPreviewIds(parentIds, replyPreviewSize, Comment.MAX_DEPTH);
+        if (replyIds.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<UUID, List<Comment>> repliesByParent = new HashMap<>();
+        for (Comment reply : commentRepository.findAllWithAuthorByIdIn(replyIds)) {
+            repliesByParent.computeIfAbsent(reply.getParent().getId(), id -> new ArrayList<>()).add(reply);
+        }
+        repliesByParent.values().forEach(replies -> replies.sort(THREAD_ORDER));
+        return repliesByParent;
+    }
+
+    /**
+     * Builds the response for a comment and, when repliesByParent is given, the reply previews
+     * under it. Pass null to leave replies out.
+     */
+    private CommentResponse mapToResponse(Comment comment, Map<UUID, List<Comment>> repliesByParent) {
         List<CommentResponse> replies = null;
 
-        if (includeReplies && comment.getReplies() != null && !comment.getReplies().isEmpty()) {
-            replies = comment.getReplies().stream()
-                .map(reply -> mapToResponse(reply, true))
-                .collect(Collectors.toList());
+        if (repliesByParent != null) {
+            List<Comment> children = repliesByParent.get(comment.getId());
+            if (children != null && !children.isEmpty()) {
+                replies = children.stream()
+                    .map(reply -> mapToResponse(reply, repliesByParent))
+                    .toList();
+            }
         }
 
         return CommentResponse.builder()
@@ -151,7 +226,7 @@ public class CommentServiceImpl implements ICommentService {
             .parentId(comment.getParent() != null ? comment.getParent().getId() : null)
             .depth(comment.getDepth())
             .replies(replies)
-            .replyCount(comment.getReplies() != null ? comment.getReplies().size() : 0)
+            .replyCount(comment.getReplyCount())
             .createdAt(comment.getCreatedAt())
             .updatedAt(comment.getUpdatedAt())
             .build();
@@ -3,7 +3,7 @@ package com.luna.common.controller;
 import com.luna.common.dto.ApiResponse;
 import com.luna.common.dto.UploadResponse;
 import com.luna.common.exception.BadRequestException;
-import com.luna.common.service.CloudinaryService;
+import com.luna.common.service.MediaService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -25,7 +25,7 @@ public class UploadController {
 
     private static final Set<String> ALLOWED_FOLDERS = Set.of("profiles", "posts");
 
-    private final CloudinaryService cloudinaryService;
+    private final MediaService mediaService;
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @Operation(
@@ -46,9 +46,9 @@ public class UploadController {
         String contentType = file.getContentType();
         String url;
         if (contentType != null && contentType.startsWith("video/")) {
-            url = cloudinaryService.uploadVideo(file, folder);
+            url = mediaService.uploadVideo(file, folder);
         } else {
-            url = cloudinaryService.uploadImage(file, folder);
+            url = mediaService.uploadImage(file, folder);
         }
 
         return ResponseEntity.ok(ApiResponse.success(new UploadResponse(url)));
@@ -0,0 +1,54 @@
+package com.luna.common.dto;
+
+import com.luna.common.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque keyset pagination cursor over a (timestamp, id) sort key, both descending.
+ * Encoded as URL-safe base64 so clients treat it as an opaque token.
+ */
+public record Cursor(LocalDateTime timestamp, UUID id) {
+
+    // Sorts after every real row, used when the client asks for the first page
+    private static final Cursor START = new Cursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), new UUID(-1L, -1L));
+
+    public static Cursor start() {
+        return START;
+    }
+
+    public String encode() {
+        String raw = timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a client supplied cursor; a blank cursor means the first page
+     */
+    public static Cursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 2);
+            return new Cursor(LocalDateTime.parse(parts[0]), UUID.fromString(parts[1]));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Build a cursor from a native query row, where timestamps may come back as JDBC types
+     */
+    public static Cursor fromRow(Object timestamp, Object id) {
+        LocalDateTime ts = timestamp instanceof Timestamp sqlTimestamp
+            ? sqlTimestamp.toLocalDateTime()
+            : (LocalDateTime) timestamp;
+        return new Cursor(ts, (UUID) id);
+    }
+}
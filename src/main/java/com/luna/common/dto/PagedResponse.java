@@ -1,5 +1,6 @@
 package com.luna.common.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -13,6 +14,7 @@ import java.util.List;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class PagedResponse<T> {
 
     private List<T> content;
@@ -20,17 +22,21 @@ public class PagedResponse<T> {
     @JsonProperty("meta")
     private PageMeta meta;
 
+    // Only present for cursor-paginated responses
+    private String nextCursor;
+
     @Data
     @Builder
     @NoArgsConstructor
     @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     public static class PageMeta {
-        private int page;
+        private Integer page;
         private int size;
-        private long totalItems;
-        private int totalPages;
+        private Long totalItems;
+        private Integer totalPages;
         private boolean hasNext;
-        private boolean hasPrevious;
+        private Boolean hasPrevious;
     }
 
     public static <T> PagedResponse<T> of(Page<T> page) {
@@ -46,4 +52,15 @@ public class PagedResponse<T> {
                         .build())
                 .build();
     }
+
+    public static <T> PagedResponse<T> of(CursorSlice<T> slice) {
+        return PagedResponse.<T>builder()
+                .content(slice.getContent())
+                .meta(PageMeta.builder()
+                        .size(slice.getSize())
+                        .hasNext(slice.isHasNext())
+                        .build())
+                .nextCursor(slice.getNextCursor())
+                .build();
+    }
 }
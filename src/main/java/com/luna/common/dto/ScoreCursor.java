@@ -0,0 +1,47 @@
+package com.luna.common.dto;
+
+import com.luna.common.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque keyset pagination cursor over a (score, id) sort key, both descending, for ranked
+ * results. The score must be a pure function of the row so it sorts the same on every page.
+ */
+public record ScoreCursor(double score, UUID id) {
+
+    // Sorts after every real row, used when the client asks for the first page
+    private static final ScoreCursor START = new ScoreCursor(Double.MAX_VALUE, new UUID(-1L, -1L));
+
+    public static ScoreCursor start() {
+        return START;
+    }
+
+    public String encode() {
+        // Double.toString round-trips exactly, so the next page starts strictly after this row
+        String raw = score + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a client supplied cursor; a blank cursor means the first page
+     */
+    public static ScoreCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 2);
+            double score = Double.parseDouble(parts[0]);
+            if (Double.isNaN(score)) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return new ScoreCursor(score, UUID.fromString(parts[1]));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
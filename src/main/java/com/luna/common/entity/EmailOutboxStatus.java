@@ -0,0 +1,8 @@
+package com.luna.common.entity;
+
+public enum EmailOutboxStatus {
+    PENDING,     // Waiting to be sent (or retried)
+    SENDING,     // Claimed by a dispatcher; reclaimed if the lease expires
+    SUPERSEDED,  // Replaced by a newer email of the same type to the same recipient
+    FAILED       // Gave up after the maximum number of attempts
+}
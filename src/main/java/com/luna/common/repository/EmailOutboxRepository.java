@@ -0,0 +1,82 @@
+package com.luna.common.repository;
+
+import com.luna.common.entity.EmailOutboxMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, UUID> {
+
+    // Mark unsent emails with the same dedupe key as replaced (e.g. an older OTP the user asked to resend)
+    @Modifying
+    @Query(value = """
+        UPDATE email_outbox SET status = 'SUPERSEDED'
+        WHERE dedupe_key = :dedupeKey AND status = 'PENDING'
+        """, nativeQuery = true)
+    int supersedePending(@Param("dedupeKey") String dedupeKey);
+
+    // Claim due emails for sending. SKIP LOCKED lets several instances dispatch concurrently;
+    // SENDING rows whose lease expired (the sender died) are claimed again.
+    @Query(value = """
+        UPDATE email_outbox SET status = 'SENDING', attempts = attempts + 1, next_attempt_at = :leaseUntil
+        WHERE id IN (
+            SELECT id FROM email_outbox
+            WHERE status IN ('PENDING', 'SENDING')
+            AND next_attempt_at <= :now
+            AND attempts < :maxAttempts
+            ORDER BY next_attempt_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+        )
+        RETURNING *
+        """, nativeQuery = true)
+    List<EmailOutboxMessage> claimDue(@Param("now") LocalDateTime now,
+                                      @Param("leaseUntil") LocalDateTime leaseUntil,
+                                      @Param("maxAttempts") int maxAttempts,
+                                      @Param("limit") int limit);
+
+    // Schedule a retry, give up after maxAttempts, or drop the row if a newer email replaced it meanwhile
+    @Modifying
+    @Query(value = """
+        UPDATE email_outbox SET
+            status = CASE
+                WHEN attempts >= :maxAttempts THEN 'FAILED'
+                WHEN EXISTS (
+                    SELECT 1 FROM email_outbox n
+                    WHERE n.dedupe_key = email_outbox.dedupe_key
+                    AND n.created_at > email_outbox.created_at
+                ) THEN 'SUPERSEDED'
+                ELSE 'PENDING'
+            END,
+            next_attempt_at = :nextAttemptAt,
+            last_error = :error
+        WHERE id = :id
+        """, nativeQuery = true)
+    int markFailedAttempt(@Param("id") UUID id,
+                          @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                          @Param("error") String error,
+                          @Param("maxAttempts") int maxAttempts);
+
+    // Fail SENDING rows whose lease expired on their last attempt; claimDue no longer picks them up
+    @Modifying
+    @Query(value = """
+        UPDATE email_outbox SET status = 'FAILED', last_error = COALESCE(last_error, 'Lease expired on the last attempt')
+        WHERE status = 'SENDING' AND next_attempt_at <= :now AND attempts >= :maxAttempts
+        """, nativeQuery = true)
+    int failExpiredLastAttempts(@Param("now") LocalDateTime now, @Param("maxAttempts") int maxAttempts);
+
+    // Delete superseded and failed emails older than the cutoff
+    @Modifying
+    @Query(value = """
+        DELETE FROM email_outbox
+        WHERE status IN ('SUPERSEDED', 'FAILED') AND created_at < :cutoff
+        """, nativeQuery = true)
+    int deleteFinishedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,73 @@
+package com.luna.common.repository;
+
+import com.luna.common.entity.MediaDeletion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface MediaDeletionRepository extends JpaRepository<MediaDeletion, UUID> {
+
+    // Queue every image and video URL of the given posts (stored as JSON arrays) for deletion
+    @Modifying
+    @Query(value = """
+        INSERT INTO media_deletion_queue (url)
+        SELECT jsonb_array_elements_text(CAST(p.image_urls AS jsonb)) FROM posts p
+        WHERE p.id IN (:postIds) AND p.image_urls IS NOT NULL
+        UNION ALL
+        SELECT jsonb_array_elements_text(CAST(p.video_urls AS jsonb)) FROM posts p
+        WHERE p.id IN (:postIds) AND p.video_urls IS NOT NULL
+        """, nativeQuery = true)
+    int enqueueForPosts(@Param("postIds") Collection<UUID> postIds);
+
+    // Claim due deletions; the lease makes rows visible again if the worker dies mid-batch
+    @Query(value = """
+        UPDATE media_deletion_queue SET attempts = attempts + 1, next_attempt_at = :leaseUntil
+        WHERE id IN (
+            SELECT id FROM media_deletion_queue
+            WHERE next_attempt_at <= :now
+            AND attempts < :maxAttempts
+            ORDER BY next_attempt_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+        )
+        RETURNING *
+        """, nativeQuery = true)
+    List<MediaDeletion> claimDue(@Param("now") LocalDateTime now,
+                                 @Param("leaseUntil") LocalDateTime leaseUntil,
+                                 @Param("maxAttempts") int maxAttempts,
+                                 @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = """
+        UPDATE media_deletion_queue SET next_attempt_at = :nextAttemptAt, last_error = :error
+        WHERE id IN (:ids)
+        """, nativeQuery = true)
+    int markFailedAttempt(@Param("ids") Collection<UUID> ids,
+                          @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                          @Param("error") String error);
+
+    // Deletions that used up their attempts; claimDue no longer picks them up
+    @Query(value = """
+        SELECT COUNT(*) FROM media_deletion_queue
+        WHERE attempts >= :maxAttempts AND next_attempt_at <= :now
+        """, nativeQuery = true)
+    long countExhausted(@Param("now") LocalDateTime now, @Param("maxAttempts") int maxAttempts);
+
+    // Drop exhausted deletions queued before the cutoff; their files are left in storage
+    @Modifying
+    @Query(value = """
+        DELETE FROM media_deletion_queue
+        WHERE attempts >= :maxAttempts AND next_attempt_at <= :now AND created_at < :cutoff
+        """, nativeQuery = true)
+    int deleteExhaustedBefore(@Param("now") LocalDateTime now,
+                              @Param("maxAttempts") int maxAttempts,
+                              @Param("cutoff") LocalDateTime cutoff);
+}
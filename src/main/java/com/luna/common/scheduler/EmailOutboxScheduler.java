@@ -0,0 +1,61 @@
+package com.luna.common.scheduler;
+
+import com.luna.common.service.EmailOutboxDispatcher;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(
+    value = "app.scheduling.enabled",
+    havingValue = "true",
+    matchIfMissing = true
+)
+public class EmailOutboxScheduler {
+
+    @Value("${app.email.outbox.retention-days:7}")
+    private long retentionDays;
+
+    private final EmailOutboxDispatcher emailOutboxDispatcher;
+
+    /**
+     * Sends queued emails. Keeps draining while full batches are being claimed.
+     */
+    @Scheduled(fixedDelayString = "${app.email.outbox.poll-interval-ms:500}")
+    public void dispatchEmails() {
+        try {
+            int sent;
+            do {
+                sent = emailOutboxDispatcher.dispatch();
+                if (sent > 0) {
+                    log.debug("Sent {} queued email(s)", sent);
+                }
+            } while (sent >= emailOutboxDispatcher.getBatchSize());
+        } catch (Exception e) {
+            log.error("Error during email outbox dispatch", e);
+            // Don't rethrow - let scheduler continue running
+        }
+    }
+
+    /**
+     * Fails emails abandoned on their last attempt, then deletes superseded and permanently
+     * failed emails.
+     * Runs daily at 3:15 AM server time.
+     */
+    @Scheduled(cron = "${app.email.outbox.purge-cron:0 15 3 * * *}")
+    public void purgeEmails() {
+        try {
+            int deleted = emailOutboxDispatcher.purge(LocalDateTime.now().minusDays(retentionDays));
+            log.info("Email outbox purge completed. Deleted {} email(s)", deleted);
+        } catch (Exception e) {
+            log.error("Error during email outbox purge", e);
+        }
+    }
+}
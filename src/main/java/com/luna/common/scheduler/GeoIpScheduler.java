@@ -0,0 +1,33 @@
+package com.luna.common.scheduler;
+
+import com.luna.common.service.GeoIpService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(
+    value = "app.scheduling.enabled",
+    havingValue = "true",
+    matchIfMissing = true
+)
+public class GeoIpScheduler {
+
+    private final GeoIpService geoIpService;
+
+    /**
+     * Picks up a replaced GeoIP database file without a restart.
+     */
+    @Scheduled(fixedDelayString = "${app.geoip.reload-interval-ms:60000}")
+    public void reloadGeoIpDatabase() {
+        try {
+            geoIpService.reloadIfChanged();
+        } catch (Exception e) {
+            log.error("Error during GeoIP database reload", e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.luna.common.scheduler;
+
+import com.luna.common.service.MediaDeletionWorker;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(
+    value = "app.scheduling.enabled",
+    havingValue = "true",
+    matchIfMissing = true
+)
+public class MediaDeletionScheduler {
+
+    @Value("${app.media.deletion.retention-days:30}")
+    private long retentionDays;
+
+    private final MediaDeletionWorker mediaDeletionWorker;
+
+    /**
+     * Deletes media of purged posts from storage. Keeps draining while full batches are deleted.
+     */
+    @Scheduled(fixedDelayString = "${app.media.deletion.interval-ms:60000}")
+    public void deleteQueuedMedia() {
+        try {
+            int total = 0;
+            int deleted;
+            do {
+                deleted = mediaDeletionWorker.drain();
+                total += deleted;
+            } while (deleted >= mediaDeletionWorker.getBatchSize());
+
+            if (total > 0) {
+                log.info("Deleted {} queued media file(s)", total);
+            }
+        } catch (Exception e) {
+            log.error("Error during media deletion", e);
+            // Don't rethrow - let scheduler continue running
+        }
+    }
+
+    /**
+     * Reports deletions that used up their attempts and drops those past retention.
+     * Runs daily at 3:45 AM server time.
+     */
+    @Scheduled(cron = "${app.media.deletion.purge-cron:0 45 3 * * *}")
+    public void purgeExhaustedDeletions() {
+        try {
+            int purged = mediaDeletionWorker.purge(LocalDateTime.now().minusDays(retentionDays));
+            log.info("Media deletion purge completed. Dropped {} exhausted deletion(s)", purged);
+        } catch (Exception e) {
+            log.error("Error during media deletion purge", e);
+            // Don't rethrow - let scheduler continue running
+        }
+    }
+}
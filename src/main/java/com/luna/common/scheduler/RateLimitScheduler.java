@@ -0,0 +1,36 @@
+package com.luna.common.scheduler;
+
+import com.luna.common.service.RateLimitService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(
+    value = "app.scheduling.enabled",
+    havingValue = "true",
+    matchIfMissing = true
+)
+public class RateLimitScheduler {
+
+    private final RateLimitService rateLimitService;
+
+    /**
+     * Reports locally counted requests of non-strict rate limit policies to the shared buckets.
+     */
+    @Scheduled(fixedDelayString = "${app.rate-limit.sync-interval-ms:1000}")
+    public void syncRateLimits() {
+        try {
+            int blocked = rateLimitService.sync();
+            if (blocked > 0) {
+                log.debug("Rate limit sync blocked {} key(s) over the shared limit", blocked);
+            }
+        } catch (Exception e) {
+            log.error("Error during rate limit sync", e);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.luna.common.service;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.api.ApiResponse;
+import com.cloudinary.api.RateLimit;
+import com.cloudinary.utils.ObjectUtils;
+import com.luna.common.exception.BadRequestException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(value = "app.media.storage", havingValue = "cloudinary", matchIfMissing = true)
+public class CloudinaryMediaStorage implements MediaStorage {
+
+    private final Cloudinary cloudinary;
+    private final RemoteCallMetrics remoteCallMetrics;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public String store(MultipartFile file, String folder, String resourceType) {
+        Path tempFile = null;
+        try {
+            // Multipart parts are already spooled to disk; moving the part to a file lets the
+            // client stream it instead of reading it onto the heap with getBytes()
+            tempFile = Files.createTempFile("luna-upload-", null);
+            file.transferTo(tempFile);
+
+            Map<String, Object> uploadParams = ObjectUtils.asMap(
+                "folder", folder,
+                "resource_type", resourceType
+            );
+
+            File source = tempFile.toFile();
+            Map<String, Object> uploadResult = remoteCallMetrics.record("cloudinary", "upload",
+                () -> cloudinary.uploader().upload(source, uploadParams));
+            return (String) uploadResult.get("secure_url");
+        } catch (IOException e) {
+            log.error("Failed to upload file to Cloudinary", e);
+            throw new BadRequestException("Failed to upload file: " + e.getMessage());
+        } finally {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException e) {
+                    log.warn("Failed to delete temp upload file {}", tempFile, e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void delete(String url) {
+        String publicId = extractPublicId(url);
+        if (publicId == null) {
+            return;
+        }
+        try {
+            // destroy() defaults to images; videos must name their resource type
+            String resourceType = url.contains("/video/upload/") ? "video" : "image";
+            remoteCallMetrics.record("cloudinary", "destroy",
+                () -> cloudinary.uploader().destroy(publicId, ObjectUtils.asMap("resource_type", resourceType)));
+            log.info("Deleted file from Cloudinary: {}", publicId);
+        } catch (IOException e) {
+            log.error("Failed to delete file from Cloudinary: {}", publicId, e);
+            // Don't throw exception, just log the error
+        }
+    }
+
+    /**
+     * Uses the Admin API delete_resources call (up to 100 public ids per call, one call per
+     * resource type) and spreads the remaining hourly Admin API quota over the time left
+     * until it resets.
+     */
+    @Override
+    public Duration deleteBatch(List<String> urls) {
+        Map<String, List<String>> publicIdsByType = new HashMap<>();
+        for (String url : urls) {
+            String publicId = extractPublicId(url);
+            if (publicId != null) {
+                String resourceType = url.contains("/video/upload/") ? "video" : "image";
+                publicIdsByType.computeIfAbsent(resourceType, k -> new ArrayList<>()).add(publicId);
+            }
+        }
+
+        Duration wait = Duration.ZERO;
+        for (Map.Entry<String, List<String>> entry : publicIdsByType.entrySet()) {
+            try {
+                ApiResponse response = remoteCallMetrics.record("cloudinary", "delete_resources",
+                    () -> cloudinary.api().deleteResources(
+                        entry.getValue(), ObjectUtils.asMap("resource_type", entry.getKey())));
+                log.info("Deleted {} {} file(s) from Cloudinary", entry.getValue().size(), entry.getKey());
+                Duration pacing = pacing(response.apiRateLimit());
+                if (pacing.compareTo(wait) > 0) {
+                    wait = pacing;
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException("Cloudinary delete_resources failed: " + e.getMessage(), e);
+            }
+        }
+        return wait;
+    }
+
+    private Duration pacing(RateLimit rateLimit) {
+        if (rateLimit == null || rateLimit.getReset() == null || rateLimit.getLimit() <= 0) {
+            return Duration.ZERO;
+        }
+        long untilReset = Math.max(0, rateLimit.getReset().getTime() - System.currentTimeMillis());
+        long remaining = rateLimit.getRemaining();
+        // Full speed while most of the quota is left
+        if (remaining > rateLimit.getLimit() / 2) {
+            return Duration.ZERO;
+        }
+        return Duration.ofMillis(remaining <= 0 ? untilReset : untilReset / remaining);
+    }
+
+    private String extractPublicId(String url) {
+        if (url == null || url.isEmpty()) {
+            return null;
+        }
+        
+        try {
+            // Extract public_id from Cloudinary URL
+            // Format: https://res.cloudinary.com/{cloud_name}/{resource_type}/upload/{version}/{public_id}.{format}
+            String[] parts = url.split("/upload/");
+            if (parts.length < 2) {
+                return null;
+            }
+            
+            String afterUpload = parts[1];
+            // Remove version if present (v1234567890/)
+            if (afterUpload.matches("v\\d+/.*")) {
+                afterUpload = afterUpload.substring(afterUpload.indexOf('/') + 1);
+            }
+            
+            // Remove file extension
+            int lastDot = afterUpload.lastIndexOf('.');
+            if (lastDot > 0) {
+                afterUpload = afterUpload.substring(0, lastDot);
+            }
+            
+            return afterUpload;
+        } catch (Exception e) {
+            log.error("Failed to extract public_id from URL: {}", url, e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.luna.common.service;
+
+import com.luna.common.entity.EmailOutboxMessage;
+import com.luna.common.repository.EmailOutboxRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends queued emails from the outbox.
+ *
+ * Each run claims a batch of due rows and splits it across a fixed pool of sender threads.
+ * A sender delivers its whole share with one JavaMailSender call, which reuses a single SMTP
+ * connection for all of its messages. Sent rows are deleted; failed ones are retried with
+ * exponential backoff until max-attempts is reached.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EmailOutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    @Value("${app.email.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.email.outbox.senders:4}")
+    private int senders;
+
+    @Value("${app.email.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.email.outbox.initial-backoff-seconds:30}")
+    private long initialBackoffSeconds;
+
+    @Value("${app.email.outbox.max-backoff-seconds:3600}")
+    private long maxBackoffSeconds;
+
+    @Value("${app.email.outbox.lease-seconds:120}")
+    private long leaseSeconds;
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final RemoteCallMetrics remoteCallMetrics;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(senders, runnable -> {
+            Thread thread = new Thread(runnable, "email-sender-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+    }
+
+    /**
+     * Send one batch of due emails. Returns the number sent successfully.
+     */
+    public int dispatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailOutboxMessage> claimed = transactionTemplate.execute(status ->
+            emailOutboxRepository.claimDue(now, now.plusSeconds(leaseSeconds), maxAttempts, batchSize));
+        if (claimed == null || claimed.isEmpty()) {
+            return 0;
+        }
+
+        List<List<EmailOutboxMessage>> shares = new ArrayList<>();
+        int shareCount = Math.min(senders, claimed.size());
+        for (int i = 0; i < shareCount; i++) {
+            shares.add(new ArrayList<>());
+        }
+        for (int i = 0; i < claimed.size(); i++) {
+            shares.get(i % shareCount).add(claimed.get(i));
+        }
+
+        List<Future<Map<UUID, Exception>>> results = new ArrayList<>(shareCount);
+        for (List<EmailOutboxMessage> share : shares) {
+            results.add(executor.submit(() -> send(share)));
+        }
+
+        Map<UUID, Exception> failures = new HashMap<>();
+        for (int i = 0; i < results.size(); i++) {
+            try {
+                failures.putAll(results.get(i).get());
+            } catch (Exception e) {
+                for (EmailOutboxMessage message : shares.get(i)) {
+                    failures.put(message.getId(), e);
+                }
+            }
+        }
+
+        List<UUID> sent = claimed.stream()
+            .map(EmailOutboxMessage::getId)
+            .filter(id -> !failures.containsKey(id))
+            .toList();
+        if (!sent.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> emailOutboxRepository.deleteAllByIdInBatch(sent));
+        }
+
+        for (EmailOutboxMessage message : claimed) {
+            Exception error = failures.get(message.getId());
+            if (error != null) {
+                recordFailure(message, error);
+            }
+        }
+        return sent.size();
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Mark emails abandoned mid-send on their last attempt as failed, then delete superseded
+     * and permanently failed emails older than the cutoff
+     */
+    public int purge(LocalDateTime cutoff) {
+        return transactionTemplate.execute(status -> {
+            int abandoned = emailOutboxRepository.failExpiredLastAttempts(LocalDateTime.now(), maxAttempts);
+            if (abandoned > 0) {
+                log.error("Gave up on {} email(s) whose sender stopped during the last attempt", abandoned);
+            }
+            return emailOutboxRepository.deleteFinishedBefore(cutoff);
+        });
+    }
+
+    /**
+     * Send messages over one connection. Returns the failed message ids with their errors.
+     */
+    private Map<UUID, Exception> send(List<EmailOutboxMessage> share) {
+        Map<SimpleMailMessage, UUID> ids = new IdentityHashMap<>();
+        SimpleMailMessage[] messages = new SimpleMailMessage[share.size()];
+        for (int i = 0; i < share.size(); i++) {
+            EmailOutboxMessage outboxMessage = share.get(i);
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setTo(outboxMessage.getRecipient());
+            message.setSubject(outboxMessage.getSubject());
+            message.setText(outboxMessage.getBody());
+            messages[i] = message;
+            ids.put(message, outboxMessage.getId());
+        }
+
+        Map<UUID, Exception> failures = new HashMap<>();
+        try {
+            remoteCallMetrics.record("smtp", "send", () -> {
+                mailSender.send(messages);
+                return null;
+            });
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                // Connection-level failure: nothing was sent
+                share.forEach(message -> failures.put(message.getId(), e));
+            } else {
+                e.getFailedMessages().forEach((message, error) -> {
+                    UUID id = ids.get(message);
+                    if (id != null) {
+                        failures.put(id, error);
+                    }
+                });
+            }
+        } catch (Exception e) {
+            share.forEach(message -> failures.put(message.getId(), e));
+        }
+        return failures;
+    }
+
+    private void recordFailure(EmailOutboxMessage message, Exception error) {
+        int attempts = message.getAttempts();
+        long backoff = Math.min(maxBackoffSeconds, initialBackoffSeconds << Math.min(attempts - 1, 20));
+        String reason = String.valueOf(error.getMessage());
+        if (reason.length() > MAX_ERROR_LENGTH) {
+            reason = reason.substring(0, MAX_ERROR_LENGTH);
+        }
+        String lastError = reason;
+        try {
+            transactionTemplate.executeWithoutResult(status -> emailOutboxRepository.markFailedAttempt(
+                message.getId(), LocalDateTime.now().plusSeconds(backoff), lastError, maxAttempts));
+        } catch (Exception e) {
+            // The lease expires and the row is claimed again, or failed by purge() if this was the last attempt
+            log.error("Failed to record email failure for {}", message.getId(), e);
+        }
+        if (attempts >= maxAttempts) {
+            log.error("Giving up on {} email to {} after {} attempts: {}",
+                message.getEmailType(), message.getRecipient(), attempts, reason);
+        } else {
+            log.warn("Failed to send {} email to {} (attempt {}), retrying in {}s: {}",
+                message.getEmailType(), message.getRecipient(), attempts, backoff, reason);
+        }
+    }
+}
@@ -1,45 +1,44 @@
 package com.luna.common.service;
 
+import com.luna.common.entity.EmailOutboxMessage;
+import com.luna.common.repository.EmailOutboxRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+
+/**
+ * Queues transactional emails in the email_outbox table as part of the caller's transaction.
+ * Delivery happens in the background (see {@link EmailOutboxDispatcher}), so callers never
+ * wait on SMTP, and an email is only sent if the change that triggered it commits.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EmailService {
 
-    private final JavaMailSender mailSender;
+    private final EmailOutboxRepository emailOutboxRepository;
 
+    @Transactional
     public void sendVerificationEmail(String to, String otp) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(to);
-            message.setSubject("Luna - Email Verification");
-            message.setText(String.format(
+        enqueue("VERIFICATION", to,
+            "Luna - Email Verification",
+            String.format(
                 "Welcome to Luna!\n\n" +
                 "Your verification code is: %s\n\n" +
                 "This code will expire in 15 minutes.\n\n" +
                 "If you didn't create an account, please ignore this email.",
                 otp
             ));
-            
-            mailSender.send(message);
-            log.info("Verification email sent to: {}", to);
-        } catch (Exception e) {
-            log.error("Failed to send email to: {}", to, e);
-            throw new RuntimeException("Failed to send verification email");
-        }
     }
 
+    @Transactional
     public void sendDeviceVerificationEmail(String to, String otp, String deviceInfo) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(to);
-            message.setSubject("Luna - New Device Login Detected");
-            message.setText(String.format(
+        enqueue("DEVICE_VERIFICATION", to,
+            "Luna - New Device Login Detected",
+            String.format(
                 "New Device Login Detected\n\n" +
                 "We detected a login from a new device:\n%s\n\n" +
                 "Your verification code is: %s\n\n" +
@@ -48,33 +47,36 @@ public class EmailService {
                 deviceInfo,
                 otp
             ));
-            
-            mailSender.send(message);
-            log.info("Device verification email sent to: {}", to);
-        } catch (Exception e) {
-            log.error("Failed to send device verification email to: {}", to, e);
-            throw new RuntimeException("Failed to send device verification email");
-        }
     }
 
+    @Transactional
     public void sendPasswordResetEmail(String to, String otp) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(to);
-            message.setSubject("Luna - Password Reset");
-            message.setText(String.format(
+        enqueue("PASSWORD_RESET", to,
+            "Luna - Password Reset",
+            String.format(
                 "Password Reset Request\n\n" +
                 "Your password reset code is: %s\n\n" +
                 "This code will expire in 15 minutes.\n\n" +
                 "If you didn't request a password reset, please ignore this email.",
                 otp
             ));
-            
-            mailSender.send(message);
-            log.info("Password reset email sent to: {}", to);
-        } catch (Exception e) {
-            log.error("Failed to send password reset email to: {}", to, e);
-            throw new RuntimeException("Failed to send password reset email");
-        }
+    }
+
+    /**
+     * Only the latest email of a type per recipient is delivered: a newer OTP replaces
+     * one that has not been sent yet.
+     */
+    private void enqueue(String emailType, String to, String subject, String body) {
+        String dedupeKey = emailType + ":" + to.toLowerCase();
+        emailOutboxRepository.supersedePending(dedupeKey);
+        emailOutboxRepository.save(EmailOutboxMessage.builder()
+            .emailType(emailType)
+            .recipient(to)
+            .subject(subject)
+            .body(body)
+            .dedupeKey(dedupeKey)
+            .nextAttemptAt(LocalDateTime.now())
+            .build());
+        log.debug("Queued {} email to: {}", emailType, to);
     }
 }
@@ -0,0 +1,411 @@
+package com.luna.common.service;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Immutable IP range -> country index loaded from a CSV file.
+ *
+ * Each line is {@code start_ip,end_ip,country_code[,country_name]} (the DB-IP / IP2Location
+ * "lite" country layout); fields may be quoted. Range bounds are address literals (DB-IP) or
+ * decimal integers (IP2Location, whose IPv6 file also lists IPv4 as IPv4-mapped ranges).
+ * IPv4 ranges are kept as unsigned ints and IPv6 ranges as pairs of unsigned longs, sorted by
+ * start, so a lookup is a binary search over primitive arrays. Lookups parse the address by hand and return shared
+ * {@link GeoIpService.GeoIpInfo} instances; an IPv6 lookup allocates only the two-long array
+ * it parses into.
+ */
+final class GeoIpDatabase {
+
+    // ::ffff:0:0/96, the high bits of an IPv4-mapped address's low half
+    private static final long IPV4_MAPPED_PREFIX = 0xFFFFL << 32;
+
+    private final int[] v4Starts;
+    private final int[] v4Ends;
+    private final short[] v4Countries;
+
+    private final long[] v6StartsHi;
+    private final long[] v6StartsLo;
+    private final long[] v6EndsHi;
+    private final long[] v6EndsLo;
+    private final short[] v6Countries;
+
+    private final GeoIpService.GeoIpInfo[] countries;
+
+    private GeoIpDatabase(int[] v4Starts, int[] v4Ends, short[] v4Countries,
+                          long[] v6StartsHi, long[] v6StartsLo, long[] v6EndsHi, long[] v6EndsLo,
+                          short[] v6Countries, GeoIpService.GeoIpInfo[] countries) {
+        this.v4Starts = v4Starts;
+        this.v4Ends = v4Ends;
+        this.v4Countries = v4Countries;
+        this.v6StartsHi = v6StartsHi;
+        this.v6StartsLo = v6StartsLo;
+        this.v6EndsHi = v6EndsHi;
+        this.v6EndsLo = v6EndsLo;
+        this.v6Countries = v6Countries;
+        this.countries = countries;
+    }
+
+    int ipv4RangeCount() {
+        return v4Starts.length;
+    }
+
+    int ipv6RangeCount() {
+        return v6StartsHi.length;
+    }
+
+    /**
+     * Country for an IPv4 or IPv6 literal, or null if the address is invalid or not covered
+     */
+    GeoIpService.GeoIpInfo lookup(String ip) {
+        if (ip == null || ip.isEmpty()) {
+            return null;
+        }
+        if (ip.indexOf(':') < 0) {
+            long v4 = parseIpv4(ip, 0, ip.length());
+            return v4 < 0 ? null : lookupIpv4((int) v4);
+        }
+
+        long[] address = new long[2];
+        if (!parseIpv6(ip, 0, ip.length(), address)) {
+            return null;
+        }
+        // IPv4-mapped (::ffff:a.b.c.d) addresses are answered from the IPv4 table
+        if (isIpv4Mapped(address)) {
+            return lookupIpv4((int) address[1]);
+        }
+        return lookupIpv6(address[0], address[1]);
+    }
+
+    private GeoIpService.GeoIpInfo lookupIpv4(int ip) {
+        int low = 0;
+        int high = v4Starts.length - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (Integer.compareUnsigned(v4Starts[mid], ip) <= 0) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (found < 0 || Integer.compareUnsigned(ip, v4Ends[found]) > 0) {
+            return null;
+        }
+        return countries[v4Countries[found]];
+    }
+
+    private GeoIpService.GeoIpInfo lookupIpv6(long hi, long lo) {
+        int low = 0;
+        int high = v6StartsHi.length - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (compare(v6StartsHi[mid], v6StartsLo[mid], hi, lo) <= 0) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (found < 0 || compare(hi, lo, v6EndsHi[found], v6EndsLo[found]) > 0) {
+            return null;
+        }
+        return countries[v6Countries[found]];
+    }
+
+    private static int compare(long aHi, long aLo, long bHi, long bLo) {
+        int cmp = Long.compareUnsigned(aHi, bHi);
+        return cmp != 0 ? cmp : Long.compareUnsigned(aLo, bLo);
+    }
+
+    /**
+     * Load and index a CSV file, reading it through a memory mapping
+     */
+    static GeoIpDatabase load(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        Map<String, Short> countryIndex = new HashMap<>();
+        List<GeoIpService.GeoIpInfo> countryList = new ArrayList<>();
+        List<long[]> v4Ranges = new ArrayList<>();
+        List<long[]> v6Ranges = new ArrayList<>();
+        long[] start = new long[2];
+        long[] end = new long[2];
+
+        byte[] line = new byte[256];
+        int lineNumber = 0;
+        while (buffer.hasRemaining()) {
+            int length = 0;
+            while (buffer.hasRemaining()) {
+                byte b = buffer.get();
+                if (b == '\n') {
+                    break;
+                }
+                if (b != '\r' && b != '"') {
+                    if (length == line.length) {
+                        line = Arrays.copyOf(line, length * 2);
+                    }
+                    line[length++] = b;
+                }
+            }
+            lineNumber++;
+            if (length == 0 || line[0] == '#') {
+                continue;
+            }
+
+            String[] fields = new String(line, 0, length, StandardCharsets.UTF_8).split(",", 4);
+            if (fields.length < 3) {
+                throw new IOException("Invalid GeoIP range at line " + lineNumber);
+            }
+            String code = fields[2].trim().toUpperCase(Locale.ROOT);
+            if (code.isEmpty() || code.equals("ZZ") || code.equals("-")) {
+                continue;  // Reserved / unassigned
+            }
+            Short country = countryIndex.get(code);
+            if (country == null) {
+                String name = fields.length > 3 && !fields[3].isBlank()
+                    ? fields[3].trim()
+                    : Locale.of("", code).getDisplayCountry(Locale.ENGLISH);
+                country = (short) countryList.size();
+                countryIndex.put(code, country);
+                countryList.add(new GeoIpService.GeoIpInfo(code, name));
+            }
+
+            if (!parseBound(fields[0].trim(), start)
+                    || !parseBound(fields[1].trim(), end)
+                    || compare(start[0], start[1], end[0], end[1]) > 0) {
+                throw new IOException("Invalid GeoIP range at line " + lineNumber);
+            }
+            if (isIpv4Mapped(start) && isIpv4Mapped(end)) {
+                v4Ranges.add(new long[]{start[1] & 0xFFFFFFFFL, end[1] & 0xFFFFFFFFL, country});
+            } else {
+                v6Ranges.add(new long[]{start[0], start[1], end[0], end[1], country});
+            }
+        }
+
+        v4Ranges.sort(Comparator.comparingLong(range -> range[0]));
+        int[] v4Starts = new int[v4Ranges.size()];
+        int[] v4Ends = new int[v4Ranges.size()];
+        short[] v4Countries = new short[v4Ranges.size()];
+        for (int i = 0; i < v4Ranges.size(); i++) {
+            long[] range = v4Ranges.get(i);
+            v4Starts[i] = (int) range[0];
+            v4Ends[i] = (int) range[1];
+            v4Countries[i] = (short) range[2];
+        }
+
+        v6Ranges.sort((a, b) -> compare(a[0], a[1], b[0], b[1]));
+        int v6Count = v6Ranges.size();
+        long[] v6StartsHi = new long[v6Count];
+        long[] v6StartsLo = new long[v6Count];
+        long[] v6EndsHi = new long[v6Count];
+        long[] v6EndsLo = new long[v6Count];
+        short[] v6Countries = new short[v6Count];
+        for (int i = 0; i < v6Count; i++) {
+            long[] range = v6Ranges.get(i);
+            v6StartsHi[i] = range[0];
+            v6StartsLo[i] = range[1];
+            v6EndsHi[i] = range[2];
+            v6EndsLo[i] = range[3];
+            v6Countries[i] = (short) range[4];
+        }
+
+        return new GeoIpDatabase(v4Starts, v4Ends, v4Countries,
+            v6StartsHi, v6StartsLo, v6EndsHi, v6EndsLo, v6Countries,
+            countryList.toArray(new GeoIpService.GeoIpInfo[0]));
+    }
+
+    /**
+     * Parse a range bound into out[0] and out[1] as an IPv6 address, with IPv4 stored
+     * IPv4-mapped. A decimal integer is an IPv4 address if it fits in 32 bits and an IPv6
+     * address otherwise, as in IP2Location files. Returns false if invalid.
+     */
+    private static boolean parseBound(String s, long[] out) {
+        if (s.indexOf(':') >= 0) {
+            return parseIpv6(s, 0, s.length(), out);
+        }
+        if (s.indexOf('.') >= 0) {
+            long v4 = parseIpv4(s, 0, s.length());
+            if (v4 < 0) {
+                return false;
+            }
+            out[0] = 0;
+            out[1] = IPV4_MAPPED_PREFIX | v4;
+            return true;
+        }
+
+        if (s.isEmpty() || s.length() > 39 || !s.chars().allMatch(c -> c >= '0' && c <= '9')) {
+            return false;
+        }
+        BigInteger value = new BigInteger(s);
+        if (value.bitLength() > 128) {
+            return false;
+        }
+        long hi = value.shiftRight(64).longValue();
+        long lo = value.longValue();
+        if (hi == 0 && (lo >>> 32) == 0) {
+            lo |= IPV4_MAPPED_PREFIX;
+        }
+        out[0] = hi;
+        out[1] = lo;
+        return true;
+    }
+
+    private static boolean isIpv4Mapped(long[] address) {
+        return address[0] == 0 && (address[1] >>> 32) == 0xFFFFL;
+    }
+
+    /**
+     * Parse a dotted-quad IPv4 address. Returns the address as an unsigned value, or -1 if invalid.
+     */
+    static long parseIpv4(CharSequence s, int from, int to) {
+        long result = 0;
+        int octets = 0;
+        int value = -1;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                value = (value < 0 ? 0 : value * 10) + (c - '0');
+                if (value > 255) {
+                    return -1;
+                }
+            } else if (c == '.' && value >= 0 && octets < 3) {
+                result = (result << 8) | value;
+                octets++;
+                value = -1;
+            } else {
+                return -1;
+            }
+        }
+        if (value < 0 || octets != 3) {
+            return -1;
+        }
+        return (result << 8) | value;
+    }
+
+    /**
+     * Parse an IPv6 address (with optional :: compression, embedded IPv4 tail and zone id)
+     * into out[0] (high 64 bits) and out[1] (low 64 bits). Returns false if invalid.
+     */
+    static boolean parseIpv6(CharSequence s, int from, int to, long[] out) {
+        for (int i = from; i < to; i++) {
+            if (s.charAt(i) == '%') {
+                to = i;
+                break;
+            }
+        }
+
+        long headHi = 0;
+        long headLo = 0;
+        long tailHi = 0;
+        long tailLo = 0;
+        int headGroups = 0;
+        int tailGroups = 0;
+        boolean compressed = false;
+
+        int i = from;
+        if (to - from >= 2 && s.charAt(from) == ':' && s.charAt(from + 1) == ':') {
+            compressed = true;
+            i += 2;
+        } else if (to > from && s.charAt(from) == ':') {
+            return false;
+        }
+
+        while (i < to) {
+            int groupStart = i;
+            int value = 0;
+            int digits = 0;
+            while (i < to) {
+                int digit = Character.digit(s.charAt(i), 16);
+                if (digit < 0) {
+                    break;
+                }
+                value = (value << 4) | digit;
+                digits++;
+                i++;
+            }
+
+            long part;
+            int bits;
+            if (i < to && s.charAt(i) == '.') {
+                // Embedded IPv4 must be the last part
+                long v4 = parseIpv4(s, groupStart, to);
+                if (v4 < 0) {
+                    return false;
+                }
+                part = v4;
+                bits = 32;
+                i = to;
+            } else {
+                if (digits == 0 || digits > 4 || (i < to && s.charAt(i) != ':')) {
+                    return false;
+                }
+                part = value;
+                bits = 16;
+            }
+
+            if (compressed) {
+                tailHi = (tailHi << bits) | (tailLo >>> (64 - bits));
+                tailLo = (tailLo << bits) | part;
+                tailGroups += bits / 16;
+            } else {
+                headHi = (headHi << bits) | (headLo >>> (64 - bits));
+                headLo = (headLo << bits) | part;
+                headGroups += bits / 16;
+            }
+            if (headGroups + tailGroups > 8) {
+                return false;
+            }
+
+            if (i < to) {
+                i++;  // ':'
+                if (i < to && s.charAt(i) == ':') {
+                    if (compressed) {
+                        return false;
+                    }
+                    compressed = true;
+                    i++;
+                } else if (i == to) {
+                    return false;
+                }
+            }
+        }
+
+        if (!compressed) {
+            if (headGroups != 8) {
+                return false;
+            }
+            out[0] = headHi;
+            out[1] = headLo;
+            return true;
+        }
+        if (headGroups + tailGroups > 7) {
+            return false;
+        }
+
+        // Shift the head into the high groups, leaving the compressed zeros between it and the tail
+        int shift = 16 * (8 - headGroups);
+        if (headGroups == 0) {
+            headHi = 0;
+            headLo = 0;
+        } else if (shift >= 64) {
+            headHi = headLo << (shift - 64);
+            headLo = 0;
+        } else {
+            headHi = (headHi << shift) | (headLo >>> (64 - shift));
+            headLo = headLo << shift;
+        }
+        out[0] = headHi | tailHi;
+        out[1] = headLo | tailLo;
+        return true;
+    }
+}
@@ -1,22 +1,81 @@
 package com.luna.common.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
 
+/**
+ * Resolves the country of an IP address.
+ *
+ * Lookups are answered from a local IP range database (see {@link GeoIpDatabase}) when
+ * app.geoip.database-path is set; the file is reloaded when it changes. Addresses the local
+ * database can't answer go to ip-api.com, if enabled, behind a bounded cache and a cap on
+ * requests in flight; when the cap is reached the lookup is skipped rather than queued.
+ */
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class GeoIpService {
-    
+
     private static final String IP_API_URL = "http://ip-api.com/json/";
-    private final RestTemplate restTemplate;
-    
-    public GeoIpService() {
-        this.restTemplate = new RestTemplate();
+
+    private final RemoteCallMetrics remoteCallMetrics;
+
+    @Value("${app.geoip.database-path:}")
+    private String databasePath;
+
+    @Value("${app.geoip.http-fallback-enabled:true}")
+    private boolean httpFallbackEnabled;
+
+    @Value("${app.geoip.http-timeout-ms:2000}")
+    private long httpTimeoutMs;
+
+    @Value("${app.geoip.http-concurrency:4}")
+    private int httpConcurrency;
+
+    @Value("${app.geoip.cache-max-size:10000}")
+    private long cacheMaxSize;
+
+    @Value("${app.geoip.cache-ttl-hours:24}")
+    private long cacheTtlHours;
+
+    private RestTemplate restTemplate;
+    private Cache<String, Optional<GeoIpInfo>> httpCache;
+    private Semaphore httpPermits;
+
+    private volatile GeoIpDatabase database;
+    private FileTime databaseModifiedAt;
+
+    @PostConstruct
+    void init() {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(Duration.ofMillis(httpTimeoutMs));
+        requestFactory.setReadTimeout(Duration.ofMillis(httpTimeoutMs));
+        restTemplate = new RestTemplate(requestFactory);
+        httpPermits = new Semaphore(httpConcurrency);
+
+        httpCache = Caffeine.newBuilder()
+            .maximumSize(cacheMaxSize)
+            .expireAfterWrite(Duration.ofHours(cacheTtlHours))
+            .build();
+
+        reloadIfChanged();
     }
-    
+
     public GeoIpInfo getGeoInfo(String ipAddress) {
         try {
             // Skip for localhost/private IPs
@@ -24,31 +83,96 @@ public class GeoIpService {
                 log.debug("Skipping GeoIP lookup for private IP: {}", ipAddress);
                 return null;
             }
-            
-            @SuppressWarnings("unchecked")
-            Map<String, Object> response = restTemplate.getForObject(
-                IP_API_URL + ipAddress + "?fields=status,country,countryCode",
-                Map.class
-            );
-            
-            if (response != null && "success".equals(response.get("status"))) {
-                return new GeoIpInfo(
-                    (String) response.get("countryCode"),
-                    (String) response.get("country")
-                );
+
+            GeoIpDatabase local = database;
+            if (local != null) {
+                GeoIpInfo info = local.lookup(ipAddress);
+                if (info != null) {
+                    return info;
+                }
+            }
+
+            if (!httpFallbackEnabled) {
+                return null;
+            }
+
+            // Not cache.get(key, loader): that holds a map lock for the whole HTTP call, which
+            // also pins the carrier when running on a virtual thread
+            Optional<GeoIpInfo> cached = httpCache.getIfPresent(ipAddress);
+            if (cached != null) {
+                return cached.orElse(null);
+            }
+            if (!httpPermits.tryAcquire()) {
+                log.debug("Skipping GeoIP lookup for IP {}, too many lookups in flight", ipAddress);
+                return null;
+            }
+            try {
+                Optional<GeoIpInfo> info = lookupRemote(ipAddress);
+                httpCache.put(ipAddress, info);
+                return info.orElse(null);
+            } finally {
+                httpPermits.release();
             }
-            
-            log.warn("GeoIP lookup failed for IP: {}", ipAddress);
-            return null;
         } catch (Exception e) {
             log.error("Error during GeoIP lookup for IP: {}", ipAddress, e);
             return null;
         }
     }
-    
+
+    /**
+     * Load the local database if the file is new or has changed since the last load.
+     * Returns true if a new database was loaded.
+     */
+    public synchronized boolean reloadIfChanged() {
+        if (databasePath == null || databasePath.isBlank()) {
+            return false;
+        }
+        Path path = Path.of(databasePath);
+        try {
+            if (!Files.isReadable(path)) {
+                if (database == null) {
+                    log.warn("GeoIP database not found at {}", path);
+                }
+                return false;
+            }
+            FileTime modifiedAt = Files.getLastModifiedTime(path);
+            if (modifiedAt.equals(databaseModifiedAt)) {
+                return false;
+            }
+
+            long start = System.currentTimeMillis();
+            GeoIpDatabase loaded = GeoIpDatabase.load(path);
+            database = loaded;
+            databaseModifiedAt = modifiedAt;
+            log.info("Loaded GeoIP database from {} ({} IPv4 and {} IPv6 ranges) in {} ms",
+                path, loaded.ipv4RangeCount(), loaded.ipv6RangeCount(), System.currentTimeMillis() - start);
+            return true;
+        } catch (Exception e) {
+            // Keep serving the previous copy
+            log.error("Failed to load GeoIP database from {}", path, e);
+            return false;
+        }
+    }
+
+    private Optional<GeoIpInfo> lookupRemote(String ipAddress) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> response = remoteCallMetrics.record("ip-api", "lookup",
+            () -> restTemplate.getForObject(IP_API_URL + ipAddress + "?fields=status,country,countryCode", Map.class));
+
+        if (response != null && "success".equals(response.get("status"))) {
+            return Optional.of(new GeoIpInfo(
+                (String) response.get("countryCode"),
+                (String) response.get("country")
+            ));
+        }
+
+        log.warn("GeoIP lookup failed for IP: {}", ipAddress);
+        return Optional.empty();
+    }
+
     private boolean isPrivateIp(String ip) {
         if (ip == null || ip.isEmpty()) return true;
-        return ip.equals("127.0.0.1") 
+        return ip.equals("127.0.0.1")
             || ip.equals("0:0:0:0:0:0:0:1")
             || ip.startsWith("192.168.")
             || ip.startsWith("10.")
@@ -60,6 +184,6 @@ public class GeoIpService {
             || ip.startsWith("172.30.")
             || ip.startsWith("172.31.");
     }
-    
+
     public record GeoIpInfo(String countryCode, String country) {}
 }
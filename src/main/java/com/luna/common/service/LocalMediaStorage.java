@@ -0,0 +1,69 @@
+package com.luna.common.service;
+
+import com.luna.common.exception.BadRequestException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * Stores media on the local filesystem, for development and offline load tests.
+ * Files are written under root-dir/{folder}/ and addressed as base-url/{folder}/{name}.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(value = "app.media.storage", havingValue = "local")
+public class LocalMediaStorage implements MediaStorage {
+
+    @Value("${app.media.local.root-dir:./media}")
+    private String rootDir;
+
+    @Value("${app.media.local.base-url:http://localhost:8080/media}")
+    private String baseUrl;
+
+    @Override
+    public String store(MultipartFile file, String folder, String resourceType) {
+        String name = UUID.randomUUID() + extension(file.getOriginalFilename());
+        try {
+            Path directory = Path.of(rootDir, folder).toAbsolutePath();
+            Files.createDirectories(directory);
+            file.transferTo(directory.resolve(name));
+            return baseUrl + "/" + folder + "/" + name;
+        } catch (IOException e) {
+            log.error("Failed to store file locally", e);
+            throw new BadRequestException("Failed to upload file: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void delete(String url) {
+        if (url == null || !url.startsWith(baseUrl + "/")) {
+            return;
+        }
+        Path root = Path.of(rootDir).toAbsolutePath().normalize();
+        Path file = root.resolve(url.substring(baseUrl.length() + 1)).normalize();
+        if (!file.startsWith(root)) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.error("Failed to delete local file: {}", file, e);
+        }
+    }
+
+    private String extension(String filename) {
+        if (filename == null) {
+            return "";
+        }
+        int lastDot = filename.lastIndexOf('.');
+        String extension = lastDot >= 0 ? filename.substring(lastDot) : "";
+        return extension.matches("\\.[A-Za-z0-9]{1,8}") ? extension.toLowerCase() : "";
+    }
+}
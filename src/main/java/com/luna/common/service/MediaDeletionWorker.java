@@ -0,0 +1,187 @@
+package com.luna.common.service;
+
+import com.luna.common.entity.MediaDeletion;
+import com.luna.common.repository.MediaDeletionRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the media deletion queue filled by the post purge.
+ *
+ * Each run claims a batch of queued URLs, splits it into storage-sized delete calls and runs
+ * them on a small pool. After every call the storage reports how long to wait before the next
+ * one; all workers honour the longest wait, so the pool slows down as the provider's API quota
+ * runs low instead of running into its rate limit.
+ *
+ * URLs still failing after max-attempts are left in the queue for inspection, counted in
+ * luna.media.deletion.exhausted, and dropped by purge() after the retention period.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MediaDeletionWorker {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    @Value("${app.media.deletion.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.media.deletion.concurrency:2}")
+    private int concurrency;
+
+    @Value("${app.media.deletion.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${app.media.deletion.retry-delay-minutes:30}")
+    private long retryDelayMinutes;
+
+    @Value("${app.media.deletion.lease-minutes:15}")
+    private long leaseMinutes;
+
+    private final MediaDeletionRepository mediaDeletionRepository;
+    private final MediaStorage mediaStorage;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private ExecutorService executor;
+
+    // Exhausted deletions as of the last purge
+    private final AtomicLong exhausted = new AtomicLong();
+
+    // Epoch millis before which no worker may start another delete call
+    private final AtomicLong pausedUntil = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "media-deletion-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("luna.media.deletion.exhausted", exhausted, AtomicLong::get)
+            .description("Queued media deletions that failed max-attempts times, as of the last purge")
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Delete one batch of queued media. Returns the number of files deleted.
+     */
+    public int drain() {
+        LocalDateTime now = LocalDateTime.now();
+        List<MediaDeletion> claimed = transactionTemplate.execute(status -> mediaDeletionRepository.claimDue(
+            now, now.plusMinutes(leaseMinutes), maxAttempts, batchSize));
+        if (claimed == null || claimed.isEmpty()) {
+            return 0;
+        }
+
+        int chunkSize = Math.max(1, mediaStorage.maxDeleteBatchSize());
+        List<Future<Integer>> calls = new ArrayList<>();
+        for (int i = 0; i < claimed.size(); i += chunkSize) {
+            List<MediaDeletion> chunk = claimed.subList(i, Math.min(i + chunkSize, claimed.size()));
+            calls.add(executor.submit(() -> deleteChunk(chunk)));
+        }
+
+        int deleted = 0;
+        for (Future<Integer> call : calls) {
+            try {
+                deleted += call.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                // deleteChunk handles its own failures
+                log.error("Media deletion call failed unexpectedly", e);
+            }
+        }
+        return deleted;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Drop deletions that used up their attempts and were queued before the cutoff, then count
+     * the exhausted ones still kept. Returns the number of rows dropped.
+     */
+    public int purge(LocalDateTime cutoff) {
+        LocalDateTime now = LocalDateTime.now();
+        return transactionTemplate.execute(status -> {
+            int dropped = mediaDeletionRepository.deleteExhaustedBefore(now, maxAttempts, cutoff);
+            long remaining = mediaDeletionRepository.countExhausted(now, maxAttempts);
+            exhausted.set(remaining);
+            if (remaining > 0) {
+                log.warn("{} queued media file(s) could not be deleted after {} attempts, see media_deletion_queue.last_error",
+                    remaining, maxAttempts);
+            }
+            return dropped;
+        });
+    }
+
+    private int deleteChunk(List<MediaDeletion> chunk) throws InterruptedException {
+        long wait = pausedUntil.get() - System.currentTimeMillis();
+        if (wait > 0) {
+            Thread.sleep(wait);
+        }
+
+        List<UUID> ids = chunk.stream().map(MediaDeletion::getId).toList();
+        try {
+            Duration pacing = mediaStorage.deleteBatch(chunk.stream().map(MediaDeletion::getUrl).toList());
+            if (!pacing.isZero()) {
+                long until = System.currentTimeMillis() + pacing.toMillis();
+                pausedUntil.accumulateAndGet(until, Math::max);
+            }
+            transactionTemplate.executeWithoutResult(status -> mediaDeletionRepository.deleteAllByIdInBatch(ids));
+            return ids.size();
+        } catch (Exception e) {
+            String reason = String.valueOf(e.getMessage());
+            if (reason.length() > MAX_ERROR_LENGTH) {
+                reason = reason.substring(0, MAX_ERROR_LENGTH);
+            }
+            String lastError = reason;
+            long givenUp = chunk.stream().filter(deletion -> deletion.getAttempts() >= maxAttempts).count();
+            if (givenUp > 0) {
+                log.error("Giving up on {} media file(s) after {} attempts: {}", givenUp, maxAttempts, reason);
+            }
+            if (givenUp < ids.size()) {
+                log.warn("Failed to delete {} media file(s), retrying in {} min: {}",
+                    ids.size() - givenUp, retryDelayMinutes, reason);
+            }
+            // Back off the whole pool; failures are usually the provider throttling us
+            pausedUntil.accumulateAndGet(System.currentTimeMillis() + Duration.ofMinutes(1).toMillis(), Math::max);
+            try {
+                transactionTemplate.executeWithoutResult(status -> mediaDeletionRepository.markFailedAttempt(
+                    ids, LocalDateTime.now().plusMinutes(retryDelayMinutes), lastError));
+            } catch (Exception markError) {
+                // The lease expires and the rows are claimed again
+                log.error("Failed to record media deletion failure", markError);
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.luna.common.service;
+
+import com.luna.common.exception.BadRequestException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Validates and uploads images/videos through the configured {@link MediaStorage}.
+ *
+ * Multi-file uploads run concurrently on virtual threads, with the number of uploads in
+ * flight across the instance capped by app.media.upload-concurrency.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MediaService {
+    
+    private final MediaStorage mediaStorage;
+    
+    @Value("${app.media.upload-concurrency:16}")
+    private int uploadConcurrency;
+    
+    // Free tier limits
+    private static final long MAX_IMAGE_SIZE = 10 * 1024 * 1024; // 10MB
+    private static final long MAX_VIDEO_SIZE = 40 * 1024 * 1024; // 40MB
+    private static final String[] ALLOWED_IMAGE_TYPES = {"image/jpeg", "image/png", "image/jpg", "image/webp"};
+    private static final String[] ALLOWED_VIDEO_TYPES = {"video/mp4", "video/webm", "video/quicktime"};
+    
+    private ExecutorService uploadExecutor;
+    private Semaphore uploadPermits;
+    
+    @PostConstruct
+    void start() {
+        uploadExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("media-upload-", 0).factory());
+        uploadPermits = new Semaphore(uploadConcurrency);
+    }
+    
+    @PreDestroy
+    void stop() {
+        uploadExecutor.shutdown();
+    }
+    
+    public String uploadImage(MultipartFile file, String folder) {
+        validateImage(file);
+        return mediaStorage.store(file, folder, "image");
+    }
+    
+    public String uploadVideo(MultipartFile file, String folder) {
+        validateVideo(file);
+        return mediaStorage.store(file, folder, "video");
+    }
+    
+    /**
+     * Upload several images concurrently. Empty parts are skipped; URLs keep the input order.
+     */
+    public List<String> uploadImages(List<MultipartFile> files, String folder) {
+        return uploadAll(files, folder, "image");
+    }
+    
+    /**
+     * Upload several videos concurrently. Empty parts are skipped; URLs keep the input order.
+     */
+    public List<String> uploadVideos(List<MultipartFile> files, String folder) {
+        return uploadAll(files, folder, "video");
+    }
+    
+    public void delete(String url) {
+        if (url != null && !url.isEmpty()) {
+            mediaStorage.delete(url);
+        }
+    }
+    
+    public void deleteAll(List<String> urls) {
+        for (String url : urls) {
+            delete(url);
+        }
+    }
+    
+    /**
+     * All files are validated before any upload starts. If any upload fails, the ones that
+     * succeeded are deleted and the first failure is rethrown.
+     */
+    private List<String> uploadAll(List<MultipartFile> files, String folder, String resourceType) {
+        List<MultipartFile> toUpload = new ArrayList<>();
+        if (files != null) {
+            for (MultipartFile file : files) {
+                if (file != null && !file.isEmpty()) {
+                    if ("video".equals(resourceType)) {
+                        validateVideo(file);
+                    } else {
+                        validateImage(file);
+                    }
+                    toUpload.add(file);
+                }
+            }
+        }
+        if (toUpload.size() <= 1) {
+            return toUpload.stream().map(file -> mediaStorage.store(file, folder, resourceType)).toList();
+        }
+        
+        List<Future<String>> uploads = new ArrayList<>(toUpload.size());
+        for (MultipartFile file : toUpload) {
+            uploads.add(uploadExecutor.submit(() -> {
+                uploadPermits.acquire();
+                try {
+                    return mediaStorage.store(file, folder, resourceType);
+                } finally {
+                    uploadPermits.release();
+                }
+            }));
+        }
+        
+        List<String> urls = new ArrayList<>(uploads.size());
+        RuntimeException failure = null;
+        for (Future<String> upload : uploads) {
+            try {
+                urls.add(upload.get());
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException runtime
+                        ? runtime
+                        : new BadRequestException("Failed to upload file: " + e.getCause().getMessage());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (failure == null) {
+                    failure = new BadRequestException("Upload interrupted");
+                }
+            }
+        }
+        
+        if (failure != null) {
+            log.warn("Upload of {} file(s) failed, removing {} uploaded file(s)", toUpload.size(), urls.size());
+            deleteAll(urls);
+            throw failure;
+        }
+        return urls;
+    }
+    
+    private void validateImage(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new BadRequestException("Image file is required");
+        }
+        
+        if (file.getSize() > MAX_IMAGE_SIZE) {
+            throw new BadRequestException("Image size must not exceed 10MB");
+        }
+        
+        String contentType = file.getContentType();
+        boolean isValidType = false;
+        for (String allowedType : ALLOWED_IMAGE_TYPES) {
+            if (allowedType.equals(contentType)) {
+                isValidType = true;
+                break;
+            }
+        }
+        
+        if (!isValidType) {
+            throw new BadRequestException("Invalid image type. Allowed types: JPEG, PNG, JPG, WEBP");
+        }
+    }
+    
+    private void validateVideo(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new BadRequestException("Video file is required");
+        }
+        
+        if (file.getSize() > MAX_VIDEO_SIZE) {
+            throw new BadRequestException("Video size must not exceed 40MB");
+        }
+        
+        String contentType = file.getContentType();
+        boolean isValidType = false;
+        for (String allowedType : ALLOWED_VIDEO_TYPES) {
+            if (allowedType.equals(contentType)) {
+                isValidType = true;
+                break;
+            }
+        }
+        
+        if (!isValidType) {
+            throw new BadRequestException("Invalid video type. Allowed types: MP4, WEBM, MOV");
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.luna.common.service;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Where uploaded media is kept. Selected with app.media.storage (cloudinary or local).
+ */
+public interface MediaStorage {
+
+    /**
+     * Store an already validated file and return its public URL.
+     *
+     * @param resourceType "image" or "video"
+     */
+    String store(MultipartFile file, String folder, String resourceType);
+
+    /**
+     * Delete a file by the URL returned from {@link #store}. Failures are logged, not thrown.
+     */
+    void delete(String url);
+
+    /**
+     * Largest number of URLs {@link #deleteBatch} accepts at once
+     */
+    default int maxDeleteBatchSize() {
+        return 100;
+    }
+
+    /**
+     * Delete several files in as few remote calls as possible. Throws if the batch should be retried.
+     * Returns how long to wait before the next batch call, so callers can stay under the
+     * provider's API rate limit (zero if no throttling is needed).
+     */
+    default Duration deleteBatch(List<String> urls) {
+        urls.forEach(this::delete);
+        return Duration.ZERO;
+    }
+}
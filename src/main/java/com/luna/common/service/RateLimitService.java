@@ -1,30 +1,203 @@
 package com.luna.common.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.luna.config.RateLimitProperties;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Token-bucket rate limiting shared across instances.
+ *
+ * The shared bucket for each key is a Redis hash updated atomically by a Lua script.
+ * Each instance also keeps a Bucket4j bucket per key in a bounded cache with idle eviction:
+ * it rejects obvious abuse without a Redis call and is the fallback when Redis is unavailable.
+ * Non-strict policies only use the local bucket on the request path and report their usage
+ * to Redis from {@link #sync()}; keys found over the shared limit are then blocked locally.
+ */
 @Service
+@RequiredArgsConstructor
+@Slf4j
 public class RateLimitService {
 
-    private final Map<String, Bucket> cache = new ConcurrentHashMap<>();
+    private static final String BUCKET_KEY = "ratelimit:%s:%s";
 
-    public Bucket resolveBucket(String key) {
-        return cache.computeIfAbsent(key, k -> createNewBucket());
+    // KEYS[1] = bucket, ARGV = capacity, period in ms, tokens requested. Returns tokens granted.
+    private static final String TOKEN_BUCKET_SCRIPT = """
+        local capacity = tonumber(ARGV[1])
+        local period = tonumber(ARGV[2])
+        local requested = tonumber(ARGV[3])
+        local time = redis.call('TIME')
+        local now = time[1] * 1000 + math.floor(time[2] / 1000)
+        local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+        local tokens = tonumber(state[1]) or capacity
+        local ts = tonumber(state[2]) or now
+        tokens = math.min(capacity, tokens + math.max(0, now - ts) * capacity / period)
+        local granted = math.min(requested, math.floor(tokens))
+        redis.call('HSET', KEYS[1], 'tokens', tostring(tokens - granted), 'ts', tostring(now))
+        redis.call('PEXPIRE', KEYS[1], period)
+        return granted
+        """;
+    private static final RedisScript<Long> TOKEN_BUCKET = new DefaultRedisScript<>(TOKEN_BUCKET_SCRIPT, Long.class);
+
+    private final RateLimitProperties properties;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private Cache<String, LocalBucket> localBuckets;
+
+    // Keys of non-strict policies with usage not yet reported to Redis
+    private final Set<String> unsyncedKeys = ConcurrentHashMap.newKeySet();
+
+    private static final class LocalBucket {
+        final String policy;
+        final Bucket bucket;
+        final AtomicLong unsynced = new AtomicLong();
+        volatile long blockedUntilMillis;
+
+        LocalBucket(String policy, Bucket bucket) {
+            this.policy = policy;
+            this.bucket = bucket;
+        }
     }
 
-    private Bucket createNewBucket() {
-        // Allow 20 requests per 1 minute
+    @PostConstruct
+    void init() {
+        localBuckets = Caffeine.newBuilder()
+            .maximumSize(properties.getLocalCacheMaxSize())
+            .expireAfterAccess(properties.getLocalCacheIdleTimeout())
+            .build();
+    }
+
+    /**
+     * Consume one request for the given endpoint policy and caller (e.g. IP, IP + email, user id).
+     * Returns false if the caller is over the limit.
+     */
+    public boolean tryConsume(String policyName, String subject) {
+        if (!properties.isEnabled()) {
+            return true;
+        }
+        RateLimitProperties.Policy policy = properties.policy(policyName);
+        String key = String.format(BUCKET_KEY, policyName, subject);
+        LocalBucket local = localBuckets.get(key, k -> new LocalBucket(policyName, createBucket(policy)));
+
+        if (local.blockedUntilMillis > System.currentTimeMillis() || !local.bucket.tryConsume(1)) {
+            recordRejection(policyName, "local");
+            return false;
+        }
+        if (!properties.isDistributed()) {
+            return true;
+        }
+        if (!policy.isStrict()) {
+            local.unsynced.incrementAndGet();
+            unsyncedKeys.add(key);
+            return true;
+        }
+
+        try {
+            Long granted = redisTemplate.execute(TOKEN_BUCKET, List.of(key),
+                String.valueOf(policy.getCapacity()),
+                String.valueOf(policy.getPeriod().toMillis()),
+                "1");
+            if (granted == null || granted <= 0) {
+                recordRejection(policyName, "shared");
+                return false;
+            }
+            return true;
+        } catch (Exception e) {
+            // Redis unavailable; the local bucket has already been applied
+            log.warn("Rate limit check failed for {}, using local limit", policyName, e);
+            return true;
+        }
+    }
+
+    /**
+     * Report local usage of non-strict policies to the shared buckets.
+     * Returns the number of keys found over the shared limit.
+     */
+    public int sync() {
+        if (unsyncedKeys.isEmpty()) {
+            return 0;
+        }
+        List<String> keys = new ArrayList<>();
+        List<LocalBucket> buckets = new ArrayList<>();
+        List<Long> hits = new ArrayList<>();
+        for (String key : unsyncedKeys) {
+            unsyncedKeys.remove(key);
+            LocalBucket local = localBuckets.getIfPresent(key);
+            long count = local == null ? 0 : local.unsynced.getAndSet(0);
+            if (count > 0) {
+                keys.add(key);
+                buckets.add(local);
+                hits.add(count);
+            }
+        }
+        if (keys.isEmpty()) {
+            return 0;
+        }
+
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (int i = 0; i < keys.size(); i++) {
+                RateLimitProperties.Policy policy = properties.policy(buckets.get(i).policy);
+                conn.eval(TOKEN_BUCKET_SCRIPT, ReturnType.INTEGER, 1, keys.get(i),
+                    String.valueOf(policy.getCapacity()),
+                    String.valueOf(policy.getPeriod().toMillis()),
+                    String.valueOf(hits.get(i)));
+            }
+            return null;
+        });
+
+        int blocked = 0;
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < keys.size(); i++) {
+            long granted = ((Number) results.get(i)).longValue();
+            long deficit = hits.get(i) - granted;
+            if (deficit > 0) {
+                // Block until the shared bucket has refilled what this instance overdrew
+                RateLimitProperties.Policy policy = properties.policy(buckets.get(i).policy);
+                long refillMillis = policy.getPeriod().toMillis() * deficit / policy.getCapacity();
+                buckets.get(i).blockedUntilMillis = now + Math.max(refillMillis, 1);
+                blocked++;
+            }
+        }
+        return blocked;
+    }
+
+    private Bucket createBucket(RateLimitProperties.Policy policy) {
         Bandwidth limit = Bandwidth.builder()
-                .capacity(20)
-                .refillIntervally(20, Duration.ofMinutes(1))
+                .capacity(policy.getCapacity())
+                .refillGreedy(policy.getCapacity(), policy.getPeriod())
                 .build();
         return Bucket.builder()
                 .addLimit(limit)
                 .build();
     }
+
+    private void recordRejection(String policyName, String bucket) {
+        Counter.builder("luna.rate-limit.rejected")
+            .description("Requests rejected by rate limiting")
+            .tag("policy", policyName)
+            .tag("bucket", bucket)
+            .register(meterRegistry)
+            .increment();
+    }
 }
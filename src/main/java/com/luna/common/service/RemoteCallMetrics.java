@@ -0,0 +1,44 @@
+package com.luna.common.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times calls to remote dependencies (Cloudinary, SMTP, FCM, ip-api.com) as luna.remote.calls,
+ * tagged with the dependency, the operation and whether the call returned or threw.
+ */
+@Component
+@RequiredArgsConstructor
+public class RemoteCallMetrics {
+
+    private static final String METRIC = "luna.remote.calls";
+
+    private final MeterRegistry meterRegistry;
+
+    @FunctionalInterface
+    public interface RemoteCall<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    public <T, E extends Exception> T record(String dependency, String operation, RemoteCall<T, E> call) throws E {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            T result = call.call();
+            outcome = "success";
+            return result;
+        } finally {
+            Timer.builder(METRIC)
+                .description("Calls to remote dependencies")
+                .tag("dependency", dependency)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.luna.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Applied by Spring Boot to the @Async executor in both thread modes. A task takes one of
+     * app.async.concurrency-limit permits before it runs, so @Async work can't ask for more
+     * database connections than the pool has. The wait happens on the task's own thread, never
+     * on the thread that submitted it. Records how long each task waited between submission and
+     * start, including the wait for a permit.
+     */
+    @Bean
+    public TaskDecorator asyncTaskDecorator(MeterRegistry meterRegistry,
+                                            @Value("${app.async.concurrency-limit:10}") int concurrencyLimit) {
+        Semaphore permits = new Semaphore(concurrencyLimit);
+        Timer queueWait = Timer.builder("luna.async.queue.wait")
+                .description("Time @Async tasks wait before they start running")
+                .register(meterRegistry);
+        Gauge.builder("luna.async.waiting", permits, Semaphore::getQueueLength)
+                .description("@Async tasks waiting for a permit")
+                .register(meterRegistry);
+        return task -> {
+            long submittedAt = System.nanoTime();
+            return () -> {
+                permits.acquireUninterruptibly();
+                try {
+                    queueWait.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            };
+        };
+    }
+}
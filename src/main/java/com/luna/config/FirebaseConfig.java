@@ -6,6 +6,7 @@ import com.google.firebase.FirebaseOptions;
 import com.google.firebase.messaging.FirebaseMessaging;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -15,6 +16,7 @@ import java.nio.charset.StandardCharsets;
 
 @Slf4j
 @Configuration
+@ConditionalOnProperty(value = "app.notifications.push-gateway", havingValue = "firebase", matchIfMissing = true)
 public class FirebaseConfig {
 
     @Value("${firebase.credentials-json}")
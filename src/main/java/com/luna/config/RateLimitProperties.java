@@ -0,0 +1,50 @@
+package com.luna.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Rate limit policies, keyed by endpoint name (app.rate-limit.policies.<name>).
+ * Endpoints without an entry use default-policy.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.rate-limit")
+@Data
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Share buckets across instances through Redis; when false every instance enforces its own limit
+    private boolean distributed = true;
+
+    private long localCacheMaxSize = 100_000;
+
+    private Duration localCacheIdleTimeout = Duration.ofMinutes(10);
+
+    private Policy defaultPolicy = new Policy();
+
+    private Map<String, Policy> policies = new HashMap<>();
+
+    public Policy policy(String name) {
+        return policies.getOrDefault(name, defaultPolicy);
+    }
+
+    @Data
+    public static class Policy {
+
+        // Requests allowed per period
+        private long capacity = 20;
+
+        private Duration period = Duration.ofMinutes(1);
+
+        // Strict policies check the shared bucket on every request. Others decide locally and
+        // report usage to Redis in the background, so the cluster-wide limit is enforced with
+        // a delay of up to one sync interval but without a Redis call on the request path.
+        private boolean strict = true;
+    }
+}
@@ -0,0 +1,16 @@
+package com.luna.notification.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum NotificationType {
+    FOLLOW("started following you"),
+    LIKE("liked your post"),
+    COMMENT("commented on your post"),
+    REPOST("reposted your post");
+
+    // Completes "<actor> ..." and "<actor> and N others ..."
+    private final String action;
+}
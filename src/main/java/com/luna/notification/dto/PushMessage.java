@@ -0,0 +1,6 @@
+package com.luna.notification.dto;
+
+public record PushMessage(
+        String token,
+        NotificationPayload payload
+) {}
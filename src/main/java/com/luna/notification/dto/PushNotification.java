@@ -0,0 +1,16 @@
+package com.luna.notification.dto;
+
+import java.util.UUID;
+
+/**
+ * A notification waiting in the dispatch queue. Notifications with the same recipient, type and
+ * post are merged into one push ("X and 12 others liked your post").
+ *
+ * @param postId null for notifications about the recipient themselves, like follows
+ */
+public record PushNotification(
+        UUID recipientId,
+        NotificationType type,
+        UUID actorId,
+        UUID postId
+) {}
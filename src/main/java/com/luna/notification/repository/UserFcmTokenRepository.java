@@ -2,8 +2,13 @@ package com.luna.notification.repository;
 
 import com.luna.notification.entity.UserFcmToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -13,7 +18,16 @@ public interface UserFcmTokenRepository extends JpaRepository<UserFcmToken, UUID
 
     List<UserFcmToken> findByUserId(UUID userId);
 
+    // Returns [userId, fcmToken] pairs without loading the users
+    @Query("SELECT t.user.id, t.fcmToken FROM UserFcmToken t WHERE t.user.id IN :userIds")
+    List<Object[]> findTokensByUserIds(@Param("userIds") Collection<UUID> userIds);
+
     Optional<UserFcmToken> findByFcmToken(String fcmToken);
 
     void deleteByFcmToken(String fcmToken);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM UserFcmToken t WHERE t.fcmToken IN :tokens")
+    int deleteByFcmTokenIn(@Param("tokens") Collection<String> tokens);
 }
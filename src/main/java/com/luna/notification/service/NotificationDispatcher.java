@@ -0,0 +1,278 @@
+package com.luna.notification.service;
+
+import com.luna.notification.dto.NotificationPayload;
+import com.luna.notification.dto.NotificationType;
+import com.luna.notification.dto.PushMessage;
+import com.luna.notification.dto.PushNotification;
+import com.luna.notification.repository.UserFcmTokenRepository;
+import com.luna.user.entity.User;
+import com.luna.user.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Queues push notifications and sends them from a single background thread, once per
+ * coalesce-window-ms.
+ *
+ * Each window is collapsed per recipient, type and post, so a burst of likes becomes one
+ * "X and 12 others liked your post". Device tokens and actor names for the whole window are
+ * loaded in one query each, messages go out through {@link PushGateway#sendEach} in chunks of
+ * up to 500 on a fixed pool of senders, and tokens FCM rejects are deleted in one statement.
+ *
+ * Callers never block: when the queue is full the notification is dropped and counted.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationDispatcher {
+
+    @Value("${app.notifications.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.notifications.coalesce-window-ms:2000}")
+    private long coalesceWindowMs;
+
+    @Value("${app.notifications.senders:4}")
+    private int senders;
+
+    private final PushGateway pushGateway;
+    private final UserFcmTokenRepository userFcmTokenRepository;
+    private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+
+    private BlockingQueue<PushNotification> queue;
+    private ExecutorService senderPool;
+    private Thread dispatcherThread;
+    private volatile boolean running;
+
+    private Counter droppedCounter;
+    private Counter sentCounter;
+    private Counter failedCounter;
+    private Counter staleTokenCounter;
+
+    private record GroupKey(UUID recipientId, NotificationType type, UUID postId) {}
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("luna.notifications.queue.depth", queue, BlockingQueue::size)
+            .description("Notifications waiting to be sent")
+            .register(meterRegistry);
+        droppedCounter = Counter.builder("luna.notifications.dropped")
+            .description("Notifications dropped because the queue was full")
+            .register(meterRegistry);
+        sentCounter = Counter.builder("luna.notifications.sent")
+            .description("Push messages accepted by the push gateway")
+            .register(meterRegistry);
+        failedCounter = Counter.builder("luna.notifications.failed")
+            .description("Push messages the push gateway failed to send")
+            .register(meterRegistry);
+        staleTokenCounter = Counter.builder("luna.notifications.stale-tokens")
+            .description("Device tokens deleted because FCM rejected them")
+            .register(meterRegistry);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        senderPool = Executors.newFixedThreadPool(senders, runnable -> {
+            Thread thread = new Thread(runnable, "push-sender-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        running = true;
+        dispatcherThread = new Thread(this::run, "notification-dispatcher");
+        dispatcherThread.setDaemon(true);
+        dispatcherThread.start();
+    }
+
+    /**
+     * Queue a notification without blocking. Returns false if it was dropped.
+     */
+    public boolean enqueue(PushNotification notification) {
+        if (notification.actorId().equals(notification.recipientId())) {
+            return false;
+        }
+        if (queue.offer(notification)) {
+            return true;
+        }
+        droppedCounter.increment();
+        log.debug("Notification queue full, dropped {} for user {}", notification.type(), notification.recipientId());
+        return false;
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        dispatcherThread.interrupt();
+        try {
+            dispatcherThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Send whatever is still queued before the pool goes away
+        List<PushNotification> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        dispatch(remaining);
+        senderPool.shutdown();
+    }
+
+    private void run() {
+        List<PushNotification> window = new ArrayList<>();
+        while (running) {
+            try {
+                PushNotification first = queue.take();
+                window.add(first);
+                // Let the burst build up, then take everything that arrived meanwhile
+                Thread.sleep(coalesceWindowMs);
+                queue.drainTo(window);
+                dispatch(window);
+                window.clear();
+            } catch (InterruptedException e) {
+                // Shutdown; stop() sends the remainder
+                dispatch(window);
+                return;
+            } catch (Exception e) {
+                log.error("Notification dispatcher loop failed", e);
+                window.clear();
+            }
+        }
+    }
+
+    private void dispatch(List<PushNotification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+
+        // Actors in arrival order, so the last one is the most recent
+        Map<GroupKey, LinkedHashSet<UUID>> groups = new LinkedHashMap<>();
+        for (PushNotification notification : notifications) {
+            GroupKey key = new GroupKey(notification.recipientId(), notification.type(), notification.postId());
+            LinkedHashSet<UUID> actors = groups.computeIfAbsent(key, k -> new LinkedHashSet<>());
+            actors.remove(notification.actorId());
+            actors.add(notification.actorId());
+        }
+
+        Set<UUID> recipientIds = new LinkedHashSet<>();
+        groups.keySet().forEach(key -> recipientIds.add(key.recipientId()));
+        Map<UUID, List<String>> tokensByUser = new HashMap<>();
+        for (Object[] row : userFcmTokenRepository.findTokensByUserIds(recipientIds)) {
+            tokensByUser.computeIfAbsent((UUID) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+        if (tokensByUser.isEmpty()) {
+            log.debug("No FCM tokens for {} notification recipient(s), skipping", recipientIds.size());
+            return;
+        }
+
+        Set<UUID> latestActorIds = new LinkedHashSet<>();
+        groups.forEach((key, actors) -> {
+            if (tokensByUser.containsKey(key.recipientId())) {
+                latestActorIds.add(actors.getLast());
+            }
+        });
+        Map<UUID, String> actorNames = new HashMap<>();
+        for (User actor : userRepository.findAllById(latestActorIds)) {
+            actorNames.put(actor.getId(), actor.getDisplayName() != null ? actor.getDisplayName() : actor.getUsernameField());
+        }
+
+        List<PushMessage> messages = new ArrayList<>();
+        groups.forEach((key, actors) -> {
+            List<String> tokens = tokensByUser.get(key.recipientId());
+            String actorName = actorNames.get(actors.getLast());
+            if (tokens == null || actorName == null) {
+                return;
+            }
+            NotificationPayload payload = new NotificationPayload(
+                render(key.type(), actorName, actors.size()), "", data(key, actors));
+            for (String token : tokens) {
+                messages.add(new PushMessage(token, payload));
+            }
+        });
+
+        send(messages);
+    }
+
+    private void send(List<PushMessage> messages) {
+        Collection<String> staleTokens = new ConcurrentLinkedQueue<>();
+        List<Future<?>> calls = new ArrayList<>();
+        for (int i = 0; i < messages.size(); i += PushGateway.MAX_BATCH_SIZE) {
+            List<PushMessage> chunk = messages.subList(i, Math.min(i + PushGateway.MAX_BATCH_SIZE, messages.size()));
+            calls.add(senderPool.submit(() -> sendChunk(chunk, staleTokens)));
+        }
+
+        for (Future<?> call : calls) {
+            try {
+                call.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Push send failed unexpectedly", e);
+            }
+        }
+
+        if (!staleTokens.isEmpty()) {
+            try {
+                int removed = userFcmTokenRepository.deleteByFcmTokenIn(staleTokens);
+                staleTokenCounter.increment(removed);
+                log.info("Removed {} stale FCM token(s)", removed);
+            } catch (Exception e) {
+                log.error("Failed to remove {} stale FCM token(s)", staleTokens.size(), e);
+            }
+        }
+    }
+
+    private void sendChunk(List<PushMessage> chunk, Collection<String> staleTokens) {
+        List<PushGateway.Result> results = pushGateway.sendEach(chunk);
+        for (int i = 0; i < results.size(); i++) {
+            switch (results.get(i)) {
+                case SENT -> sentCounter.increment();
+                case INVALID_TOKEN -> staleTokens.add(chunk.get(i).token());
+                case FAILED -> failedCounter.increment();
+            }
+        }
+    }
+
+    private String render(NotificationType type, String actorName, int actorCount) {
+        if (actorCount == 1) {
+            return actorName + " " + type.getAction();
+        }
+        int others = actorCount - 1;
+        return actorName + " and " + others + (others == 1 ? " other " : " others ") + type.getAction();
+    }
+
+    private Map<String, String> data(GroupKey key, LinkedHashSet<UUID> actors) {
+        Map<String, String> data = new HashMap<>();
+        data.put("type", key.type().name());
+        data.put("userId", String.valueOf(actors.getLast()));
+        data.put("actorCount", String.valueOf(actors.size()));
+        if (key.postId() != null) {
+            data.put("postId", String.valueOf(key.postId()));
+        }
+        return data;
+    }
+}
@@ -0,0 +1,26 @@
+package com.luna.notification.service;
+
+import com.luna.notification.dto.PushMessage;
+
+import java.util.List;
+
+/**
+ * Sends push messages to devices. The Firebase implementation is used unless
+ * app.notifications.push-gateway=stub.
+ */
+public interface PushGateway {
+
+    // FCM sendEach accepts at most 500 messages per call
+    int MAX_BATCH_SIZE = 500;
+
+    /**
+     * Send up to {@link #MAX_BATCH_SIZE} messages. Returns one result per message, in order.
+     */
+    List<Result> sendEach(List<PushMessage> messages);
+
+    enum Result {
+        SENT,
+        INVALID_TOKEN,  // Token is unregistered or malformed and should be deleted
+        FAILED
+    }
+}
@@ -0,0 +1,64 @@
+package com.luna.notification.service.impl;
+
+import com.google.firebase.messaging.*;
+import com.luna.common.service.RemoteCallMetrics;
+import com.luna.notification.dto.PushMessage;
+import com.luna.notification.service.PushGateway;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(value = "app.notifications.push-gateway", havingValue = "firebase", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class FirebasePushGateway implements PushGateway {
+
+    private final FirebaseMessaging firebaseMessaging;
+    private final RemoteCallMetrics remoteCallMetrics;
+
+    @Override
+    public List<Result> sendEach(List<PushMessage> messages) {
+        List<Message> fcmMessages = messages.stream()
+                .map(this::toMessage)
+                .toList();
+
+        try {
+            BatchResponse response = remoteCallMetrics.record("fcm", "send_each",
+                    () -> firebaseMessaging.sendEach(fcmMessages));
+            return response.getResponses().stream()
+                    .map(this::toResult)
+                    .toList();
+        } catch (FirebaseMessagingException e) {
+            log.error("FCM sendEach failed for {} message(s)", messages.size(), e);
+            return Collections.nCopies(messages.size(), Result.FAILED);
+        }
+    }
+
+    private Message toMessage(PushMessage message) {
+        return Message.builder()
+                .setToken(message.token())
+                .setNotification(Notification.builder()
+                        .setTitle(message.payload().title())
+                        .setBody(message.payload().body())
+                        .build())
+                .putAllData(message.payload().data())
+                .build();
+    }
+
+    private Result toResult(SendResponse response) {
+        if (response.isSuccessful()) {
+            return Result.SENT;
+        }
+        MessagingErrorCode errorCode = response.getException().getMessagingErrorCode();
+        if (errorCode == MessagingErrorCode.UNREGISTERED
+                || errorCode == MessagingErrorCode.INVALID_ARGUMENT) {
+            return Result.INVALID_TOKEN;
+        }
+        return Result.FAILED;
+    }
+}
@@ -1,12 +1,13 @@
 package com.luna.notification.service.impl;
 
 import com.luna.common.exception.ResourceNotFoundException;
-import com.luna.notification.dto.NotificationPayload;
+import com.luna.notification.dto.NotificationType;
+import com.luna.notification.dto.PushNotification;
 import com.luna.notification.dto.RegisterFcmTokenRequest;
 import com.luna.notification.entity.UserFcmToken;
 import com.luna.notification.repository.UserFcmTokenRepository;
-import com.luna.notification.service.IFcmService;
 import com.luna.notification.service.INotificationService;
+import com.luna.notification.service.NotificationDispatcher;
 import com.luna.user.entity.User;
 import com.luna.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -16,10 +17,9 @@ import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Map;
+import java.time.Duration;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
@@ -27,11 +27,11 @@ import java.util.concurrent.TimeUnit;
 public class NotificationServiceImpl implements INotificationService {
 
     private static final String FOLLOW_COOLDOWN_KEY = "notification:follow:cooldown:%s:%s";
-    private static final long FOLLOW_COOLDOWN_HOURS = 1;
+    private static final Duration FOLLOW_COOLDOWN = Duration.ofHours(1);
 
     private final UserFcmTokenRepository userFcmTokenRepository;
     private final UserRepository userRepository;
-    private final IFcmService fcmService;
+    private final NotificationDispatcher notificationDispatcher;
     private final StringRedisTemplate redisTemplate;
 
     @Override
@@ -75,34 +75,15 @@ public class NotificationServiceImpl implements INotificationService {
         try {
             String cooldownKey = String.format(FOLLOW_COOLDOWN_KEY, followerId, followedUserId);
 
-            Boolean alreadySent = redisTemplate.hasKey(cooldownKey);
-            if (Boolean.TRUE.equals(alreadySent)) {
+            // Set-if-absent, so two quick follows can't both pass the check
+            Boolean firstFollow = redisTemplate.opsForValue().setIfAbsent(cooldownKey, "1", FOLLOW_COOLDOWN);
+            if (!Boolean.TRUE.equals(firstFollow)) {
                 log.debug("Follow notification suppressed (cooldown active): {} -> {}", followerId, followedUserId);
                 return;
             }
 
-            redisTemplate.opsForValue().set(cooldownKey, "1", FOLLOW_COOLDOWN_HOURS, TimeUnit.HOURS);
-
-            User follower = userRepository.findById(followerId).orElse(null);
-            if (follower == null) {
-                log.warn("Follower not found for notification: {}", followerId);
-                return;
-            }
-
-            String senderName = follower.getDisplayName() != null
-                    ? follower.getDisplayName()
-                    : follower.getUsernameField();
-
-            NotificationPayload payload = new NotificationPayload(
-                    senderName + " started following you",
-                    "",
-                    Map.of(
-                            "type", "FOLLOW",
-                            "userId", String.valueOf(followerId)
-                    )
-            );
-
-            fcmService.sendToUser(followedUserId, payload);
+            // Follower name and device tokens are looked up by the dispatcher, once per batch
+            notificationDispatcher.enqueue(new PushNotification(followedUserId, NotificationType.FOLLOW, followerId, null));
 
         } catch (Exception e) {
             log.error("Failed to send follow notification: {} -> {}", followerId, followedUserId, e);
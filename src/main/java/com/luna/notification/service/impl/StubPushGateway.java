@@ -0,0 +1,40 @@
+package com.luna.notification.service.impl;
+
+import com.luna.notification.dto.PushMessage;
+import com.luna.notification.service.PushGateway;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Stands in for FCM in development and load tests: waits app.notifications.stub-latency-ms per
+ * call and reports every message as sent, except tokens starting with "stale-", which are
+ * reported invalid so the token cleanup path is exercised too.
+ */
+@Component
+@ConditionalOnProperty(value = "app.notifications.push-gateway", havingValue = "stub")
+@Slf4j
+public class StubPushGateway implements PushGateway {
+
+    private static final String STALE_TOKEN_PREFIX = "stale-";
+
+    @Value("${app.notifications.stub-latency-ms:50}")
+    private long latencyMs;
+
+    @Override
+    public List<Result> sendEach(List<PushMessage> messages) {
+        try {
+            Thread.sleep(latencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        log.debug("Stub push gateway accepted {} message(s)", messages.size());
+        return messages.stream()
+                .map(message -> message.token().startsWith(STALE_TOKEN_PREFIX) ? Result.INVALID_TOKEN : Result.SENT)
+                .toList();
+    }
+}
@@ -53,8 +53,12 @@ public class HashtagController {
             @PathVariable("hashtag") String hashtag,
             @Parameter(description = "Page number (0-indexed)") @RequestParam(name = "page", defaultValue = "0") int page,
             @Parameter(description = "Number of posts per page") @RequestParam(name = "size", defaultValue = "10") int size,
+            @Parameter(description = "Keyset cursor from the previous response; pass an empty value to start cursor paging (page is ignored)") @RequestParam(name = "cursor", required = false) String cursor,
             Authentication authentication) {
         UUID userId = SecurityUtils.getUserId(authentication);
+        if (cursor != null) {
+            return ResponseEntity.ok(ApiResponse.success(PagedResponse.of(hashtagService.getPostsByHashtag(hashtag, userId, cursor, Math.min(size, 50)))));
+        }
         Pageable pageable = PageRequest.of(page, Math.min(size, 50));
         Page<PostResponse> posts = hashtagService.getPostsByHashtag(hashtag, userId, pageable);
         return ResponseEntity.ok(ApiResponse.success(PagedResponse.of(posts)));
@@ -2,11 +2,14 @@ package com.luna.post.controller;
 
 import com.luna.common.dto.ApiResponse;
 import com.luna.common.dto.PagedResponse;
+import com.luna.common.exception.BadRequestException;
+import com.luna.common.service.RateLimitService;
 import com.luna.post.dto.CreatePostRequest;
 import com.luna.post.dto.PostResponse;
 import com.luna.post.dto.RepostRequest;
 import com.luna.post.dto.RepostResponse;
 import com.luna.post.service.IPostService;
+import com.luna.post.service.PostSearchService;
 import com.luna.security.SecurityUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -35,6 +38,8 @@ import java.util.UUID;
 public class PostController {
     
     private final IPostService postService;
+    private final RateLimitService rateLimitService;
+    private final PostSearchService postSearchService;
     
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @Operation(summary = "Create a new post with optional images or videos",
@@ -65,8 +70,12 @@ public class PostController {
             @PathVariable("userId") UUID userId,
             @Parameter(description = "Page number (0-indexed)") @RequestParam(name = "page", defaultValue = "0") int page,
             @Parameter(description = "Number of posts per page") @RequestParam(name = "size", defaultValue = "10") int size,
+            @Parameter(description = "Keyset cursor from the previous response; pass an empty value to start cursor paging (page is ignored)") @RequestParam(name = "cursor", required = false) String cursor,
             Authentication authentication) {
         UUID currentUserId = SecurityUtils.getUserId(authentication);
+        if (cursor != null) {
+            return ResponseEntity.ok(ApiResponse.success(PagedResponse.of(postService.getUserPosts(userId, currentUserId, cursor, size))));
+        }
         Pageable pageable = PageRequest.of(page, size);
         Page<PostResponse> posts = postService.getUserPosts(userId, currentUserId, pageable);
         return ResponseEntity.ok(ApiResponse.success(PagedResponse.of(posts)));
@@ -77,13 +86,30 @@ public class PostController {
     public ResponseEntity<ApiResponse<PagedResponse<PostResponse>>> getTimelinePosts(
             @Parameter(description = "Page number (0-indexed)") @RequestParam(name = "page", defaultValue = "0") int page,
             @Parameter(description = "Number of posts per page") @RequestParam(name = "size", defaultValue = "10") int size,
+            @Parameter(description = "Keyset cursor from the previous response; pass an empty value to start cursor paging (page is ignored)") @RequestParam(name = "cursor", required = false) String cursor,
             Authentication authentication) {
         UUID userId = SecurityUtils.getUserId(authentication);
+        if (cursor != null) {
+            return ResponseEntity.ok(ApiResponse.success(PagedResponse.of(postService.getTimelinePosts(userId, cursor, size))));
+        }
         Pageable pageable = PageRequest.of(page, size);
         Page<PostResponse> posts = postService.getTimelinePosts(userId, pageable);
         return ResponseEntity.ok(ApiResponse.success(PagedResponse.of(posts)));
     }
 
+    @GetMapping("/search")
+    @Operation(summary = "Search posts by text",
+               description = "Full-text search over post title and content, ranked by relevance, recency and likes")
+    public ResponseEntity<ApiResponse<PagedResponse<PostResponse>>> searchPosts(
+            @Parameter(description = "Search query; supports \"quoted phrases\", -exclusions and OR", example = "sunset beach") @RequestParam(name = "q") String q,
+            @Parameter(description = "Number of posts per page (max: 50)") @RequestParam(name = "size", defaultValue = "10") int size,
+            @Parameter(description = "Keyset cursor from the previous response") @RequestParam(name = "cursor", required = false) String cursor,
+            Authentication authentication) {
+        UUID userId = SecurityUtils.getUserId(authentication);
+        return ResponseEntity.ok(ApiResponse.success(PagedResponse.of(
+            postSearchService.search(q, userId, cursor, Math.max(1, Math.min(size, 50))))));
+    }
+
     @DeleteMapping("/{postId}")
     @Operation(summary = "Soft delete a post (can be restored within 30 days)")
     public ResponseEntity<ApiResponse<Void>> deletePost(
@@ -110,6 +136,9 @@ public class PostController {
             @PathVariable("postId") UUID postId,
             Authentication authentication) {
         UUID userId = SecurityUtils.getUserId(authentication);
+        if (!rateLimitService.tryConsume("like", userId.toString())) {
+            throw new BadRequestException("Too many requests. Please try again later.");
+        }
         PostResponse response = postService.likePost(postId, userId);
         return ResponseEntity.ok(ApiResponse.success(response));
     }
@@ -149,8 +178,12 @@ public class PostController {
     public ResponseEntity<ApiResponse<PagedResponse<PostResponse>>> getSavedPosts(
             @Parameter(description = "Page number (0-indexed)") @RequestParam(name = "page", defaultValue = "0") int page,
             @Parameter(description = "Number of posts per page") @RequestParam(name = "size", defaultValue = "10") int size,
+            @Parameter(description = "Keyset cursor from the previous response; pass an empty value to start cursor paging (page is ignored)") @RequestParam(name = "cursor", required = false) String cursor,
             Authentication authentication) {
         UUID userId = SecurityUtils.getUserId(authentication);
+        if (cursor != null) {
+            return ResponseEntity.ok(ApiResponse.success(PagedResponse.of(postService.getSavedPosts(userId, cursor, size))));
+        }
         Pageable pageable = PageRequest.of(page, size);
         Page<PostResponse> posts = postService.getSavedPosts(userId, pageable);
         return ResponseEntity.ok(ApiResponse.success(PagedResponse.of(posts)));
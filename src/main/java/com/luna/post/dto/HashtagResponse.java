@@ -1,5 +1,6 @@
 package com.luna.post.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -8,6 +9,7 @@ import lombok.NoArgsConstructor;
 import java.util.UUID;
 
 @Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
@@ -15,4 +17,7 @@ public class HashtagResponse {
     private UUID id;
     private String name;
     private Long postCount;
+    // Windowed counts, populated for trending hashtags
+    private Long postCountLastHour;
+    private Long postCountLastWeek;
 }
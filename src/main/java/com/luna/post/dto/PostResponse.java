@@ -24,6 +24,7 @@ public class PostResponse {
     private Long likeCount;
     private Long commentCount;
     private Long repostCount;
+    private Long saveCount;
     private Boolean isLikedByCurrentUser;
     private Boolean isSavedByCurrentUser;
     private Boolean isRepostedByCurrentUser;
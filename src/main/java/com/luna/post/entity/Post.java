@@ -46,10 +46,23 @@ public class Post {
     @Builder.Default
     private Set<PostLike> likes = new HashSet<>();
     
-    @Column(name = "like_count")
+    // Counters are only changed with atomic UPDATEs (see PostCounterService), never by saving the entity
+    @Column(name = "like_count", updatable = false)
     @Builder.Default
     private Long likeCount = 0L;
     
+    @Column(name = "comment_count", updatable = false)
+    @Builder.Default
+    private Long commentCount = 0L;
+    
+    @Column(name = "repost_count", updatable = false)
+    @Builder.Default
+    private Long repostCount = 0L;
+    
+    @Column(name = "save_count", updatable = false)
+    @Builder.Default
+    private Long saveCount = 0L;
+    
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,10 @@
+package com.luna.post.event;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record PostDeletedEvent(
+        UUID postId,
+        UUID authorId,
+        LocalDateTime createdAt
+) {}
@@ -8,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -17,8 +18,45 @@ public interface HashtagRepository extends JpaRepository<Hashtag, UUID> {
 
     Optional<Hashtag> findByName(String name);
 
-    // Search hashtags by prefix
-    List<Hashtag> findByNameStartingWithOrderByNameAsc(String prefix, Pageable pageable);
+    List<Hashtag> findByNameIn(Collection<String> names);
+
+    // Insert hashtags in one statement, returning [id, name] for the rows actually created.
+    // Names are comma-joined (hashtags only contain word characters); names that already exist,
+    // including ones inserted concurrently by another transaction, are skipped.
+    @Query(value = """
+        INSERT INTO hashtags (name)
+        SELECT DISTINCT unnest(string_to_array(:names, ','))
+        ON CONFLICT (name) DO NOTHING
+        RETURNING id, name
+        """, nativeQuery = true)
+    List<Object[]> insertMissing(@Param("names") String names);
+
+    // Hashtags whose name starts with a LIKE pattern prefix, with their live post counts since a
+    // point in time, most used first. Returns [id, name, count] rows
+    @Query(value = """
+        SELECT h.id, h.name, COUNT(p.id) AS post_count
+        FROM hashtags h
+        LEFT JOIN post_hashtags ph ON ph.hashtag_id = h.id
+        LEFT JOIN posts p ON p.id = ph.post_id AND p.deleted_at IS NULL AND p.created_at > :since
+        WHERE h.name LIKE :prefix || '%'
+        GROUP BY h.id, h.name
+        ORDER BY post_count DESC, h.name
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<Object[]> searchByPrefixWithRecentPostCounts(@Param("prefix") String prefix,
+                                                      @Param("since") LocalDateTime since,
+                                                      @Param("limit") int limit);
+
+    // Every hashtag with its live post count since a point in time, for the autocomplete dictionary.
+    // Returns [id, name, count] rows; unused hashtags come back with 0
+    @Query(value = """
+        SELECT h.id, h.name, COUNT(p.id)
+        FROM hashtags h
+        LEFT JOIN post_hashtags ph ON ph.hashtag_id = h.id
+        LEFT JOIN posts p ON p.id = ph.post_id AND p.deleted_at IS NULL AND p.created_at > :since
+        GROUP BY h.id, h.name
+        """, nativeQuery = true)
+    List<Object[]> findAllWithRecentPostCounts(@Param("since") LocalDateTime since);
 
     // Get trending hashtags (most used in recent posts)
     @Query("""
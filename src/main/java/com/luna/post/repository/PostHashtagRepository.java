@@ -2,28 +2,60 @@ package com.luna.post.repository;
 
 import com.luna.post.entity.PostHashtag;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface PostHashtagRepository extends JpaRepository<PostHashtag, UUID> {
 
-    void deleteByPostId(UUID postId);
+    @Modifying
+    @Query("DELETE FROM PostHashtag ph WHERE ph.post.id = :postId")
+    int deleteAllByPostId(@Param("postId") UUID postId);
+
+    // Link a post to several hashtags in one statement; ids of hashtags that no longer exist are skipped
+    @Modifying
+    @Query(value = """
+        INSERT INTO post_hashtags (post_id, hashtag_id)
+        SELECT :postId, h.id FROM hashtags h
+        WHERE h.id IN (:hashtagIds)
+        ON CONFLICT (post_id, hashtag_id) DO NOTHING
+        """, nativeQuery = true)
+    int insertLinks(@Param("postId") UUID postId, @Param("hashtagIds") Collection<UUID> hashtagIds);
 
     List<PostHashtag> findByPostId(UUID postId);
 
-    // Count posts using a hashtag (for trending calculation)
+    @Query("SELECT ph.hashtag.id FROM PostHashtag ph WHERE ph.post.id = :postId")
+    List<UUID> findHashtagIdsByPostId(@Param("postId") UUID postId);
+
+    // Hashtag uses per time bucket ('minute' or 'hour') between two points in time, for seeding trending counters
+    @Query(value = """
+        SELECT ph.hashtag_id, date_trunc(:unit, p.created_at) AS bucket, COUNT(*)
+        FROM post_hashtags ph
+        JOIN posts p ON p.id = ph.post_id
+        WHERE p.deleted_at IS NULL
+        AND p.created_at > :since
+        AND p.created_at < :until
+        GROUP BY ph.hashtag_id, bucket
+        """, nativeQuery = true)
+    List<Object[]> countUsesByBucket(@Param("unit") String unit, @Param("since") LocalDateTime since,
+                                     @Param("until") LocalDateTime until);
+
+    // Count posts using each of the given hashtags, returns [hashtagId, count] rows (hashtags with no posts are omitted)
     @Query("""
-        SELECT COUNT(DISTINCT ph.post.id) FROM PostHashtag ph
+        SELECT ph.hashtag.id, COUNT(DISTINCT ph.post.id) FROM PostHashtag ph
         JOIN Post p ON ph.post.id = p.id
-        WHERE ph.hashtag.id = :hashtagId
+        WHERE ph.hashtag.id IN :hashtagIds
         AND p.deletedAt IS NULL
         AND p.createdAt > :since
+        GROUP BY ph.hashtag.id
         """)
-    long countRecentPostsByHashtagId(@Param("hashtagId") UUID hashtagId, @Param("since") LocalDateTime since);
+    List<Object[]> countRecentPostsByHashtagIds(@Param("hashtagIds") Collection<UUID> hashtagIds,
+                                                @Param("since") LocalDateTime since);
 }
@@ -2,8 +2,12 @@ package com.luna.post.repository;
 
 import com.luna.post.entity.PostLike;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -15,4 +19,8 @@ public interface PostLikeRepository extends JpaRepository<PostLike, UUID> {
     boolean existsByPostIdAndUserId(UUID postId, UUID userId);
 
     void deleteByPostIdAndUserId(UUID postId, UUID userId);
+
+    // Batch check which of the given posts the user has liked
+    @Query("SELECT pl.post.id FROM PostLike pl WHERE pl.user.id = :userId AND pl.post.id IN :postIds")
+    List<UUID> findLikedPostIds(@Param("userId") UUID userId, @Param("postIds") Collection<UUID> postIds);
 }
@@ -3,30 +3,80 @@ package com.luna.post.repository;
 import com.luna.post.entity.Post;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, UUID> {
 
+    @EntityGraph(attributePaths = "author")
     @Query("SELECT p FROM Post p WHERE p.author.id = :authorId AND p.deletedAt IS NULL ORDER BY p.createdAt DESC")
     Page<Post> findByAuthorIdOrderByCreatedAtDesc(@Param("authorId") UUID authorId, Pageable pageable);
 
+    @EntityGraph(attributePaths = "author")
     @Query("SELECT p FROM Post p WHERE p.author.id IN " +
            "(SELECT f.following.id FROM UserFollow f WHERE f.follower.id = :userId) " +
            "AND p.deletedAt IS NULL " +
            "ORDER BY p.createdAt DESC")
     Page<Post> findTimelinePosts(@Param("userId") UUID userId, Pageable pageable);
 
-    @Query("SELECT p FROM Post p WHERE p.deletedAt IS NOT NULL AND p.deletedAt < :cutoffDate")
-    List<Post> findPostsToHardDelete(@Param("cutoffDate") LocalDateTime cutoffDate);
+    // Keyset page of posts soft-deleted before the cutoff, for the purge job
+    @Query(value = """
+        SELECT id FROM posts
+        WHERE deleted_at < :cutoffDate AND id > :afterId
+        ORDER BY id
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<UUID> findIdsToHardDelete(@Param("cutoffDate") LocalDateTime cutoffDate,
+                                   @Param("afterId") UUID afterId,
+                                   @Param("limit") int limit);
 
+    // Re-check and lock a page inside the purge transaction so a post restored meanwhile is skipped
+    @Query(value = """
+        SELECT id FROM posts
+        WHERE id IN (:postIds) AND deleted_at < :cutoffDate
+        FOR UPDATE
+        """, nativeQuery = true)
+    List<UUID> lockIdsToHardDelete(@Param("postIds") Collection<UUID> postIds,
+                                   @Param("cutoffDate") LocalDateTime cutoffDate);
+
+    // Set-based hard delete of a chunk of posts. Children are removed explicitly, one statement
+    // per table, rather than row by row through ON DELETE CASCADE.
+    @Modifying
+    @Query(value = "DELETE FROM post_likes WHERE post_id IN (:postIds)", nativeQuery = true)
+    int deleteLikesByPostIds(@Param("postIds") Collection<UUID> postIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM saved_posts WHERE post_id IN (:postIds)", nativeQuery = true)
+    int deleteSavesByPostIds(@Param("postIds") Collection<UUID> postIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM reposts WHERE post_id IN (:postIds)", nativeQuery = true)
+    int deleteRepostsByPostIds(@Param("postIds") Collection<UUID> postIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM post_hashtags WHERE post_id IN (:postIds)", nativeQuery = true)
+    int deleteHashtagsByPostIds(@Param("postIds") Collection<UUID> postIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM comments WHERE post_id IN (:postIds)", nativeQuery = true)
+    int deleteCommentsByPostIds(@Param("postIds") Collection<UUID> postIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM posts WHERE id IN (:postIds)", nativeQuery = true)
+    int deleteByIds(@Param("postIds") Collection<UUID> postIds);
+
+    @EntityGraph(attributePaths = "author")
     @Query("""
         SELECT DISTINCT p FROM Post p
         JOIN PostHashtag ph ON ph.post.id = p.id
@@ -38,4 +88,151 @@ public interface PostRepository extends JpaRepository<Post, UUID> {
 
     @Query("SELECT COUNT(p) FROM Post p WHERE p.author.id = :authorId AND p.deletedAt IS NULL")
     long countByAuthorId(@Param("authorId") UUID authorId);
+
+    @Query("SELECT COUNT(p) FROM Post p WHERE p.author.id IN :authorIds AND p.deletedAt IS NULL")
+    long countByAuthorIds(@Param("authorIds") Collection<UUID> authorIds);
+
+    @EntityGraph(attributePaths = "author")
+    @Query("SELECT p FROM Post p WHERE p.id IN :ids")
+    List<Post> findAllWithAuthorByIdIn(@Param("ids") Collection<UUID> ids);
+
+    // Timeline store references, returns [postId, createdAt] pairs
+    @Query("SELECT p.id, p.createdAt FROM Post p WHERE p.author.id = :authorId AND p.deletedAt IS NULL ORDER BY p.createdAt DESC")
+    List<Object[]> findRecentPostRefsByAuthor(@Param("authorId") UUID authorId, Pageable pageable);
+
+    @Query("SELECT p.id, p.createdAt FROM Post p WHERE p.author.id IN :authorIds AND p.deletedAt IS NULL ORDER BY p.createdAt DESC")
+    List<Object[]> findRecentPostRefsByAuthors(@Param("authorIds") Collection<UUID> authorIds, Pageable pageable);
+
+    @Query("SELECT p.id, p.createdAt FROM Post p WHERE p.author.id IN " +
+           "(SELECT f.following.id FROM UserFollow f WHERE f.follower.id = :userId) " +
+           "AND p.author.id NOT IN :excludedAuthorIds " +
+           "AND p.deletedAt IS NULL " +
+           "ORDER BY p.createdAt DESC")
+    List<Object[]> findTimelinePostRefs(@Param("userId") UUID userId,
+                                        @Param("excludedAuthorIds") Collection<UUID> excludedAuthorIds,
+                                        Pageable pageable);
+
+    // Keyset pagination: ids of posts strictly after the (created_at, id) cursor, newest first
+    @Query(value = """
+        SELECT p.id FROM posts p
+        WHERE p.user_id = :authorId AND p.deleted_at IS NULL
+          AND (p.created_at, p.id) < (:cursorTs, :cursorId)
+        ORDER BY p.created_at DESC, p.id DESC
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<UUID> findIdsByAuthorBefore(@Param("authorId") UUID authorId,
+                                     @Param("cursorTs") LocalDateTime cursorTs,
+                                     @Param("cursorId") UUID cursorId,
+                                     @Param("limit") int limit);
+
+    @Query(value = """
+        SELECT p.id FROM posts p
+        WHERE p.user_id IN (SELECT f.following_id FROM user_follows f WHERE f.follower_id = :userId)
+          AND p.deleted_at IS NULL
+          AND (p.created_at, p.id) < (:cursorTs, :cursorId)
+        ORDER BY p.created_at DESC, p.id DESC
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<UUID> findTimelineIdsBefore(@Param("userId") UUID userId,
+                                     @Param("cursorTs") LocalDateTime cursorTs,
+                                     @Param("cursorId") UUID cursorId,
+                                     @Param("limit") int limit);
+
+    @Query(value = """
+        SELECT p.id FROM posts p
+        JOIN post_hashtags ph ON ph.post_id = p.id
+        JOIN hashtags h ON h.id = ph.hashtag_id
+        WHERE h.name = :hashtagName AND p.deleted_at IS NULL
+          AND (p.created_at, p.id) < (:cursorTs, :cursorId)
+        ORDER BY p.created_at DESC, p.id DESC
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<UUID> findIdsByHashtagBefore(@Param("hashtagName") String hashtagName,
+                                      @Param("cursorTs") LocalDateTime cursorTs,
+                                      @Param("cursorId") UUID cursorId,
+                                      @Param("limit") int limit);
+
+    // Ranked full-text search, keyset paginated on (score, id). The score only depends on the row
+    // (text relevance, log-scaled likes and an absolute-time recency term), so pages stay
+    // consistent. websearch_to_tsquery accepts user input ("quoted phrases", -exclusions, or).
+    // Returns [id, score] rows
+    @Query(value = """
+        SELECT s.id, s.score FROM (
+            SELECT p.id,
+                   CAST(ts_rank_cd(p.search_vector, q.query, 32) AS double precision) * :relevanceWeight
+                     + LN(CAST(p.like_count + 1 AS double precision))
+                     + CAST(EXTRACT(EPOCH FROM p.created_at) AS double precision) / :recencySeconds AS score
+            FROM posts p, websearch_to_tsquery('english', :query) AS q(query)
+            WHERE p.deleted_at IS NULL AND p.search_vector @@ q.query
+        ) s
+        WHERE (s.score, s.id) < (:cursorScore, :cursorId)
+        ORDER BY s.score DESC, s.id DESC
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<Object[]> searchIdsBefore(@Param("query") String query,
+                                   @Param("relevanceWeight") double relevanceWeight,
+                                   @Param("recencySeconds") double recencySeconds,
+                                   @Param("cursorScore") double cursorScore,
+                                   @Param("cursorId") UUID cursorId,
+                                   @Param("limit") int limit);
+
+    // Fill missing search vectors for one chunk; rows the trigger already filled are skipped
+    @Modifying
+    @Transactional
+    @Query(value = """
+        UPDATE posts SET search_vector = posts_search_vector(title, content)
+        WHERE id IN (:postIds) AND search_vector IS NULL
+        """, nativeQuery = true)
+    int fillSearchVectors(@Param("postIds") Collection<UUID> postIds);
+
+    // Apply accumulated counter deltas to one post in a single atomic UPDATE (no read-modify-write)
+    @Modifying
+    @Transactional
+    @Query(value = """
+        UPDATE posts SET
+            like_count    = GREATEST(like_count + :likes, 0),
+            comment_count = GREATEST(comment_count + :comments, 0),
+            repost_count  = GREATEST(repost_count + :reposts, 0),
+            save_count    = GREATEST(save_count + :saves, 0)
+        WHERE id = :postId
+        """, nativeQuery = true)
+    int applyCounterDeltas(@Param("postId") UUID postId,
+                           @Param("likes") long likes,
+                           @Param("comments") long comments,
+                           @Param("reposts") long reposts,
+                           @Param("saves") long saves);
+
+    // Walk all post ids in primary key order, used by counter reconciliation and the search backfill
+    @Query(value = "SELECT p.id FROM posts p WHERE p.id > :afterId ORDER BY p.id LIMIT :limit", nativeQuery = true)
+    List<UUID> findIdsAfter(@Param("afterId") UUID afterId, @Param("limit") int limit);
+
+    // Recompute counters from the source tables, only rewriting rows that drifted. Posts with a
+    // like, comment, repost or save since quietSince are skipped: its delta may still be buffered
+    @Modifying
+    @Transactional
+    @Query(value = """
+        UPDATE posts p SET
+            like_count    = c.likes,
+            comment_count = c.comments,
+            repost_count  = c.reposts,
+            save_count    = c.saves
+        FROM (
+            SELECT x.id,
+                   (SELECT COUNT(*) FROM post_likes pl WHERE pl.post_id = x.id) AS likes,
+                   (SELECT COUNT(*) FROM comments cm WHERE cm.post_id = x.id) AS comments,
+                   (SELECT COUNT(*) FROM reposts r WHERE r.post_id = x.id) AS reposts,
+                   (SELECT COUNT(*) FROM saved_posts sp WHERE sp.post_id = x.id) AS saves
+            FROM posts x
+            WHERE x.id IN (:postIds)
+              AND NOT EXISTS (SELECT 1 FROM post_likes pl WHERE pl.post_id = x.id AND pl.created_at >= :quietSince)
+              AND NOT EXISTS (SELECT 1 FROM comments cm WHERE cm.post_id = x.id AND cm.created_at >= :quietSince)
+              AND NOT EXISTS (SELECT 1 FROM reposts r WHERE r.post_id = x.id AND r.created_at >= :quietSince)
+              AND NOT EXISTS (SELECT 1 FROM saved_posts sp WHERE sp.post_id = x.id AND sp.saved_at >= :quietSince)
+        ) c
+        WHERE p.id = c.id
+          AND (p.like_count, p.comment_count, p.repost_count, p.save_count)
+              IS DISTINCT FROM (c.likes, c.comments, c.reposts, c.saves)
+        """, nativeQuery = true)
+    int reconcileCounters(@Param("postIds") Collection<UUID> postIds,
+                          @Param("quietSince") LocalDateTime quietSince);
 }
@@ -3,9 +3,14 @@ package com.luna.post.repository;
 import com.luna.post.entity.Repost;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -16,9 +21,14 @@ public interface RepostRepository extends JpaRepository<Repost, UUID> {
 
     Optional<Repost> findByUserIdAndOriginalPostId(UUID userId, UUID postId);
 
+    @EntityGraph(attributePaths = {"user", "originalPost", "originalPost.author"})
     Page<Repost> findByUserIdOrderByCreatedAtDesc(UUID userId, Pageable pageable);
 
     void deleteByUserIdAndOriginalPostId(UUID userId, UUID postId);
 
     long countByOriginalPostId(UUID postId);
+
+    // Batch check which of the given posts the user has reposted
+    @Query("SELECT r.originalPost.id FROM Repost r WHERE r.user.id = :userId AND r.originalPost.id IN :postIds")
+    List<UUID> findRepostedPostIds(@Param("userId") UUID userId, @Param("postIds") Collection<UUID> postIds);
 }
@@ -3,9 +3,15 @@ package com.luna.post.repository;
 import com.luna.post.entity.SavedPost;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -16,7 +22,25 @@ public interface SavedPostRepository extends JpaRepository<SavedPost, UUID> {
 
     Optional<SavedPost> findByUserIdAndPostId(UUID userId, UUID postId);
 
+    @EntityGraph(attributePaths = {"post", "post.author"})
     Page<SavedPost> findByUserIdOrderBySavedAtDesc(UUID userId, Pageable pageable);
 
     void deleteByUserIdAndPostId(UUID userId, UUID postId);
+
+    // Batch check which of the given posts the user has saved
+    @Query("SELECT sp.post.id FROM SavedPost sp WHERE sp.user.id = :userId AND sp.post.id IN :postIds")
+    List<UUID> findSavedPostIds(@Param("userId") UUID userId, @Param("postIds") Collection<UUID> postIds);
+
+    // Keyset pagination over saved posts, returns [postId, savedAt, savedPostId] rows newest first
+    @Query(value = """
+        SELECT sp.post_id, sp.saved_at, sp.id FROM saved_posts sp
+        WHERE sp.user_id = :userId
+          AND (sp.saved_at, sp.id) < (:cursorTs, :cursorId)
+        ORDER BY sp.saved_at DESC, sp.id DESC
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<Object[]> findSavedRefsBefore(@Param("userId") UUID userId,
+                                       @Param("cursorTs") LocalDateTime cursorTs,
+                                       @Param("cursorId") UUID cursorId,
+                                       @Param("limit") int limit);
 }
@@ -0,0 +1,35 @@
+package com.luna.post.scheduler;
+
+import com.luna.post.service.HashtagDictionary;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(
+    value = "app.scheduling.enabled",
+    havingValue = "true",
+    matchIfMissing = true
+)
+public class HashtagDictionaryScheduler {
+
+    private final HashtagDictionary hashtagDictionary;
+
+    /**
+     * Loads the hashtag autocomplete dictionary at startup, then reloads it so counts age out
+     * and hashtags created on other instances show up. Every 5 minutes by default.
+     */
+    @Scheduled(fixedDelayString = "${app.hashtags.dictionary-refresh-interval-ms:300000}")
+    public void refreshDictionary() {
+        try {
+            hashtagDictionary.refresh();
+        } catch (Exception e) {
+            log.error("Error during hashtag dictionary refresh", e);
+            // Don't rethrow - let scheduler continue running
+        }
+    }
+}
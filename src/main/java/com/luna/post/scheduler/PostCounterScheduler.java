@@ -0,0 +1,59 @@
+package com.luna.post.scheduler;
+
+import com.luna.post.service.PostCounterService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(
+    value = "app.scheduling.enabled",
+    havingValue = "true",
+    matchIfMissing = true
+)
+public class PostCounterScheduler {
+
+    private final PostCounterService postCounterService;
+
+    /**
+     * Writes buffered like/comment/repost/save deltas to the posts table.
+     */
+    @Scheduled(fixedDelayString = "${app.counters.flush-interval-ms:1000}")
+    public void flushCounters() {
+        try {
+            int flushed = postCounterService.flush();
+            if (flushed > 0) {
+                log.debug("Flushed counters for {} post(s)", flushed);
+            }
+        } catch (Exception e) {
+            log.error("Error during post counter flush", e);
+        }
+    }
+
+    /**
+     * Recomputes counters of quiet posts from the source tables to correct drift
+     * (e.g. deltas lost when an instance stopped before flushing).
+     * Runs daily at 3:30 AM server time.
+     */
+    @Scheduled(cron = "${app.counters.reconcile-cron:0 30 3 * * *}")
+    public void reconcileCounters() {
+        log.info("Starting scheduled post counter reconciliation");
+
+        try {
+            int corrected = postCounterService.reconcile();
+
+            if (corrected > 0) {
+                log.info("Reconciliation completed. Corrected counters on {} post(s)", corrected);
+            } else {
+                log.debug("Reconciliation completed. No drift found");
+            }
+
+        } catch (Exception e) {
+            log.error("Error during post counter reconciliation", e);
+        }
+    }
+}
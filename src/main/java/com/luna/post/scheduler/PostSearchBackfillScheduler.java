@@ -0,0 +1,38 @@
+package com.luna.post.scheduler;
+
+import com.luna.post.service.PostSearchService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(
+    value = {"app.scheduling.enabled", "app.search.backfill-enabled"},
+    havingValue = "true",
+    matchIfMissing = true
+)
+public class PostSearchBackfillScheduler {
+
+    private final PostSearchService postSearchService;
+
+    /**
+     * Fills search vectors for posts created before full-text search, once per startup, in the
+     * background. After the first complete run it only walks ids and updates nothing.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillSearchVectors() {
+        try {
+            postSearchService.backfill();
+        } catch (Exception e) {
+            log.error("Error during post search backfill", e);
+            // Rerun on the next startup; filled chunks are skipped
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.luna.post.scheduler;
+
+import com.luna.post.service.TrendingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(
+    value = "app.scheduling.enabled",
+    havingValue = "true",
+    matchIfMissing = true
+)
+public class TrendingScheduler {
+
+    private final TrendingService trendingService;
+
+    /**
+     * Recomputes trending hashtag scores from the per-minute and per-hour buckets.
+     */
+    @Scheduled(fixedDelayString = "${app.trending.refresh-interval-ms:60000}")
+    public void refreshTrending() {
+        try {
+            int published = trendingService.refresh();
+            log.debug("Trending refresh published {} hashtag(s)", published);
+        } catch (Exception e) {
+            log.error("Error during trending hashtag refresh", e);
+            // Don't rethrow - let scheduler continue running
+        }
+    }
+}
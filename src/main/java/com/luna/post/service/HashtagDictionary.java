@@ -0,0 +1,243 @@
+package com.luna.post.service;
+
+import com.luna.post.dto.HashtagResponse;
+import com.luna.post.repository.HashtagRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * In-memory hashtag names with their post counts over the last popularity-window-days, for
+ * prefix autocomplete without touching the database.
+ *
+ * Names are held sorted, so a prefix is one contiguous range, with a max-count segment tree
+ * over them so the top k of any range comes out in O(k log n). Uses recorded by
+ * {@link HashtagService#processHashtags} are applied as they commit; hashtags created since
+ * the last refresh sit in a small side map. A periodic refresh reloads everything from the
+ * database, which ages out old uses and picks up hashtags created on other instances.
+ *
+ * Until the first refresh has completed, complete() returns empty so callers can use SQL.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HashtagDictionary {
+
+    private record Use(String name, UUID id) {}
+
+    @Value("${app.hashtags.popularity-window-days:7}")
+    private int popularityWindowDays;
+
+    private final HashtagRepository hashtagRepository;
+
+    private volatile Snapshot snapshot;
+    // Non-null while a refresh is loading; uses recorded meanwhile are replayed onto the new snapshot
+    private volatile ConcurrentLinkedQueue<Use> usesDuringRefresh;
+
+    /**
+     * Hashtags starting with the (lower-case, #-less) prefix, most used first, or empty if the
+     * dictionary isn't loaded yet
+     */
+    public Optional<List<HashtagResponse>> complete(String prefix, int limit) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return Optional.empty();
+        }
+        return Optional.of(current.top(prefix, limit));
+    }
+
+    /**
+     * Count one use of each hashtag; called after the linking transaction commits
+     */
+    public void recordUses(Map<String, UUID> hashtags) {
+        ConcurrentLinkedQueue<Use> pending = usesDuringRefresh;
+        Snapshot current = snapshot;
+        hashtags.forEach((name, id) -> {
+            if (pending != null) {
+                pending.add(new Use(name, id));
+            }
+            if (current != null) {
+                current.add(name, id);
+            }
+        });
+    }
+
+    /**
+     * Reload names and counts from the database. Returns the number of hashtags loaded.
+     */
+    public synchronized int refresh() {
+        long start = System.currentTimeMillis();
+        ConcurrentLinkedQueue<Use> pending = new ConcurrentLinkedQueue<>();
+        usesDuringRefresh = pending;
+        try {
+            LocalDateTime since = LocalDateTime.now().minusDays(popularityWindowDays);
+            Snapshot loaded = Snapshot.of(hashtagRepository.findAllWithRecentPostCounts(since));
+            // May count a use twice if it committed just before the load read it; the next refresh corrects it
+            for (Use use : pending) {
+                loaded.add(use.name(), use.id());
+            }
+            snapshot = loaded;
+            log.debug("Loaded {} hashtag(s) into the dictionary in {} ms", loaded.size(), System.currentTimeMillis() - start);
+            return loaded.size();
+        } finally {
+            usesDuringRefresh = null;
+        }
+    }
+
+    private static final class Snapshot {
+
+        private static final class Addition {
+            final UUID id;
+            long count;
+
+            Addition(UUID id) {
+                this.id = id;
+            }
+        }
+
+        private final String[] names;
+        private final UUID[] ids;
+        private final long[] counts;
+        // tree[leaves + i] = i; inner nodes hold the index with the highest count below them (-1 if none)
+        private final int[] tree;
+        private final int leaves;
+        private final TreeMap<String, Addition> additions = new TreeMap<>();
+
+        private Snapshot(String[] names, UUID[] ids, long[] counts) {
+            this.names = names;
+            this.ids = ids;
+            this.counts = counts;
+            int size = 1;
+            while (size < Math.max(names.length, 1)) {
+                size <<= 1;
+            }
+            leaves = size;
+            tree = new int[2 * size];
+            Arrays.fill(tree, -1);
+            for (int i = 0; i < names.length; i++) {
+                tree[size + i] = i;
+            }
+            for (int node = size - 1; node > 0; node--) {
+                tree[node] = better(tree[2 * node], tree[2 * node + 1]);
+            }
+        }
+
+        /**
+         * Build from [id, name, count] rows in any order
+         */
+        static Snapshot of(List<Object[]> rows) {
+            Object[][] sorted = rows.toArray(new Object[0][]);
+            Arrays.sort(sorted, Comparator.comparing(row -> (String) row[1]));
+            String[] names = new String[sorted.length];
+            UUID[] ids = new UUID[sorted.length];
+            long[] counts = new long[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                ids[i] = (UUID) sorted[i][0];
+                names[i] = (String) sorted[i][1];
+                counts[i] = ((Number) sorted[i][2]).longValue();
+            }
+            return new Snapshot(names, ids, counts);
+        }
+
+        synchronized int size() {
+            return names.length + additions.size();
+        }
+
+        synchronized void add(String name, UUID id) {
+            int i = Arrays.binarySearch(names, name);
+            if (i < 0) {
+                additions.computeIfAbsent(name, n -> new Addition(id)).count++;
+                return;
+            }
+            counts[i]++;
+            for (int node = (leaves + i) >> 1; node > 0; node >>= 1) {
+                tree[node] = better(tree[2 * node], tree[2 * node + 1]);
+            }
+        }
+
+        synchronized List<HashtagResponse> top(String prefix, int limit) {
+            List<HashtagResponse> result = new ArrayList<>(limit);
+            if (limit <= 0) {
+                return result;
+            }
+            String end = prefix + Character.MAX_VALUE;
+            int from = lowerBound(prefix);
+            int to = lowerBound(end);
+
+            // Best-first over sub-ranges: take the range's highest count, then split around it
+            PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> {
+                int cmp = Long.compare(counts[b[2]], counts[a[2]]);
+                return cmp != 0 ? cmp : Integer.compare(a[2], b[2]);
+            });
+            if (from < to) {
+                ranges.add(new int[] {from, to, rangeMax(from, to)});
+            }
+            while (!ranges.isEmpty() && result.size() < limit) {
+                int[] range = ranges.poll();
+                int best = range[2];
+                result.add(response(ids[best], names[best], counts[best]));
+                if (range[0] < best) {
+                    ranges.add(new int[] {range[0], best, rangeMax(range[0], best)});
+                }
+                if (best + 1 < range[1]) {
+                    ranges.add(new int[] {best + 1, range[1], rangeMax(best + 1, range[1])});
+                }
+            }
+
+            additions.subMap(prefix, end).forEach((name, addition) ->
+                result.add(response(addition.id, name, addition.count)));
+            result.sort(Comparator.comparing(HashtagResponse::getPostCount).reversed()
+                .thenComparing(HashtagResponse::getName));
+            return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+        }
+
+        private int lowerBound(String key) {
+            int i = Arrays.binarySearch(names, key);
+            return i >= 0 ? i : -i - 1;
+        }
+
+        private int rangeMax(int from, int to) {
+            int best = -1;
+            for (int l = from + leaves, r = to + leaves; l < r; l >>= 1, r >>= 1) {
+                if ((l & 1) == 1) {
+                    best = better(best, tree[l++]);
+                }
+                if ((r & 1) == 1) {
+                    best = better(best, tree[--r]);
+                }
+            }
+            return best;
+        }
+
+        // Higher count wins; on a tie the alphabetically first name
+        private int better(int a, int b) {
+            if (a < 0) return b;
+            if (b < 0) return a;
+            if (counts[a] != counts[b]) {
+                return counts[b] > counts[a] ? b : a;
+            }
+            return Math.min(a, b);
+        }
+
+        private static HashtagResponse response(UUID id, String name, long count) {
+            return HashtagResponse.builder()
+                .id(id)
+                .name(name)
+                .postCount(count)
+                .build();
+        }
+    }
+}
@@ -1,29 +1,35 @@
 package com.luna.post.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.luna.common.dto.Cursor;
+import com.luna.common.dto.CursorSlice;
 import com.luna.post.dto.HashtagResponse;
 import com.luna.post.dto.PostResponse;
 import com.luna.post.entity.Hashtag;
 import com.luna.post.entity.Post;
-import com.luna.post.entity.PostHashtag;
 import com.luna.post.repository.HashtagRepository;
 import com.luna.post.repository.PostHashtagRepository;
 import com.luna.post.repository.PostRepository;
-import com.luna.post.repository.PostLikeRepository;
-import com.luna.comment.repository.CommentRepository;
-import com.luna.post.repository.SavedPostRepository;
-import com.luna.post.repository.RepostRepository;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
-import java.util.*;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -38,14 +44,29 @@ public class HashtagService {
     private final HashtagRepository hashtagRepository;
     private final PostHashtagRepository postHashtagRepository;
     private final PostRepository postRepository;
-    private final PostLikeRepository postLikeRepository;
-    private final CommentRepository commentRepository;
-    private final SavedPostRepository savedPostRepository;
-    private final RepostRepository repostRepository;
-    private final ObjectMapper objectMapper;
+    private final PostResponseAssembler postResponseAssembler;
+    private final TrendingService trendingService;
+    private final HashtagDictionary hashtagDictionary;
+    
+    @Value("${app.hashtags.id-cache-max-size:10000}")
+    private long idCacheMaxSize;
+    
+    @Value("${app.hashtags.popularity-window-days:7}")
+    private int popularityWindowDays;
+    
+    // Hashtags are never renamed, so name -> id entries never go stale
+    private Cache<String, UUID> hashtagIdCache;
+    
+    @PostConstruct
+    void init() {
+        hashtagIdCache = Caffeine.newBuilder()
+            .maximumSize(idCacheMaxSize)
+            .build();
+    }
     
     /**
-     * Extract hashtags from content and link them to the post
+     * Extract hashtags from content and link them to the post.
+     * Uses a fixed number of statements regardless of how many hashtags the post has.
      */
     @Transactional
     public void processHashtags(Post post) {
@@ -55,31 +76,83 @@ public class HashtagService {
         }
         
         // Delete existing hashtags for this post (in case of update)
-        postHashtagRepository.deleteByPostId(post.getId());
+        postHashtagRepository.deleteAllByPostId(post.getId());
         
         // Extract unique hashtags
         Set<String> hashtagNames = extractHashtags(content);
+        if (hashtagNames.isEmpty()) {
+            return;
+        }
         
-        for (String name : hashtagNames) {
-            // Find or create hashtag
-            Hashtag hashtag = hashtagRepository.findByName(name)
-                .orElseGet(() -> hashtagRepository.save(
-                    Hashtag.builder().name(name).build()
-                ));
+        Map<String, UUID> hashtags = resolveHashtagIds(hashtagNames);
+        Collection<UUID> hashtagIds = hashtags.values();
+        postHashtagRepository.insertLinks(post.getId(), hashtagIds);
+        
+        trendingService.recordPost(hashtagIds, post.getCreatedAt(), 1);
+        afterCommit(() -> hashtagDictionary.recordUses(hashtags));
+    }
+    
+    /**
+     * Map hashtag names to ids, creating any that don't exist yet
+     */
+    private Map<String, UUID> resolveHashtagIds(Set<String> names) {
+        Map<String, UUID> ids = new HashMap<>(hashtagIdCache.getAllPresent(names));
+        
+        Set<String> missing = new HashSet<>(names);
+        missing.removeAll(ids.keySet());
+        if (!missing.isEmpty()) {
+            for (Hashtag hashtag : hashtagRepository.findByNameIn(missing)) {
+                ids.put(hashtag.getName(), hashtag.getId());
+            }
+            missing.removeAll(ids.keySet());
+        }
+        
+        hashtagIdCache.putAll(ids);
+        
+        if (!missing.isEmpty()) {
+            Map<String, UUID> created = new HashMap<>();
+            for (Object[] row : hashtagRepository.insertMissing(String.join(",", missing))) {
+                created.put((String) row[1], (UUID) row[0]);
+            }
+            ids.putAll(created);
+            missing.removeAll(ids.keySet());
+            if (!created.isEmpty()) {
+                afterCommit(() -> hashtagIdCache.putAll(created));
+            }
             
-            // Link to post
-            PostHashtag postHashtag = PostHashtag.builder()
-                .post(post)
-                .hashtag(hashtag)
-                .build();
-            postHashtagRepository.save(postHashtag);
+            // Lost the insert race to a concurrent transaction; its rows are committed by now
+            if (!missing.isEmpty()) {
+                for (Hashtag hashtag : hashtagRepository.findByNameIn(missing)) {
+                    ids.put(hashtag.getName(), hashtag.getId());
+                    hashtagIdCache.put(hashtag.getName(), hashtag.getId());
+                }
+            }
+        }
+        
+        return ids;
+    }
+    
+    /**
+     * In-memory state (id cache, dictionary) is only updated once the transaction commits,
+     * so a rollback cannot leave ids for rows that never existed or count uses that never happened
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
         }
     }
     
     /**
      * Extract hashtag names from content (lowercase, without #)
      */
-    public Set<String> extractHashtags(String content) {
+    public static Set<String> extractHashtags(String content) {
         Set<String> hashtags = new HashSet<>();
         Matcher matcher = HASHTAG_PATTERN.matcher(content);
         
@@ -94,38 +167,67 @@ public class HashtagService {
     }
     
     /**
-     * Get trending hashtags (most used in last 24 hours)
+     * Get trending hashtags, ranked by recency-weighted use over the last 7 days.
+     * Falls back to the most used in the last 24 hours until the first trending refresh.
      */
     @Transactional(readOnly = true)
     public List<HashtagResponse> getTrendingHashtags(int limit) {
+        Optional<List<HashtagResponse>> precomputed = trendingService.getTrending(limit);
+        if (precomputed.isPresent()) {
+            return precomputed.get();
+        }
+        
         LocalDateTime since = LocalDateTime.now().minusHours(24);
         List<Hashtag> trending = hashtagRepository.findTrendingHashtags(since, PageRequest.of(0, limit));
         
-        return trending.stream()
-            .map(h -> HashtagResponse.builder()
-                .id(h.getId())
-                .name(h.getName())
-                .postCount(postHashtagRepository.countRecentPostsByHashtagId(h.getId(), since))
-                .build())
-            .collect(Collectors.toList());
+        return withRecentPostCounts(trending, since);
     }
     
     /**
-     * Search hashtags by prefix
+     * Search hashtags by prefix, most used in the last popularity-window-days first.
+     * Served from the in-memory dictionary; falls back to SQL until it has loaded.
      */
     @Transactional(readOnly = true)
     public List<HashtagResponse> searchHashtags(String query, int limit) {
         String prefix = query.toLowerCase().replaceAll("^#", "");
-        List<Hashtag> hashtags = hashtagRepository.findByNameStartingWithOrderByNameAsc(
-            prefix, PageRequest.of(0, limit)
+        
+        Optional<List<HashtagResponse>> completions = hashtagDictionary.complete(prefix, limit);
+        if (completions.isPresent()) {
+            return completions.get();
+        }
+        
+        // Escape LIKE wildcards; '_' is also a word character, so hashtag names can contain it
+        String pattern = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        List<Object[]> rows = hashtagRepository.searchByPrefixWithRecentPostCounts(
+            pattern, LocalDateTime.now().minusDays(popularityWindowDays), limit
         );
+        return rows.stream()
+            .map(row -> HashtagResponse.builder()
+                .id((UUID) row[0])
+                .name((String) row[1])
+                .postCount(((Number) row[2]).longValue())
+                .build())
+            .collect(Collectors.toList());
+    }
+    
+    /**
+     * Map hashtags to responses with their post counts since a point in time, in one query
+     */
+    private List<HashtagResponse> withRecentPostCounts(List<Hashtag> hashtags, LocalDateTime since) {
+        if (hashtags.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, Long> counts = new HashMap<>();
+        List<UUID> ids = hashtags.stream().map(Hashtag::getId).toList();
+        for (Object[] row : postHashtagRepository.countRecentPostsByHashtagIds(ids, since)) {
+            counts.put((UUID) row[0], ((Number) row[1]).longValue());
+        }
         
-        LocalDateTime since = LocalDateTime.now().minusDays(7);
         return hashtags.stream()
             .map(h -> HashtagResponse.builder()
                 .id(h.getId())
                 .name(h.getName())
-                .postCount(postHashtagRepository.countRecentPostsByHashtagId(h.getId(), since))
+                .postCount(counts.getOrDefault(h.getId(), 0L))
                 .build())
             .collect(Collectors.toList());
     }
@@ -139,47 +241,19 @@ public class HashtagService {
         
         Page<Post> posts = postRepository.findByHashtag(name, pageable);
         
-        return posts.map(post -> mapToPostResponse(post, currentUserId));
+        return postResponseAssembler.toResponsePage(posts, currentUserId);
     }
     
-    private PostResponse mapToPostResponse(Post post, UUID userId) {
-        boolean isLiked = userId != null && postLikeRepository.existsByPostIdAndUserId(post.getId(), userId);
-        boolean isSaved = userId != null && savedPostRepository.existsByUserIdAndPostId(userId, post.getId());
-        boolean isReposted = userId != null && repostRepository.existsByUserIdAndOriginalPostId(userId, post.getId());
-        long commentCount = commentRepository.countByPostId(post.getId());
-        long repostCount = repostRepository.countByOriginalPostId(post.getId());
-        
-        return PostResponse.builder()
-            .id(post.getId())
-            .title(post.getTitle())
-            .content(post.getContent())
-            .imageUrls(fromJson(post.getImageUrls()))
-            .videoUrls(fromJson(post.getVideoUrls()))
-            .author(PostResponse.AuthorInfo.builder()
-                .id(post.getAuthor().getId())
-                .username(post.getAuthor().getUsernameField())
-                .email(post.getAuthor().getEmail())
-                .profileImageUrl(post.getAuthor().getProfileImageUrl())
-                .build())
-            .likeCount(post.getLikeCount())
-            .commentCount(commentCount)
-            .repostCount(repostCount)
-            .isLikedByCurrentUser(isLiked)
-            .isSavedByCurrentUser(isSaved)
-            .isRepostedByCurrentUser(isReposted)
-            .createdAt(post.getCreatedAt())
-            .updatedAt(post.getUpdatedAt())
-            .build();
-    }
-    
-    private List<String> fromJson(String json) {
-        if (json == null || json.isEmpty()) {
-            return Collections.emptyList();
-        }
-        try {
-            return objectMapper.readValue(json, new TypeReference<List<String>>() {});
-        } catch (JsonProcessingException e) {
-            return Collections.emptyList();
-        }
+    /**
+     * Get posts by hashtag using keyset pagination
+     */
+    @Transactional(readOnly = true)
+    public CursorSlice<PostResponse> getPostsByHashtag(String hashtagName, UUID currentUserId, String cursor, int size) {
+        String name = hashtagName.toLowerCase().replaceAll("^#", "");
+        
+        Cursor after = Cursor.decode(cursor);
+        List<UUID> postIds = postRepository.findIdsByHashtagBefore(name, after.timestamp(), after.id(), size + 1);
+        
+        return postResponseAssembler.toCursorSlice(postIds, size, currentUserId);
     }
 }
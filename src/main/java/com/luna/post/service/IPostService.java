@@ -1,5 +1,6 @@
 package com.luna.post.service;
 
+import com.luna.common.dto.CursorSlice;
 import com.luna.post.dto.CreatePostRequest;
 import com.luna.post.dto.PostResponse;
 import com.luna.post.dto.RepostResponse;
@@ -18,8 +19,12 @@ public interface IPostService {
 
     Page<PostResponse> getUserPosts(UUID userId, UUID currentUserId, Pageable pageable);
 
+    CursorSlice<PostResponse> getUserPosts(UUID userId, UUID currentUserId, String cursor, int size);
+
     Page<PostResponse> getTimelinePosts(UUID userId, Pageable pageable);
 
+    CursorSlice<PostResponse> getTimelinePosts(UUID userId, String cursor, int size);
+
     void deletePost(UUID postId, UUID userId);
 
     void restorePost(UUID postId, UUID userId);
@@ -36,6 +41,8 @@ public interface IPostService {
 
     Page<PostResponse> getSavedPosts(UUID userId, Pageable pageable);
 
+    CursorSlice<PostResponse> getSavedPosts(UUID userId, String cursor, int size);
+
     RepostResponse repost(UUID postId, UUID userId, String quote);
 
     void undoRepost(UUID postId, UUID userId);
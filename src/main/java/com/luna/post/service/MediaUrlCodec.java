@@ -0,0 +1,50 @@
+package com.luna.post.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.luna.common.exception.BadRequestException;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Converts post media URL lists to and from the JSON stored in posts.image_urls / video_urls.
+ * Reader and writer are resolved once instead of on every call.
+ */
+@Component
+public class MediaUrlCodec {
+
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+
+    public MediaUrlCodec(ObjectMapper objectMapper) {
+        this.reader = objectMapper.readerFor(new TypeReference<List<String>>() {});
+        this.writer = objectMapper.writerFor(new TypeReference<List<String>>() {});
+    }
+
+    public String toJson(List<String> urls) {
+        if (urls == null || urls.isEmpty()) {
+            return null;
+        }
+        try {
+            return writer.writeValueAsString(urls);
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException("Failed to process image URLs");
+        }
+    }
+
+    public List<String> fromJson(String json) {
+        if (json == null || json.isEmpty()) {
+            return Collections.emptyList();
+        }
+        try {
+            return reader.readValue(json);
+        } catch (JsonProcessingException e) {
+            return Collections.emptyList();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.luna.post.service;
+
+import com.luna.common.dto.Cursor;
+import com.luna.common.dto.CursorSlice;
+import com.luna.post.dto.PostResponse;
+import com.luna.post.entity.Post;
+import com.luna.post.repository.PostLikeRepository;
+import com.luna.post.repository.PostRepository;
+import com.luna.post.repository.RepostRepository;
+import com.luna.post.repository.SavedPostRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Builds PostResponse objects for a whole page of posts at once.
+ * Counts come from the denormalized post columns (plus unflushed deltas) and current-user
+ * flags are resolved with one IN (:postIds) query each, so the number of queries per page
+ * stays constant regardless of page size.
+ */
+@Component
+@RequiredArgsConstructor
+public class PostResponseAssembler {
+
+    private final PostRepository postRepository;
+    private final PostLikeRepository postLikeRepository;
+    private final SavedPostRepository savedPostRepository;
+    private final RepostRepository repostRepository;
+    private final PostCounterService postCounterService;
+    private final MediaUrlCodec mediaUrlCodec;
+
+    public PostResponse toResponse(Post post, UUID currentUserId) {
+        return toResponses(List.of(post), currentUserId).get(0);
+    }
+
+    public Page<PostResponse> toResponsePage(Page<Post> posts, UUID currentUserId) {
+        return new PageImpl<>(toResponses(posts.getContent(), currentUserId), posts.getPageable(), posts.getTotalElements());
+    }
+
+    /**
+     * Build a keyset slice from post ids fetched with limit size + 1, newest first.
+     * The cursor points at the last returned post's (createdAt, id).
+     */
+    public CursorSlice<PostResponse> toCursorSlice(List<UUID> postIds, int size, UUID currentUserId) {
+        boolean hasNext = postIds.size() > size;
+        List<Post> posts = loadInOrder(hasNext ? postIds.subList(0, size) : postIds);
+
+        String nextCursor = null;
+        if (hasNext && !posts.isEmpty()) {
+            Post last = posts.get(posts.size() - 1);
+            nextCursor = new Cursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return CursorSlice.<PostResponse>builder()
+            .content(toResponses(posts, currentUserId))
+            .size(size)
+            .hasNext(hasNext)
+            .nextCursor(nextCursor)
+            .build();
+    }
+
+    /**
+     * Load posts (with authors) in the order of the given ids, skipping deleted ones: ids can
+     * come from caches, timelines or saves that outlive a delete
+     */
+    public List<Post> loadInOrder(List<UUID> postIds) {
+        if (postIds.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, Post> byId = new HashMap<>();
+        for (Post post : postRepository.findAllWithAuthorByIdIn(postIds)) {
+            byId.put(post.getId(), post);
+        }
+
+        List<Post> posts = new ArrayList<>(postIds.size());
+        for (UUID id : postIds) {
+            Post post = byId.get(id);
+            if (post != null && !post.isDeleted()) {
+                posts.add(post);
+            }
+        }
+        return posts;
+    }
+
+    /**
+     * Map posts to responses, preserving input order
+     */
+    public List<PostResponse> toResponses(List<Post> posts, UUID currentUserId) {
+        if (posts.isEmpty()) {
+            return List.of();
+        }
+
+        Set<UUID> postIds = new LinkedHashSet<>();
+        for (Post post : posts) {
+            postIds.add(post.getId());
+        }
+
+        Set<UUID> liked = Set.of();
+        Set<UUID> saved = Set.of();
+        Set<UUID> reposted = Set.of();
+        if (currentUserId != null) {
+            liked = new HashSet<>(postLikeRepository.findLikedPostIds(currentUserId, postIds));
+            saved = new HashSet<>(savedPostRepository.findSavedPostIds(currentUserId, postIds));
+            reposted = new HashSet<>(repostRepository.findRepostedPostIds(currentUserId, postIds));
+        }
+
+        List<PostResponse> responses = new ArrayList<>(posts.size());
+        for (Post post : posts) {
+            UUID id = post.getId();
+            responses.add(PostResponse.builder()
+                .id(id)
+                .title(post.getTitle())
+                .content(post.getContent())
+                .imageUrls(mediaUrlCodec.fromJson(post.getImageUrls()))
+                .videoUrls(mediaUrlCodec.fromJson(post.getVideoUrls()))
+                .author(PostResponse.AuthorInfo.builder()
+                    .id(post.getAuthor().getId())
+                    .username(post.getAuthor().getUsernameField())
+                    .email(post.getAuthor().getEmail())
+                    .profileImageUrl(post.getAuthor().getProfileImageUrl())
+                    .build())
+                .likeCount(count(post.getLikeCount(), id, PostCounterService.Counter.LIKES))
+                .commentCount(count(post.getCommentCount(), id, PostCounterService.Counter.COMMENTS))
+                .repostCount(count(post.getRepostCount(), id, PostCounterService.Counter.REPOSTS))
+                .saveCount(count(post.getSaveCount(), id, PostCounterService.Counter.SAVES))
+                .isLikedByCurrentUser(liked.contains(id))
+                .isSavedByCurrentUser(saved.contains(id))
+                .isRepostedByCurrentUser(reposted.contains(id))
+                .createdAt(post.getCreatedAt())
+                .updatedAt(post.getUpdatedAt())
+                .build());
+        }
+        return responses;
+    }
+
+    private long count(Long stored, UUID postId, PostCounterService.Counter counter) {
+        long value = stored == null ? 0 : stored;
+        return Math.max(0, value + postCounterService.pendingDelta(postId, counter));
+    }
+}
@@ -0,0 +1,117 @@
+package com.luna.post.service;
+
+import com.luna.common.dto.CursorSlice;
+import com.luna.common.dto.ScoreCursor;
+import com.luna.common.exception.BadRequestException;
+import com.luna.post.dto.PostResponse;
+import com.luna.post.entity.Post;
+import com.luna.post.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Full-text search over post title and content.
+ *
+ * Matches come from the posts.search_vector GIN index (live posts only) and are ranked by
+ * relevance * relevance-weight + ln(likes + 1) + created_at / recency-seconds: every
+ * recency-seconds of age costs as much as a factor of e in likes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PostSearchService {
+
+    private static final int MAX_QUERY_LENGTH = 200;
+    private static final UUID NIL_UUID = new UUID(0, 0);
+
+    @Value("${app.search.relevance-weight:4.0}")
+    private double relevanceWeight;
+
+    @Value("${app.search.recency-seconds:86400}")
+    private double recencySeconds;
+
+    @Value("${app.search.backfill-chunk-size:1000}")
+    private int backfillChunkSize;
+
+    @Value("${app.search.backfill-pause-ms:100}")
+    private long backfillPauseMs;
+
+    private final PostRepository postRepository;
+    private final PostResponseAssembler postResponseAssembler;
+
+    @Transactional(readOnly = true)
+    public CursorSlice<PostResponse> search(String query, UUID currentUserId, String cursor, int size) {
+        if (query == null || query.isBlank()) {
+            throw new BadRequestException("Search query is required");
+        }
+        if (query.length() > MAX_QUERY_LENGTH) {
+            throw new BadRequestException("Search query is too long");
+        }
+
+        ScoreCursor after = ScoreCursor.decode(cursor);
+        List<Object[]> rows = postRepository.searchIdsBefore(query.trim(), relevanceWeight, recencySeconds,
+            after.score(), after.id(), size + 1);
+
+        boolean hasNext = rows.size() > size;
+        List<Object[]> page = hasNext ? rows.subList(0, size) : rows;
+        List<UUID> postIds = new ArrayList<>(page.size());
+        for (Object[] row : page) {
+            postIds.add((UUID) row[0]);
+        }
+        List<Post> posts = postResponseAssembler.loadInOrder(postIds);
+
+        String nextCursor = null;
+        if (hasNext) {
+            Object[] last = page.get(page.size() - 1);
+            nextCursor = new ScoreCursor(((Number) last[1]).doubleValue(), (UUID) last[0]).encode();
+        }
+
+        return CursorSlice.<PostResponse>builder()
+            .content(postResponseAssembler.toResponses(posts, currentUserId))
+            .size(size)
+            .hasNext(hasNext)
+            .nextCursor(nextCursor)
+            .build();
+    }
+
+    /**
+     * Fill search vectors for posts written before full-text search existed. Walks posts by id
+     * in chunks, each its own short UPDATE, pausing between chunks to leave room for live
+     * traffic. Safe to rerun or to run on several instances: filled rows are skipped.
+     * Returns the number of posts updated.
+     */
+    public long backfill() {
+        long start = System.currentTimeMillis();
+        long updated = 0;
+        UUID afterId = NIL_UUID;
+        while (true) {
+            List<UUID> ids = postRepository.findIdsAfter(afterId, backfillChunkSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            updated += postRepository.fillSearchVectors(ids);
+            afterId = ids.get(ids.size() - 1);
+            if (ids.size() < backfillChunkSize) {
+                break;
+            }
+            try {
+                Thread.sleep(backfillPauseMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Post search backfill interrupted after {} post(s)", updated);
+                return updated;
+            }
+        }
+        if (updated > 0) {
+            log.info("Backfilled search vectors for {} post(s) in {} ms", updated, System.currentTimeMillis() - start);
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,350 @@
+package com.luna.post.service;
+
+import com.luna.post.entity.Post;
+import com.luna.post.event.PostCreatedEvent;
+import com.luna.post.event.PostDeletedEvent;
+import com.luna.post.event.PostRestoredEvent;
+import com.luna.post.repository.PostRepository;
+import com.luna.user.event.UserFollowedEvent;
+import com.luna.user.event.UserUnfollowedEvent;
+import com.luna.user.repository.UserFollowRepository;
+import com.luna.user.service.ProfileStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Home timelines materialized in Redis (fan-out-on-write).
+ *
+ * Each active user has a sorted set of post ids scored by creation time, capped at max-size.
+ * New posts are pushed into the timelines of followers whose timeline is warm; cold timelines
+ * are rebuilt from the database on the next read. Authors above the celebrity threshold are
+ * never fanned out — their posts are merged in at read time instead (fan-out-on-read).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TimelineService {
+
+    private static final String TIMELINE_KEY = "timeline:home:%s";
+    private static final String TIMELINE_WARM_KEY = "timeline:home:%s:warm";
+    private static final String CELEBRITIES_KEY = "timeline:celebrities";
+    private static final int FAN_OUT_BATCH_SIZE = 500;
+    private static final UUID NIL_UUID = new UUID(0, 0);
+
+    @Value("${app.timeline.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.timeline.max-size:800}")
+    private int maxSize;
+
+    @Value("${app.timeline.celebrity-follower-threshold:10000}")
+    private long celebrityFollowerThreshold;
+
+    @Value("${app.timeline.ttl-days:7}")
+    private long ttlDays;
+
+    private final PostRepository postRepository;
+    private final UserFollowRepository userFollowRepository;
+    private final ProfileStatsService profileStatsService;
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * Read a page of the home timeline, falling back to the database query
+     * when the store is disabled, unavailable, or the page is beyond the cached window.
+     */
+    public Page<Post> getTimelinePosts(UUID userId, Pageable pageable) {
+        long end = pageable.getOffset() + pageable.getPageSize();
+        if (!enabled || end > maxSize) {
+            return postRepository.findTimelinePosts(userId, pageable);
+        }
+
+        try {
+            ensureWarm(userId);
+
+            String key = timelineKey(userId);
+            Set<ZSetOperations.TypedTuple<String>> pushed =
+                redisTemplate.opsForZSet().reverseRangeWithScores(key, 0, end - 1);
+            Long pushedTotal = redisTemplate.opsForZSet().zCard(key);
+
+            Map<UUID, Double> merged = new HashMap<>();
+            if (pushed != null) {
+                for (ZSetOperations.TypedTuple<String> tuple : pushed) {
+                    if (tuple.getValue() != null && tuple.getScore() != null) {
+                        merged.put(UUID.fromString(tuple.getValue()), tuple.getScore());
+                    }
+                }
+            }
+
+            // Fan-out-on-read for followed celebrity accounts
+            long pulledTotal = 0;
+            List<UUID> celebrities = getFollowedCelebrities(userId);
+            if (!celebrities.isEmpty()) {
+                List<Object[]> pulled = postRepository.findRecentPostRefsByAuthors(
+                    celebrities, PageRequest.of(0, (int) end));
+                for (Object[] row : pulled) {
+                    merged.putIfAbsent((UUID) row[0], toScore((LocalDateTime) row[1]));
+                }
+                pulledTotal = postRepository.countByAuthorIds(celebrities);
+            }
+
+            List<UUID> pageIds = merged.entrySet().stream()
+                .sorted(Map.Entry.<UUID, Double>comparingByValue().reversed())
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .map(Map.Entry::getKey)
+                .toList();
+
+            long total = (pushedTotal != null ? pushedTotal : 0) + pulledTotal;
+            return new PageImpl<>(loadInOrder(pageIds), pageable, total);
+        } catch (Exception e) {
+            log.warn("Timeline store unavailable for user {}, falling back to database", userId, e);
+            return postRepository.findTimelinePosts(userId, pageable);
+        }
+    }
+
+    @Async
+    @TransactionalEventListener
+    public void onPostCreated(PostCreatedEvent event) {
+        pushToFollowers(event.authorId(), event.postId(), event.createdAt());
+    }
+
+    @Async
+    @TransactionalEventListener
+    public void onPostRestored(PostRestoredEvent event) {
+        pushToFollowers(event.authorId(), event.postId(), event.createdAt());
+    }
+
+    @Async
+    @TransactionalEventListener
+    public void onPostDeleted(PostDeletedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            String member = event.postId().toString();
+            forEachWarmFollower(event.authorId(), (conn, key) -> conn.zRem(key, member));
+        } catch (Exception e) {
+            log.error("Failed to remove post {} from follower timelines", event.postId(), e);
+        }
+    }
+
+    @Async
+    @TransactionalEventListener
+    public void onUserFollowed(UserFollowedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            // Cold timelines are rebuilt in full on the next read
+            if (!Boolean.TRUE.equals(redisTemplate.hasKey(warmKey(event.followerId())))) {
+                return;
+            }
+            if (isCelebrity(event.followingId())) {
+                return;
+            }
+
+            List<Object[]> refs = postRepository.findRecentPostRefsByAuthor(
+                event.followingId(), PageRequest.of(0, maxSize));
+            if (refs.isEmpty()) {
+                return;
+            }
+
+            String key = timelineKey(event.followerId());
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                for (Object[] row : refs) {
+                    conn.zAdd(key, toScore((LocalDateTime) row[1]), row[0].toString());
+                }
+                conn.zRemRange(key, 0, -(maxSize + 1));
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Failed to backfill timeline: {} -> {}", event.followerId(), event.followingId(), e);
+        }
+    }
+
+    @Async
+    @TransactionalEventListener
+    public void onUserUnfollowed(UserUnfollowedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (!Boolean.TRUE.equals(redisTemplate.hasKey(warmKey(event.followerId())))) {
+                return;
+            }
+
+            List<Object[]> refs = postRepository.findRecentPostRefsByAuthor(
+                event.followingId(), PageRequest.of(0, maxSize));
+            if (refs.isEmpty()) {
+                return;
+            }
+
+            String[] members = refs.stream().map(row -> row[0].toString()).toArray(String[]::new);
+            redisTemplate.opsForZSet().remove(timelineKey(event.followerId()), (Object[]) members);
+        } catch (Exception e) {
+            log.error("Failed to prune timeline: {} -> {}", event.followerId(), event.followingId(), e);
+        }
+    }
+
+    private void pushToFollowers(UUID authorId, UUID postId, LocalDateTime createdAt) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (isCelebrity(authorId)) {
+                log.debug("Skipping fan-out for celebrity author {}", authorId);
+                return;
+            }
+
+            String member = postId.toString();
+            double score = toScore(createdAt);
+            forEachWarmFollower(authorId, (conn, key) -> {
+                conn.zAdd(key, score, member);
+                conn.zRemRange(key, 0, -(maxSize + 1));
+            });
+        } catch (Exception e) {
+            log.error("Failed to fan out post {} from author {}", postId, authorId, e);
+        }
+    }
+
+    /**
+     * Apply a write to the timeline of every follower that currently has a warm timeline,
+     * one pipelined round trip per batch of followers.
+     */
+    private void forEachWarmFollower(UUID authorId, BiConsumer<StringRedisConnection, String> operation) {
+        int page = 0;
+        List<UUID> followerIds;
+        do {
+            followerIds = userFollowRepository.findFollowerIds(authorId, PageRequest.of(page++, FAN_OUT_BATCH_SIZE));
+            if (followerIds.isEmpty()) {
+                break;
+            }
+
+            List<UUID> batch = followerIds;
+            List<Object> warm = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                for (UUID followerId : batch) {
+                    conn.exists(warmKey(followerId));
+                }
+                return null;
+            });
+
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                for (int i = 0; i < batch.size(); i++) {
+                    if (Boolean.TRUE.equals(warm.get(i))) {
+                        operation.accept(conn, timelineKey(batch.get(i)));
+                    }
+                }
+                return null;
+            });
+        } while (followerIds.size() == FAN_OUT_BATCH_SIZE);
+    }
+
+    private void ensureWarm(UUID userId) {
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(warmKey(userId)))) {
+            return;
+        }
+
+        List<UUID> excluded = new ArrayList<>(getCelebrities());
+        if (excluded.isEmpty()) {
+            excluded.add(NIL_UUID); // nil UUID placeholder to avoid empty IN clause
+        }
+
+        List<Object[]> refs = postRepository.findTimelinePostRefs(userId, excluded, PageRequest.of(0, maxSize));
+        String key = timelineKey(userId);
+        long ttlSeconds = ttlDays * 24 * 60 * 60;
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            conn.del(key);
+            for (Object[] row : refs) {
+                conn.zAdd(key, toScore((LocalDateTime) row[1]), row[0].toString());
+            }
+            conn.expire(key, ttlSeconds);
+            conn.setEx(warmKey(userId), ttlSeconds, "1");
+            return null;
+        });
+        log.debug("Rebuilt timeline for user {} with {} post(s)", userId, refs.size());
+    }
+
+    /**
+     * Celebrity membership is sticky: once an author crosses the threshold their posts are
+     * excluded from rebuilt timelines, so they must keep being merged in at read time.
+     */
+    private boolean isCelebrity(UUID authorId) {
+        if (Boolean.TRUE.equals(redisTemplate.opsForSet().isMember(CELEBRITIES_KEY, authorId.toString()))) {
+            return true;
+        }
+        if (profileStatsService.getFollowerCount(authorId) >= celebrityFollowerThreshold) {
+            redisTemplate.opsForSet().add(CELEBRITIES_KEY, authorId.toString());
+            return true;
+        }
+        return false;
+    }
+
+    private List<UUID> getCelebrities() {
+        Set<String> members = redisTemplate.opsForSet().members(CELEBRITIES_KEY);
+        if (members == null || members.isEmpty()) {
+            return List.of();
+        }
+        return members.stream().map(UUID::fromString).toList();
+    }
+
+    private List<UUID> getFollowedCelebrities(UUID userId) {
+        List<UUID> celebrities = getCelebrities();
+        if (celebrities.isEmpty()) {
+            return List.of();
+        }
+        return userFollowRepository.findFollowingIdsIn(userId, celebrities);
+    }
+
+    private List<Post> loadInOrder(List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, Post> byId = new HashMap<>();
+        for (Post post : postRepository.findAllWithAuthorByIdIn(ids)) {
+            byId.put(post.getId(), post);
+        }
+
+        List<Post> posts = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            Post post = byId.get(id);
+            if (post != null && !post.isDeleted()) {
+                posts.add(post);
+            }
+        }
+        return posts;
+    }
+
+    private double toScore(LocalDateTime createdAt) {
+        return createdAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private String timelineKey(UUID userId) {
+        return String.format(TIMELINE_KEY, userId);
+    }
+
+    private String warmKey(UUID userId) {
+        return String.format(TIMELINE_WARM_KEY, userId);
+    }
+}
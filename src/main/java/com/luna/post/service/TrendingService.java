@@ -0,0 +1,330 @@
+package com.luna.post.service;
+
+import com.luna.post.dto.HashtagResponse;
+import com.luna.post.entity.Hashtag;
+import com.luna.post.event.PostDeletedEvent;
+import com.luna.post.event.PostRestoredEvent;
+import com.luna.post.repository.HashtagRepository;
+import com.luna.post.repository.PostHashtagRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming trending-hashtag counts.
+ *
+ * Each hashtag use bumps a per-minute and a per-hour Redis hash (field = hashtag id), and
+ * deleting a post decrements the same buckets. A periodic refresh folds the last 60 minute
+ * buckets and 168 hour buckets into 1h/24h/7d counts plus an exponentially decayed score,
+ * and stores the top entries so reads are a single ZREVRANGE + HMGET.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TrendingService {
+
+    private static final String MINUTE_BUCKET_KEY = "trending:minute:%d";
+    private static final String HOUR_BUCKET_KEY = "trending:hour:%d";
+    private static final String SCORES_KEY = "trending:scores";
+    private static final String DETAILS_KEY = "trending:details";
+    private static final String SEEDED_KEY = "trending:seeded";
+    private static final String COUNTING_SINCE_KEY = "trending:counting-since";
+    private static final Duration SEED_CLAIM_TTL = Duration.ofMinutes(10);
+    private static final int MINUTES_PER_HOUR = 60;
+    private static final int HOURS_PER_WEEK = 168;
+    private static final long MINUTE_BUCKET_TTL_SECONDS = TimeUnit.HOURS.toSeconds(2);
+    private static final long HOUR_BUCKET_TTL_SECONDS = TimeUnit.DAYS.toSeconds(8);
+
+    @Value("${app.trending.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.trending.max-size:100}")
+    private int maxSize;
+
+    @Value("${app.trending.half-life-hours:6}")
+    private double halfLifeHours;
+
+    private final HashtagRepository hashtagRepository;
+    private final PostHashtagRepository postHashtagRepository;
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * Top trending hashtags from the last refresh, or empty if nothing has been computed yet
+     */
+    public Optional<List<HashtagResponse>> getTrending(int limit) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        try {
+            Set<String> ids = redisTemplate.opsForZSet().reverseRange(SCORES_KEY, 0, limit - 1);
+            if (ids == null || ids.isEmpty()) {
+                return Optional.empty();
+            }
+
+            List<String> keys = new ArrayList<>(ids);
+            List<String> details = redisTemplate.<String, String>opsForHash().multiGet(DETAILS_KEY, keys);
+
+            List<HashtagResponse> trending = new ArrayList<>(keys.size());
+            for (int i = 0; i < keys.size(); i++) {
+                String detail = details.get(i);
+                if (detail == null) {
+                    continue;
+                }
+                // name|lastHour|lastDay|lastWeek
+                String[] parts = detail.split("\\|");
+                trending.add(HashtagResponse.builder()
+                    .id(UUID.fromString(keys.get(i)))
+                    .name(parts[0])
+                    .postCountLastHour(Long.parseLong(parts[1]))
+                    .postCount(Long.parseLong(parts[2]))
+                    .postCountLastWeek(Long.parseLong(parts[3]))
+                    .build());
+            }
+            return Optional.of(trending);
+        } catch (Exception e) {
+            log.warn("Failed to read trending hashtags", e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Count (delta = 1) or uncount (delta = -1) a post's hashtags in the buckets for its creation time.
+     * Inside a transaction the update is applied only after commit.
+     */
+    public void recordPost(Collection<UUID> hashtagIds, LocalDateTime createdAt, int delta) {
+        if (!enabled || hashtagIds.isEmpty() || createdAt == null) {
+            return;
+        }
+        List<UUID> ids = List.copyOf(hashtagIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump(ids, createdAt, delta);
+                }
+            });
+        } else {
+            bump(ids, createdAt, delta);
+        }
+    }
+
+    @Async
+    @TransactionalEventListener
+    public void onPostDeleted(PostDeletedEvent event) {
+        recordPost(postHashtagRepository.findHashtagIdsByPostId(event.postId()), event.createdAt(), -1);
+    }
+
+    @Async
+    @TransactionalEventListener
+    public void onPostRestored(PostRestoredEvent event) {
+        recordPost(postHashtagRepository.findHashtagIdsByPostId(event.postId()), event.createdAt(), 1);
+    }
+
+    /**
+     * Fold the buckets into windowed counts and a decayed score, and publish the top entries.
+     * Returns the number of hashtags published.
+     */
+    public int refresh() {
+        if (!enabled) {
+            return 0;
+        }
+        seedIfNeeded();
+
+        long nowMillis = System.currentTimeMillis();
+        long currentMinute = TimeUnit.MILLISECONDS.toMinutes(nowMillis);
+        long currentHour = TimeUnit.MILLISECONDS.toHours(nowMillis);
+
+        List<Object> minuteBuckets = readBuckets(MINUTE_BUCKET_KEY, currentMinute, MINUTES_PER_HOUR);
+        List<Object> hourBuckets = readBuckets(HOUR_BUCKET_KEY, currentHour, HOURS_PER_WEEK);
+
+        Map<String, TagStats> stats = new HashMap<>();
+        for (Object bucket : minuteBuckets) {
+            forEachCount(bucket, (id, count) -> stats.computeIfAbsent(id, k -> new TagStats()).lastHour += count);
+        }
+        double nowHours = nowMillis / 3_600_000.0;
+        for (int age = 0; age < hourBuckets.size(); age++) {
+            long hour = currentHour - age;
+            // Weight each bucket by the age of its midpoint
+            double weight = Math.pow(0.5, Math.max(0, nowHours - (hour + 0.5)) / halfLifeHours);
+            boolean inLastDay = age < 24;
+            forEachCount(hourBuckets.get(age), (id, count) -> {
+                TagStats tag = stats.computeIfAbsent(id, k -> new TagStats());
+                tag.lastWeek += count;
+                if (inLastDay) {
+                    tag.lastDay += count;
+                }
+                tag.score += count * weight;
+            });
+        }
+
+        List<Map.Entry<String, TagStats>> top = stats.entrySet().stream()
+            .filter(e -> e.getValue().score > 0)
+            .sorted((a, b) -> Double.compare(b.getValue().score, a.getValue().score))
+            .limit(maxSize)
+            .toList();
+
+        Map<UUID, String> names = new HashMap<>();
+        if (!top.isEmpty()) {
+            List<UUID> ids = top.stream().map(e -> UUID.fromString(e.getKey())).toList();
+            for (Hashtag hashtag : hashtagRepository.findAllById(ids)) {
+                names.put(hashtag.getId(), hashtag.getName());
+            }
+        }
+
+        String scoresTmp = SCORES_KEY + ":tmp";
+        String detailsTmp = DETAILS_KEY + ":tmp";
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            conn.del(scoresTmp, detailsTmp);
+            Map<String, String> details = new HashMap<>();
+            for (Map.Entry<String, TagStats> entry : top) {
+                String name = names.get(UUID.fromString(entry.getKey()));
+                if (name == null) {
+                    continue;
+                }
+                TagStats tag = entry.getValue();
+                conn.zAdd(scoresTmp, tag.score, entry.getKey());
+                details.put(entry.getKey(), name + "|" + tag.lastHour + "|" + tag.lastDay + "|" + tag.lastWeek);
+            }
+            if (details.isEmpty()) {
+                conn.del(SCORES_KEY, DETAILS_KEY);
+            } else {
+                conn.hMSet(detailsTmp, details);
+                conn.rename(detailsTmp, DETAILS_KEY);
+                conn.rename(scoresTmp, SCORES_KEY);
+            }
+            return null;
+        });
+        return top.size();
+    }
+
+    private void bump(List<UUID> hashtagIds, LocalDateTime createdAt, int delta) {
+        try {
+            long createdMillis = createdAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            long ageMillis = System.currentTimeMillis() - createdMillis;
+            boolean inMinuteWindow = ageMillis < TimeUnit.HOURS.toMillis(1);
+            boolean inHourWindow = ageMillis < TimeUnit.DAYS.toMillis(7);
+            if (!inHourWindow) {
+                return;
+            }
+
+            String minuteKey = String.format(MINUTE_BUCKET_KEY, TimeUnit.MILLISECONDS.toMinutes(createdMillis));
+            String hourKey = String.format(HOUR_BUCKET_KEY, TimeUnit.MILLISECONDS.toHours(createdMillis));
+            String now = Long.toString(System.currentTimeMillis());
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                // Posts from before the first bump into an empty Redis are left to the seed
+                conn.setNX(COUNTING_SINCE_KEY, now);
+                for (UUID id : hashtagIds) {
+                    if (inMinuteWindow) {
+                        conn.hIncrBy(minuteKey, id.toString(), delta);
+                    }
+                    conn.hIncrBy(hourKey, id.toString(), delta);
+                }
+                if (inMinuteWindow) {
+                    conn.expire(minuteKey, MINUTE_BUCKET_TTL_SECONDS);
+                }
+                conn.expire(hourKey, HOUR_BUCKET_TTL_SECONDS);
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("Failed to update trending counters for {} hashtag(s)", hashtagIds.size(), e);
+        }
+    }
+
+    /**
+     * Backfill the buckets from the database the first time the engine runs against an empty Redis.
+     * Only posts created before the first bump are counted, since later ones were bumped already.
+     * The seeded flag is a short-lived claim while seeding runs, made permanent once it succeeds.
+     */
+    private void seedIfNeeded() {
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(SEEDED_KEY, "1", SEED_CLAIM_TTL))) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().setIfAbsent(COUNTING_SINCE_KEY, Long.toString(System.currentTimeMillis()));
+            long countingSince = Long.parseLong(redisTemplate.opsForValue().get(COUNTING_SINCE_KEY));
+            LocalDateTime until = LocalDateTime.ofInstant(Instant.ofEpochMilli(countingSince), ZoneId.systemDefault());
+            LocalDateTime now = LocalDateTime.now();
+            List<Object[]> hourly = postHashtagRepository.countUsesByBucket("hour", now.minusDays(7), until);
+            List<Object[]> minutely = postHashtagRepository.countUsesByBucket("minute", now.minusHours(1), until);
+
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                seedBuckets(conn, hourly, HOUR_BUCKET_KEY, TimeUnit.MILLISECONDS::toHours, HOUR_BUCKET_TTL_SECONDS);
+                seedBuckets(conn, minutely, MINUTE_BUCKET_KEY, TimeUnit.MILLISECONDS::toMinutes, MINUTE_BUCKET_TTL_SECONDS);
+                return null;
+            });
+            redisTemplate.persist(SEEDED_KEY);
+            log.info("Seeded trending buckets from {} hourly and {} minute row(s)", hourly.size(), minutely.size());
+        } catch (RuntimeException e) {
+            // Let the next refresh try again
+            redisTemplate.delete(SEEDED_KEY);
+            throw e;
+        }
+    }
+
+    private void seedBuckets(StringRedisConnection conn, List<Object[]> rows, String keyFormat,
+                             java.util.function.LongUnaryOperator toBucket, long ttlSeconds) {
+        Set<String> keys = new HashSet<>();
+        for (Object[] row : rows) {
+            // Depending on the Hibernate version, timestamps come back as Timestamp or LocalDateTime
+            LocalDateTime bucket = row[1] instanceof Timestamp timestamp
+                ? timestamp.toLocalDateTime()
+                : (LocalDateTime) row[1];
+            long millis = bucket.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            String key = String.format(keyFormat, toBucket.applyAsLong(millis));
+            conn.hIncrBy(key, row[0].toString(), ((Number) row[2]).longValue());
+            keys.add(key);
+        }
+        for (String key : keys) {
+            conn.expire(key, ttlSeconds);
+        }
+    }
+
+    private List<Object> readBuckets(String keyFormat, long current, int count) {
+        return redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (int age = 0; age < count; age++) {
+                conn.hGetAll(String.format(keyFormat, current - age));
+            }
+            return null;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private void forEachCount(Object bucket, java.util.function.ObjLongConsumer<String> consumer) {
+        if (!(bucket instanceof Map<?, ?> counts)) {
+            return;
+        }
+        ((Map<String, String>) counts).forEach((id, count) -> {
+            long value = Long.parseLong(count);
+            if (value > 0) {
+                consumer.accept(id, value);
+            }
+        });
+    }
+
+    private static final class TagStats {
+        long lastHour;
+        long lastDay;
+        long lastWeek;
+        double score;
+    }
+}
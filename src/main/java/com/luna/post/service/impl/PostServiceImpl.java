@@ -1,15 +1,14 @@
 package com.luna.post.service.impl;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.luna.activity.entity.ActivityType;
 import com.luna.activity.service.IActivityService;
-import com.luna.comment.repository.CommentRepository;
+import com.luna.common.dto.Cursor;
+import com.luna.common.dto.CursorSlice;
 import com.luna.common.exception.BadRequestException;
 import com.luna.common.exception.ResourceNotFoundException;
 import com.luna.common.exception.UnauthorizedException;
-import com.luna.common.service.CloudinaryService;
+import com.luna.common.repository.MediaDeletionRepository;
+import com.luna.common.service.MediaService;
 import com.luna.post.dto.CreatePostRequest;
 import com.luna.post.dto.PostResponse;
 import com.luna.post.dto.RepostResponse;
@@ -17,23 +16,33 @@ import com.luna.post.entity.Post;
 import com.luna.post.entity.PostLike;
 import com.luna.post.entity.Repost;
 import com.luna.post.entity.SavedPost;
+import com.luna.post.event.PostCreatedEvent;
+import com.luna.post.event.PostDeletedEvent;
+import com.luna.post.event.PostRestoredEvent;
 import com.luna.post.repository.PostLikeRepository;
 import com.luna.post.repository.PostRepository;
 import com.luna.post.repository.RepostRepository;
 import com.luna.post.repository.SavedPostRepository;
 import com.luna.post.service.HashtagService;
 import com.luna.post.service.IPostService;
+import com.luna.post.service.MediaUrlCodec;
+import com.luna.post.service.PostCounterService;
+import com.luna.post.service.PostResponseAssembler;
+import com.luna.post.service.TimelineService;
 import com.luna.user.entity.User;
 import com.luna.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 
@@ -41,22 +50,33 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class PostServiceImpl implements IPostService {
 
+    private static final int PURGE_CHUNK_SIZE = 500;
+
     private final PostRepository postRepository;
     private final PostLikeRepository postLikeRepository;
     private final SavedPostRepository savedPostRepository;
     private final RepostRepository repostRepository;
-    private final CommentRepository commentRepository;
     private final UserRepository userRepository;
     private final IActivityService activityService;
-    private final CloudinaryService cloudinaryService;
+    private final MediaService mediaService;
     private final HashtagService hashtagService;
-    private final ObjectMapper objectMapper;
-
+    private final PostResponseAssembler postResponseAssembler;
+    private final TimelineService timelineService;
+    private final PostCounterService postCounterService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MediaUrlCodec mediaUrlCodec;
+    private final TransactionTemplate transactionTemplate;
+    private final MediaDeletionRepository mediaDeletionRepository;
+
+    /**
+     * Media is uploaded before the transaction opens, so the DB connection is only held for the
+     * inserts. If the transaction fails, the uploaded files are deleted again.
+     */
     @Override
-    @Transactional
     public PostResponse createPost(CreatePostRequest request, UUID userId, List<MultipartFile> images, List<MultipartFile> videos) {
-        User user = userRepository.findById(userId)
-            .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found");
+        }
 
         boolean hasImages = images != null && images.stream().anyMatch(f -> f != null && !f.isEmpty());
         boolean hasVideos = videos != null && videos.stream().anyMatch(f -> f != null && !f.isEmpty());
@@ -65,6 +85,22 @@ public class PostServiceImpl implements IPostService {
             throw new BadRequestException("Cannot upload both images and videos in the same post");
         }
 
+        List<String> imageUrls = hasImages ? mediaService.uploadImages(images, "posts") : List.of();
+        List<String> videoUrls = hasVideos ? mediaService.uploadVideos(videos, "posts") : List.of();
+
+        try {
+            return transactionTemplate.execute(status -> savePost(request, userId, imageUrls, videoUrls));
+        } catch (RuntimeException e) {
+            mediaService.deleteAll(imageUrls);
+            mediaService.deleteAll(videoUrls);
+            throw e;
+        }
+    }
+
+    private PostResponse savePost(CreatePostRequest request, UUID userId, List<String> imageUrls, List<String> videoUrls) {
+        User user = userRepository.findById(userId)
+            .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+
         Post post = Post.builder()
             .title(request.getTitle())
             .content(request.getContent())
@@ -72,28 +108,11 @@ public class PostServiceImpl implements IPostService {
             .likeCount(0L)
             .build();
 
-        if (hasImages) {
-            List<String> imageUrls = new ArrayList<>();
-            for (MultipartFile image : images) {
-                if (image != null && !image.isEmpty()) {
-                    imageUrls.add(cloudinaryService.uploadImage(image, "posts"));
-                }
-            }
-            if (!imageUrls.isEmpty()) {
-                post.setImageUrls(toJson(imageUrls));
-            }
+        if (!imageUrls.isEmpty()) {
+            post.setImageUrls(mediaUrlCodec.toJson(imageUrls));
         }
-
-        if (hasVideos) {
-            List<String> videoUrls = new ArrayList<>();
-            for (MultipartFile video : videos) {
-                if (video != null && !video.isEmpty()) {
-                    videoUrls.add(cloudinaryService.uploadVideo(video, "posts"));
-                }
-            }
-            if (!videoUrls.isEmpty()) {
-                post.setVideoUrls(toJson(videoUrls));
-            }
+        if (!videoUrls.isEmpty()) {
+            post.setVideoUrls(mediaUrlCodec.toJson(videoUrls));
         }
 
         post = postRepository.save(post);
@@ -105,7 +124,10 @@ public class PostServiceImpl implements IPostService {
         activityService.logActivity(userId, ActivityType.POST_CREATE, "POST",
             post.getId(), null, null);
 
-        return mapToPostResponse(post, userId, false);
+        // Fan out to follower timelines once the post is committed
+        eventPublisher.publishEvent(new PostCreatedEvent(post.getId(), userId, post.getCreatedAt()));
+
+        return postResponseAssembler.toResponse(post, userId);
     }
 
     @Override
@@ -118,10 +140,7 @@ public class PostServiceImpl implements IPostService {
             throw new ResourceNotFoundException("Post not found");
         }
 
-        boolean isLiked = currentUserId != null &&
-            postLikeRepository.existsByPostIdAndUserId(postId, currentUserId);
-
-        return mapToPostResponse(post, currentUserId, isLiked);
+        return postResponseAssembler.toResponse(post, currentUserId);
     }
 
     @Override
@@ -133,22 +152,37 @@ public class PostServiceImpl implements IPostService {
 
         Page<Post> posts = postRepository.findByAuthorIdOrderByCreatedAtDesc(userId, pageable);
 
-        return posts.map(post -> {
-            boolean isLiked = currentUserId != null &&
-                postLikeRepository.existsByPostIdAndUserId(post.getId(), currentUserId);
-            return mapToPostResponse(post, currentUserId, isLiked);
-        });
+        return postResponseAssembler.toResponsePage(posts, currentUserId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSlice<PostResponse> getUserPosts(UUID userId, UUID currentUserId, String cursor, int size) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found");
+        }
+
+        Cursor after = Cursor.decode(cursor);
+        List<UUID> postIds = postRepository.findIdsByAuthorBefore(userId, after.timestamp(), after.id(), size + 1);
+
+        return postResponseAssembler.toCursorSlice(postIds, size, currentUserId);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<PostResponse> getTimelinePosts(UUID userId, Pageable pageable) {
-        Page<Post> posts = postRepository.findTimelinePosts(userId, pageable);
+        Page<Post> posts = timelineService.getTimelinePosts(userId, pageable);
+
+        return postResponseAssembler.toResponsePage(posts, userId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSlice<PostResponse> getTimelinePosts(UUID userId, String cursor, int size) {
+        Cursor after = Cursor.decode(cursor);
+        List<UUID> postIds = postRepository.findTimelineIdsBefore(userId, after.timestamp(), after.id(), size + 1);
 
-        return posts.map(post -> {
-            boolean isLiked = postLikeRepository.existsByPostIdAndUserId(post.getId(), userId);
-            return mapToPostResponse(post, userId, isLiked);
-        });
+        return postResponseAssembler.toCursorSlice(postIds, size, userId);
     }
 
     @Override
@@ -171,6 +205,8 @@ public class PostServiceImpl implements IPostService {
         // Log activity
         activityService.logActivity(userId, ActivityType.POST_DELETE, "POST",
             postId, null, null);
+
+        eventPublisher.publishEvent(new PostDeletedEvent(postId, userId, post.getCreatedAt()));
     }
 
     @Override
@@ -193,56 +229,52 @@ public class PostServiceImpl implements IPostService {
 
         post.setDeletedAt(null);
         postRepository.save(post);
+
+        eventPublisher.publishEvent(new PostRestoredEvent(postId, userId, post.getCreatedAt()));
     }
 
+    /**
+     * Purges posts soft-deleted more than 30 days ago, one chunk per short transaction.
+     * Media URLs are queued in media_deletion_queue and removed from storage by MediaDeletionWorker.
+     */
     @Override
-    @Transactional
     public int cleanupOldDeletedPosts() {
-        java.time.LocalDateTime cutoffDate = java.time.LocalDateTime.now().minusDays(30);
-        java.util.List<Post> postsToDelete = postRepository.findPostsToHardDelete(cutoffDate);
-
-        if (postsToDelete.isEmpty()) {
-            return 0;
-        }
-
-        int batchSize = 100;
+        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(30);
+        UUID afterId = new UUID(0, 0);
         int totalDeleted = 0;
 
-        for (int i = 0; i < postsToDelete.size(); i += batchSize) {
-            int end = Math.min(i + batchSize, postsToDelete.size());
-            java.util.List<Post> batch = postsToDelete.subList(i, end);
-
-            for (Post post : batch) {
-                deletePostMedia(post);
+        while (true) {
+            List<UUID> postIds = postRepository.findIdsToHardDelete(cutoffDate, afterId, PURGE_CHUNK_SIZE);
+            if (postIds.isEmpty()) {
+                break;
             }
+            afterId = postIds.get(postIds.size() - 1);
+
+            Integer deleted = transactionTemplate.execute(status -> purgePosts(postIds, cutoffDate));
+            totalDeleted += deleted == null ? 0 : deleted;
 
-            postRepository.deleteAll(batch);
-            totalDeleted += batch.size();
+            if (postIds.size() < PURGE_CHUNK_SIZE) {
+                break;
+            }
         }
 
         return totalDeleted;
     }
 
-    private void deletePostMedia(Post post) {
-        List<String> imageUrls = fromJson(post.getImageUrls());
-        if (imageUrls != null) {
-            for (String imageUrl : imageUrls) {
-                String publicId = cloudinaryService.extractPublicId(imageUrl);
-                if (publicId != null) {
-                    cloudinaryService.deleteFile(publicId);
-                }
-            }
+    private int purgePosts(List<UUID> candidateIds, LocalDateTime cutoffDate) {
+        List<UUID> postIds = postRepository.lockIdsToHardDelete(candidateIds, cutoffDate);
+        if (postIds.isEmpty()) {
+            return 0;
         }
 
-        List<String> videoUrls = fromJson(post.getVideoUrls());
-        if (videoUrls != null) {
-            for (String videoUrl : videoUrls) {
-                String publicId = cloudinaryService.extractPublicId(videoUrl);
-                if (publicId != null) {
-                    cloudinaryService.deleteFile(publicId);
-                }
-            }
-        }
+        mediaDeletionRepository.enqueueForPosts(postIds);
+
+        postRepository.deleteLikesByPostIds(postIds);
+        postRepository.deleteSavesByPostIds(postIds);
+        postRepository.deleteRepostsByPostIds(postIds);
+        postRepository.deleteHashtagsByPostIds(postIds);
+        postRepository.deleteCommentsByPostIds(postIds);
+        return postRepository.deleteByIds(postIds);
     }
 
     @Override
@@ -269,14 +301,14 @@ public class PostServiceImpl implements IPostService {
 
         postLikeRepository.save(postLike);
 
+        postCounterService.increment(postId, PostCounterService.Counter.LIKES);
         post.setLikeCount(post.getLikeCount() + 1);
-        post = postRepository.save(post);
 
         // Log activity
         activityService.logActivity(userId, ActivityType.LIKE, "POST",
             postId, post.getAuthor().getId(), null);
 
-        return mapToPostResponse(post, userId, true);
+        return postResponseAssembler.toResponse(post, userId);
     }
 
     @Override
@@ -295,14 +327,14 @@ public class PostServiceImpl implements IPostService {
 
         postLikeRepository.deleteByPostIdAndUserId(postId, userId);
 
+        postCounterService.decrement(postId, PostCounterService.Counter.LIKES);
         post.setLikeCount(Math.max(0, post.getLikeCount() - 1));
-        post = postRepository.save(post);
 
         // Log activity
         activityService.logActivity(userId, ActivityType.UNLIKE, "POST",
             postId, post.getAuthor().getId(), null);
 
-        return mapToPostResponse(post, userId, false);
+        return postResponseAssembler.toResponse(post, userId);
     }
 
     @Override
@@ -329,8 +361,10 @@ public class PostServiceImpl implements IPostService {
 
         savedPostRepository.save(savedPost);
 
-        boolean isLiked = postLikeRepository.existsByPostIdAndUserId(postId, userId);
-        return mapToPostResponse(post, userId, isLiked);
+        postCounterService.increment(postId, PostCounterService.Counter.SAVES);
+        post.setSaveCount(post.getSaveCount() + 1);
+
+        return postResponseAssembler.toResponse(post, userId);
     }
 
     @Override
@@ -345,8 +379,10 @@ public class PostServiceImpl implements IPostService {
 
         savedPostRepository.deleteByUserIdAndPostId(userId, postId);
 
-        boolean isLiked = postLikeRepository.existsByPostIdAndUserId(postId, userId);
-        return mapToPostResponse(post, userId, isLiked);
+        postCounterService.decrement(postId, PostCounterService.Counter.SAVES);
+        post.setSaveCount(Math.max(0, post.getSaveCount() - 1));
+
+        return postResponseAssembler.toResponse(post, userId);
     }
 
     @Override
@@ -354,39 +390,40 @@ public class PostServiceImpl implements IPostService {
     public Page<PostResponse> getSavedPosts(UUID userId, Pageable pageable) {
         Page<SavedPost> savedPosts = savedPostRepository.findByUserIdOrderBySavedAtDesc(userId, pageable);
 
-        return savedPosts.map(saved -> {
-            Post post = saved.getPost();
-            boolean isLiked = postLikeRepository.existsByPostIdAndUserId(post.getId(), userId);
-            return mapToPostResponse(post, userId, isLiked);
-        });
+        List<Post> posts = savedPosts.getContent().stream()
+            .map(SavedPost::getPost)
+            .toList();
+        List<PostResponse> responses = postResponseAssembler.toResponses(posts, userId);
+
+        return new PageImpl<>(responses, savedPosts.getPageable(), savedPosts.getTotalElements());
     }
 
-    private PostResponse mapToPostResponse(Post post, UUID userId, boolean isLiked) {
-        long commentCount = commentRepository.countByPostId(post.getId());
-        long repostCount = repostRepository.countByOriginalPostId(post.getId());
-        boolean isSaved = userId != null && savedPostRepository.existsByUserIdAndPostId(userId, post.getId());
-        boolean isReposted = userId != null && repostRepository.existsByUserIdAndOriginalPostId(userId, post.getId());
-
-        return PostResponse.builder()
-            .id(post.getId())
-            .title(post.getTitle())
-            .content(post.getContent())
-            .imageUrls(fromJson(post.getImageUrls()))
-            .videoUrls(fromJson(post.getVideoUrls()))
-            .author(PostResponse.AuthorInfo.builder()
-                .id(post.getAuthor().getId())
-                .username(post.getAuthor().getUsernameField())
-                .email(post.getAuthor().getEmail())
-                .profileImageUrl(post.getAuthor().getProfileImageUrl())
-                .build())
-            .likeCount(post.getLikeCount())
-            .commentCount(commentCount)
-            .repostCount(repostCount)
-            .isLikedByCurrentUser(isLiked)
-            .isSavedByCurrentUser(isSaved)
-            .isRepostedByCurrentUser(isReposted)
-            .createdAt(post.getCreatedAt())
-            .updatedAt(post.getUpdatedAt())
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSlice<PostResponse> getSavedPosts(UUID userId, String cursor, int size) {
+        Cursor after = Cursor.decode(cursor);
+        List<Object[]> rows = savedPostRepository.findSavedRefsBefore(userId, after.timestamp(), after.id(), size + 1);
+
+        boolean hasNext = rows.size() > size;
+        if (hasNext) {
+            rows = rows.subList(0, size);
+        }
+
+        List<UUID> postIds = rows.stream().map(row -> (UUID) row[0]).toList();
+        List<Post> posts = postResponseAssembler.loadInOrder(postIds);
+
+        // Saved feed is ordered by save time, so the cursor is built from the saved_posts row
+        String nextCursor = null;
+        if (hasNext) {
+            Object[] last = rows.get(rows.size() - 1);
+            nextCursor = Cursor.fromRow(last[1], last[2]).encode();
+        }
+
+        return CursorSlice.<PostResponse>builder()
+            .content(postResponseAssembler.toResponses(posts, userId))
+            .size(size)
+            .hasNext(hasNext)
+            .nextCursor(nextCursor)
             .build();
     }
 
@@ -419,11 +456,14 @@ public class PostServiceImpl implements IPostService {
 
         repost = repostRepository.save(repost);
 
+        postCounterService.increment(postId, PostCounterService.Counter.REPOSTS);
+        post.setRepostCount(post.getRepostCount() + 1);
+
         // Log activity
         activityService.logActivity(userId, ActivityType.LIKE, "REPOST",
             postId, post.getAuthor().getId(), null);
 
-        return mapToRepostResponse(repost, userId);
+        return mapToRepostResponse(repost, postResponseAssembler.toResponse(post, userId));
     }
 
     @Override
@@ -434,6 +474,8 @@ public class PostServiceImpl implements IPostService {
         }
 
         repostRepository.deleteByUserIdAndOriginalPostId(userId, postId);
+
+        postCounterService.decrement(postId, PostCounterService.Counter.REPOSTS);
     }
 
     @Override
@@ -441,14 +483,20 @@ public class PostServiceImpl implements IPostService {
     public Page<RepostResponse> getUserReposts(UUID userId, UUID currentUserId, Pageable pageable) {
         Page<Repost> reposts = repostRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable);
 
-        return reposts.map(repost -> mapToRepostResponse(repost, currentUserId));
-    }
+        List<Post> originalPosts = reposts.getContent().stream()
+            .map(Repost::getOriginalPost)
+            .toList();
+        List<PostResponse> originals = postResponseAssembler.toResponses(originalPosts, currentUserId);
 
-    private RepostResponse mapToRepostResponse(Repost repost, UUID currentUserId) {
-        Post originalPost = repost.getOriginalPost();
-        boolean isLiked = currentUserId != null &&
-            postLikeRepository.existsByPostIdAndUserId(originalPost.getId(), currentUserId);
+        List<RepostResponse> responses = new ArrayList<>(originals.size());
+        for (int i = 0; i < originals.size(); i++) {
+            responses.add(mapToRepostResponse(reposts.getContent().get(i), originals.get(i)));
+        }
+
+        return new PageImpl<>(responses, reposts.getPageable(), reposts.getTotalElements());
+    }
 
+    private RepostResponse mapToRepostResponse(Repost repost, PostResponse originalPost) {
         return RepostResponse.builder()
             .id(repost.getId())
             .quote(repost.getQuote())
@@ -457,30 +505,8 @@ public class PostServiceImpl implements IPostService {
                 .username(repost.getUser().getUsernameField())
                 .profileImageUrl(repost.getUser().getProfileImageUrl())
                 .build())
-            .originalPost(mapToPostResponse(originalPost, currentUserId, isLiked))
+            .originalPost(originalPost)
             .createdAt(repost.getCreatedAt())
             .build();
     }
-
-    private String toJson(List<String> list) {
-        if (list == null || list.isEmpty()) {
-            return null;
-        }
-        try {
-            return objectMapper.writeValueAsString(list);
-        } catch (JsonProcessingException e) {
-            throw new BadRequestException("Failed to process image URLs");
-        }
-    }
-
-    private List<String> fromJson(String json) {
-        if (json == null || json.isEmpty()) {
-            return Collections.emptyList();
-        }
-        try {
-            return objectMapper.readValue(json, new TypeReference<List<String>>() {});
-        } catch (JsonProcessingException e) {
-            return Collections.emptyList();
-        }
-    }
 }
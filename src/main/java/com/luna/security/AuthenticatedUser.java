@@ -0,0 +1,20 @@
+package com.luna.security;
+
+import com.luna.user.entity.Role;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Lightweight principal built from access token claims, used when stateless JWT mode is on.
+ * Carries only what request handling needs, so no User entity is loaded per request.
+ */
+public record AuthenticatedUser(UUID id, String email, Role role) {
+
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority(role.name()));
+    }
+}
@@ -2,6 +2,8 @@ package com.luna.security;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.luna.common.dto.ApiResponse;
+import com.luna.user.entity.Role;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.security.SignatureException;
@@ -10,8 +12,10 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -21,7 +25,9 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
 
 @Component
 @RequiredArgsConstructor
@@ -29,6 +35,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final UserStatusCache userStatusCache;
+
+    @Value("${app.security.stateless-jwt:true}")
+    private boolean statelessJwt;
 
     // Public endpoints that should skip JWT validation
     private static final List<String> PUBLIC_PATHS = Arrays.asList(
@@ -54,7 +64,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String username;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -64,19 +73,32 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         jwt = authHeader.substring(7);
 
         try {
-            username = jwtService.extractUsername(jwt);
+            // Parse once; signature and expiration are verified here
+            Claims claims = jwtService.parseClaims(jwt);
+            String username = claims.getSubject();
 
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+                String userId = claims.get(JwtService.CLAIM_USER_ID, String.class);
 
-                if (jwtService.isTokenValid(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities()
+                if (statelessJwt && userId != null) {
+                    AuthenticatedUser principal = new AuthenticatedUser(
+                            UUID.fromString(userId),
+                            username,
+                            Role.valueOf(claims.get(JwtService.CLAIM_ROLE, String.class))
                     );
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                    if (!Boolean.TRUE.equals(claims.get(JwtService.CLAIM_ACTIVE, Boolean.class))
+                            || !userStatusCache.isActive(principal.id())) {
+                        handleJwtException(response, "ACCOUNT_DISABLED", "Account is disabled");
+                        return;
+                    }
+                    authenticate(request, principal, principal.getAuthorities());
+                } else {
+                    // Tokens issued before the id claim existed, or stateless mode turned off
+                    UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+
+                    if (jwtService.isTokenValid(claims, userDetails)) {
+                        authenticate(request, userDetails, userDetails.getAuthorities());
+                    }
                 }
             }
             filterChain.doFilter(request, response);
@@ -91,6 +113,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
     }
 
+    private void authenticate(HttpServletRequest request, Object principal,
+                              Collection<? extends GrantedAuthority> authorities) {
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                principal,
+                null,
+                authorities
+        );
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
+
     private boolean isPublicPath(String requestPath) {
         return PUBLIC_PATHS.stream().anyMatch(requestPath::startsWith);
     }
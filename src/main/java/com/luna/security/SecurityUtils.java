@@ -15,7 +15,7 @@ public class SecurityUtils {
      * Extract the user ID from the authenticated user
      * @param authentication the authentication object from the security context
      * @return the user ID
-     * @throws IllegalStateException if the principal is not a User object
+     * @throws IllegalStateException if the principal is neither a User nor an AuthenticatedUser
      */
     public static UUID getUserId(Authentication authentication) {
         if (authentication == null || authentication.getPrincipal() == null) {
@@ -23,6 +23,9 @@ public class SecurityUtils {
         }
 
         Object principal = authentication.getPrincipal();
+        if (principal instanceof AuthenticatedUser authenticatedUser) {
+            return authenticatedUser.id();
+        }
         if (!(principal instanceof User)) {
             throw new IllegalStateException("Principal is not a User object");
         }
@@ -31,7 +34,8 @@ public class SecurityUtils {
     }
 
     /**
-     * Extract the User object from the authenticated user
+     * Extract the User object from the authenticated user.
+     * Only available when stateless JWT mode is off; otherwise load the user by getUserId.
      * @param authentication the authentication object from the security context
      * @return the User object
      * @throws IllegalStateException if the principal is not a User object
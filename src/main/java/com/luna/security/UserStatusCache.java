@@ -0,0 +1,63 @@
+package com.luna.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.luna.user.event.UserProfileChangedEvent;
+import com.luna.user.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Short-lived cache of whether a user may still authenticate.
+ *
+ * Stateless tokens carry an "active" claim that is only as fresh as the token, so each
+ * request also checks this cache. Entries expire after a few seconds, which bounds how long
+ * a deactivated or deleted user keeps access while costing at most one primary-key lookup
+ * per user per TTL. Status changes made on this instance (verification, activation) evict the
+ * entry once they commit; other instances pick them up when it expires.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserStatusCache {
+
+    @Value("${app.security.user-status-cache-ttl-seconds:10}")
+    private long ttlSeconds;
+
+    @Value("${app.security.user-status-cache-max-size:100000}")
+    private long maxSize;
+
+    private final UserRepository userRepository;
+
+    private Cache<UUID, Boolean> cache;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .build();
+    }
+
+    public boolean isActive(UUID userId) {
+        // Missing users (deleted accounts) are treated as inactive
+        return cache.get(userId, id -> userRepository.findIsActiveById(id).orElse(false));
+    }
+
+    /**
+     * Drop the cached state so the next request re-reads it, e.g. right after deactivation
+     */
+    public void evict(UUID userId) {
+        cache.invalidate(userId);
+    }
+
+    @TransactionalEventListener
+    public void onProfileChanged(UserProfileChangedEvent event) {
+        evict(event.userId());
+    }
+}
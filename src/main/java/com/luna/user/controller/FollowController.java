@@ -2,6 +2,8 @@ package com.luna.user.controller;
 
 import com.luna.common.dto.ApiResponse;
 import com.luna.common.dto.PagedResponse;
+import com.luna.common.exception.BadRequestException;
+import com.luna.common.service.RateLimitService;
 import com.luna.security.SecurityUtils;
 import com.luna.user.dto.UserProfileResponse;
 import com.luna.user.service.IFollowService;
@@ -27,6 +29,7 @@ import java.util.UUID;
 public class FollowController {
 
     private final IFollowService followService;
+    private final RateLimitService rateLimitService;
 
     @PostMapping("/{userId}/follow")
     @Operation(summary = "Follow a user")
@@ -34,6 +37,9 @@ public class FollowController {
             @PathVariable("userId") UUID userId,
             Authentication authentication) {
         UUID currentUserId = SecurityUtils.getUserId(authentication);
+        if (!rateLimitService.tryConsume("follow", currentUserId.toString())) {
+            throw new BadRequestException("Too many requests. Please try again later.");
+        }
         followService.followUser(currentUserId, userId);
         return ResponseEntity.ok(ApiResponse.success("Successfully followed user"));
     }
@@ -4,6 +4,7 @@ import com.luna.common.dto.ApiResponse;
 import com.luna.common.dto.PagedResponse;
 import com.luna.security.SecurityUtils;
 import com.luna.user.dto.UpdateProfileRequest;
+import com.luna.user.dto.UserAutocompleteResponse;
 import com.luna.user.dto.UserProfileResponse;
 import com.luna.user.dto.UserSuggestionResponse;
 import com.luna.user.service.IUserService;
@@ -95,4 +96,16 @@ public class UserController {
         Page<UserProfileResponse> results = userService.searchUsers(q, pageable);
         return ResponseEntity.ok(ApiResponse.success(PagedResponse.of(results)));
     }
+
+    @GetMapping("/autocomplete")
+    @Operation(summary = "Autocomplete users by prefix",
+               description = "Type-ahead over usernames and display names, most-followed first. Served from memory.")
+    public ResponseEntity<ApiResponse<List<UserAutocompleteResponse>>> autocompleteUsers(
+            @Parameter(description = "Prefix of a username or display-name word", example = "jo")
+            @RequestParam(name = "q") String q,
+            @Parameter(description = "Number of results (max: 20)", example = "10")
+            @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        List<UserAutocompleteResponse> results = userService.autocompleteUsers(q, Math.max(1, Math.min(limit, 20)));
+        return ResponseEntity.ok(ApiResponse.success(results));
+    }
 }
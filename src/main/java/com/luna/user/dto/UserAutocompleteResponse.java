@@ -0,0 +1,20 @@
+package com.luna.user.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserAutocompleteResponse {
+    private UUID id;
+    private String username;
+    private String displayName;
+    private String profileImageUrl;
+    private Long followerCount;
+}
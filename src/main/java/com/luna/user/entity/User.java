@@ -69,6 +69,11 @@ public class User implements UserDetails {
     @Column(name = "bio", length = 500)
     private String bio;
 
+    // Only changed with atomic UPDATEs on follow/unfollow, never by saving the entity
+    @Column(name = "follower_count", updatable = false)
+    @Builder.Default
+    private Long followerCount = 0L;
+
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
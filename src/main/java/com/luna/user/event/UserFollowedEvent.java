@@ -0,0 +1,8 @@
+package com.luna.user.event;
+
+import java.util.UUID;
+
+public record UserFollowedEvent(
+        UUID followerId,
+        UUID followingId
+) {}
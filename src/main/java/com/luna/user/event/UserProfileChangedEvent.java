@@ -0,0 +1,10 @@
+package com.luna.user.event;
+
+import java.util.UUID;
+
+/**
+ * A user's searchable fields (username, display name, image, active/verified) may have changed
+ */
+public record UserProfileChangedEvent(
+        UUID userId
+) {}
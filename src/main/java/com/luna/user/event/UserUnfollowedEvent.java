@@ -0,0 +1,8 @@
+package com.luna.user.event;
+
+import java.util.UUID;
+
+public record UserUnfollowedEvent(
+        UUID followerId,
+        UUID followingId
+) {}
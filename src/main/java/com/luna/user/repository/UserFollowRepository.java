@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -26,6 +27,29 @@ public interface UserFollowRepository extends JpaRepository<UserFollow, UUID> {
 
     long countByFollowingId(UUID followingId);
 
+    // Follower ids of a user, used for timeline fan-out in fixed-size batches
+    @Query("SELECT uf.follower.id FROM UserFollow uf WHERE uf.following.id = :userId ORDER BY uf.createdAt ASC, uf.id ASC")
+    List<UUID> findFollowerIds(@Param("userId") UUID userId, Pageable pageable);
+
+    // Accounts a user follows, newest first, used to refresh suggestions after a follow
+    @Query("SELECT uf.following.id FROM UserFollow uf WHERE uf.follower.id = :userId ORDER BY uf.createdAt DESC")
+    List<UUID> findFollowingIds(@Param("userId") UUID userId, Pageable pageable);
+
+    // Keyset scan over all follow edges for the suggestion graph, returns [followerId, followingId] rows
+    @Query(value = """
+        SELECT uf.follower_id, uf.following_id FROM user_follows uf
+        WHERE (uf.follower_id, uf.following_id) > (:afterFollowerId, :afterFollowingId)
+        ORDER BY uf.follower_id, uf.following_id
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<Object[]> findEdgesAfter(@Param("afterFollowerId") UUID afterFollowerId,
+                                  @Param("afterFollowingId") UUID afterFollowingId,
+                                  @Param("limit") int limit);
+
+    // Which of the given users the specified user follows
+    @Query("SELECT uf.following.id FROM UserFollow uf WHERE uf.follower.id = :userId AND uf.following.id IN :candidateIds")
+    List<UUID> findFollowingIdsIn(@Param("userId") UUID userId, @Param("candidateIds") Collection<UUID> candidateIds);
+
     // Count mutual followers between current user's following and a suggested user
     @Query("""
         SELECT COUNT(DISTINCT uf.follower.id) FROM UserFollow uf
@@ -6,6 +6,7 @@ import com.luna.user.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -22,29 +23,63 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     boolean existsByUsername(String username);
     Optional<User> findByAuthProviderAndProviderId(AuthProvider authProvider, String providerId);
 
-    // Search users by username (case-insensitive, partial match)
-    @Query("""
-        SELECT u FROM User u
-        WHERE u.isActive = true AND u.emailVerified = true
-        AND LOWER(u.username) LIKE LOWER(CONCAT('%', :query, '%'))
+    // Active flag only, used by stateless JWT authentication to cut off deactivated users
+    @Query("SELECT u.isActive FROM User u WHERE u.id = :id")
+    Optional<Boolean> findIsActiveById(@Param("id") UUID id);
+
+    // All users for the suggestion graph, returns [id, countryCode, suggestable] rows
+    @Query(value = "SELECT u.id, u.country_code, (u.is_active AND u.email_verified) FROM users u", nativeQuery = true)
+    List<Object[]> findSuggestionGraphUsers();
+
+    // Search users by username or display name (case-insensitive, partial match).
+    // :query is lower-cased and LIKE-escaped by the caller; the LOWER(...) LIKE predicates use the
+    // trigram GIN indexes, ranking reads the denormalized follower_count
+    @Query(value = """
+        SELECT u.* FROM users u
+        WHERE u.is_active = true AND u.email_verified = true
+          AND (LOWER(u.username) LIKE '%' || :query || '%'
+               OR LOWER(u.display_name) LIKE '%' || :query || '%')
         ORDER BY
-            CASE WHEN LOWER(u.username) = LOWER(:query) THEN 0
-                 WHEN LOWER(u.username) LIKE LOWER(CONCAT(:query, '%')) THEN 1
+            CASE WHEN LOWER(u.username) = :query THEN 0
+                 WHEN LOWER(u.username) LIKE :query || '%' THEN 1
                  ELSE 2 END,
-            (SELECT COUNT(f) FROM UserFollow f WHERE f.following.id = u.id) DESC
-        """)
+            u.follower_count DESC,
+            u.id
+        """,
+        countQuery = """
+        SELECT COUNT(*) FROM users u
+        WHERE u.is_active = true AND u.email_verified = true
+          AND (LOWER(u.username) LIKE '%' || :query || '%'
+               OR LOWER(u.display_name) LIKE '%' || :query || '%')
+        """,
+        nativeQuery = true)
     Page<User> searchByUsername(@Param("query") String query, Pageable pageable);
 
+    // Active verified users for the in-memory autocomplete index, keyset by id.
+    // Returns [id, username, displayName, profileImageUrl, followerCount] rows
+    @Query(value = """
+        SELECT u.id, u.username, u.display_name, u.profile_image_url, u.follower_count
+        FROM users u
+        WHERE u.is_active = true AND u.email_verified = true AND u.id > :afterId
+        ORDER BY u.id
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<Object[]> findSearchIndexUsersAfter(@Param("afterId") UUID afterId, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "UPDATE users SET follower_count = GREATEST(follower_count + :delta, 0) WHERE id = :userId", nativeQuery = true)
+    int addFollowerCount(@Param("userId") UUID userId, @Param("delta") long delta);
+
     // Get popular users (most followers) excluding current user
     @Query("""
         SELECT u FROM User u
         WHERE u.id != :userId AND u.isActive = true AND u.emailVerified = true
         AND u.id NOT IN (SELECT uf.following.id FROM UserFollow uf WHERE uf.follower.id = :userId)
-        ORDER BY (SELECT COUNT(f) FROM UserFollow f WHERE f.following.id = u.id) DESC
+        ORDER BY u.followerCount DESC
         """)
     List<User> findPopularUsersExcluding(@Param("userId") UUID userId, Pageable pageable);
 
-    // Graph-based suggestions: 2nd-degree connections with mutual count and follower count computed inline
+    // Graph-based suggestions: 2nd-degree connections with mutual count and denormalized follower count
     @Query(value = """
         SELECT u.id AS id,
                u.username AS username,
@@ -52,7 +87,7 @@ public interface UserRepository extends JpaRepository<User, UUID> {
                u.profile_image_url AS profileImageUrl,
                u.country_code AS countryCode,
                COUNT(DISTINCT uf.follower_id) AS mutualConnectionCount,
-               (SELECT COUNT(*) FROM user_follows f WHERE f.following_id = u.id) AS followerCount
+               u.follower_count AS followerCount
         FROM users u
         JOIN user_follows uf ON uf.following_id = u.id
             AND uf.follower_id IN (SELECT uf2.following_id FROM user_follows uf2 WHERE uf2.follower_id = :userId)
@@ -60,7 +95,7 @@ public interface UserRepository extends JpaRepository<User, UUID> {
           AND u.is_active = true
           AND u.email_verified = true
           AND u.id NOT IN (SELECT uf3.following_id FROM user_follows uf3 WHERE uf3.follower_id = :userId)
-        GROUP BY u.id, u.username, u.display_name, u.profile_image_url, u.country_code
+        GROUP BY u.id, u.username, u.display_name, u.profile_image_url, u.country_code, u.follower_count
         ORDER BY mutualConnectionCount DESC, followerCount DESC
         LIMIT :limit
         """, nativeQuery = true)
@@ -74,7 +109,7 @@ public interface UserRepository extends JpaRepository<User, UUID> {
                u.profile_image_url AS profileImageUrl,
                u.country_code AS countryCode,
                0 AS mutualConnectionCount,
-               (SELECT COUNT(*) FROM user_follows f WHERE f.following_id = u.id) AS followerCount
+               u.follower_count AS followerCount
         FROM users u
         WHERE u.country_code = :countryCode
           AND u.id != :userId
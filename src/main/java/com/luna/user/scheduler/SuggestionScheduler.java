@@ -0,0 +1,37 @@
+package com.luna.user.scheduler;
+
+import com.luna.user.service.SuggestionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(
+    value = "app.scheduling.enabled",
+    havingValue = "true",
+    matchIfMissing = true
+)
+public class SuggestionScheduler {
+
+    private final SuggestionService suggestionService;
+
+    /**
+     * Recomputes friend suggestions for all users from the current follow graph.
+     * Runs every 6 hours by default.
+     */
+    @Scheduled(cron = "${app.suggestions.rebuild-cron:0 0 */6 * * *}")
+    public void rebuildSuggestions() {
+        log.info("Starting scheduled suggestion rebuild");
+
+        try {
+            suggestionService.rebuild();
+        } catch (Exception e) {
+            log.error("Error during suggestion rebuild", e);
+            // Don't rethrow - let scheduler continue running
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.luna.user.scheduler;
+
+import com.luna.user.service.UserSearchIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(
+    value = "app.scheduling.enabled",
+    havingValue = "true",
+    matchIfMissing = true
+)
+public class UserSearchIndexScheduler {
+
+    private final UserSearchIndex userSearchIndex;
+
+    /**
+     * Rebuilds the autocomplete index so follower counts and changes made on other instances
+     * are picked up. Runs hourly by default.
+     */
+    @Scheduled(cron = "${app.user-search.rebuild-cron:0 15 * * * *}")
+    public void rebuildUserSearchIndex() {
+        try {
+            userSearchIndex.rebuild();
+        } catch (Exception e) {
+            log.error("Error during user search index rebuild", e);
+            // Don't rethrow - let scheduler continue running
+        }
+    }
+}
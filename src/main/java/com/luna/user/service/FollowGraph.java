@@ -0,0 +1,161 @@
+package com.luna.user.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immutable snapshot of user_follows in compressed sparse row form.
+ *
+ * Users are remapped to dense int ids so the whole graph is a handful of primitive arrays:
+ * the accounts followed by user u are following[offsets[u] .. offsets[u + 1]).
+ * A graph with E follows costs roughly 4 * E bytes plus a small per-user overhead.
+ */
+final class FollowGraph {
+
+    private final UUID[] userIds;
+    private final String[] countryCodes;
+    private final boolean[] suggestable;
+    private final int[] offsets;
+    private final int[] following;
+    private final int[] followerCounts;
+
+    private FollowGraph(UUID[] userIds, String[] countryCodes, boolean[] suggestable,
+                        int[] offsets, int[] following, int[] followerCounts) {
+        this.userIds = userIds;
+        this.countryCodes = countryCodes;
+        this.suggestable = suggestable;
+        this.offsets = offsets;
+        this.following = following;
+        this.followerCounts = followerCounts;
+    }
+
+    int size() {
+        return userIds.length;
+    }
+
+    UUID userId(int index) {
+        return userIds[index];
+    }
+
+    String countryCode(int index) {
+        return countryCodes[index];
+    }
+
+    /**
+     * Whether the user may be suggested to others (active and email verified)
+     */
+    boolean isSuggestable(int index) {
+        return suggestable[index];
+    }
+
+    int followerCount(int index) {
+        return followerCounts[index];
+    }
+
+    int followingStart(int index) {
+        return offsets[index];
+    }
+
+    int followingEnd(int index) {
+        return offsets[index + 1];
+    }
+
+    int followingAt(int position) {
+        return following[position];
+    }
+
+    boolean follows(int follower, int followee) {
+        return Arrays.binarySearch(following, offsets[follower], offsets[follower + 1], followee) >= 0;
+    }
+
+    static Builder builder(int expectedUsers) {
+        return new Builder(expectedUsers);
+    }
+
+    static final class Builder {
+
+        private final Map<UUID, Integer> indexByUserId;
+        private UUID[] userIds;
+        private String[] countryCodes;
+        private boolean[] suggestable;
+        private int userCount;
+
+        private int[] edgeSources = new int[1024];
+        private int[] edgeTargets = new int[1024];
+        private int edgeCount;
+
+        private Builder(int expectedUsers) {
+            int capacity = Math.max(expectedUsers, 16);
+            indexByUserId = new HashMap<>(capacity * 4 / 3 + 1);
+            userIds = new UUID[capacity];
+            countryCodes = new String[capacity];
+            suggestable = new boolean[capacity];
+        }
+
+        Builder addUser(UUID userId, String countryCode, boolean canBeSuggested) {
+            if (userCount == userIds.length) {
+                int capacity = userCount * 2;
+                userIds = Arrays.copyOf(userIds, capacity);
+                countryCodes = Arrays.copyOf(countryCodes, capacity);
+                suggestable = Arrays.copyOf(suggestable, capacity);
+            }
+            indexByUserId.put(userId, userCount);
+            userIds[userCount] = userId;
+            countryCodes[userCount] = countryCode;
+            suggestable[userCount] = canBeSuggested;
+            userCount++;
+            return this;
+        }
+
+        /**
+         * Add a follow edge. Edges that reference unknown users are ignored.
+         */
+        Builder addFollow(UUID followerId, UUID followingId) {
+            Integer source = indexByUserId.get(followerId);
+            Integer target = indexByUserId.get(followingId);
+            if (source == null || target == null) {
+                return this;
+            }
+            if (edgeCount == edgeSources.length) {
+                edgeSources = Arrays.copyOf(edgeSources, edgeCount * 2);
+                edgeTargets = Arrays.copyOf(edgeTargets, edgeCount * 2);
+            }
+            edgeSources[edgeCount] = source;
+            edgeTargets[edgeCount] = target;
+            edgeCount++;
+            return this;
+        }
+
+        FollowGraph build() {
+            int n = userCount;
+            int[] offsets = new int[n + 1];
+            int[] followerCounts = new int[n];
+            for (int i = 0; i < edgeCount; i++) {
+                offsets[edgeSources[i] + 1]++;
+                followerCounts[edgeTargets[i]]++;
+            }
+            for (int u = 0; u < n; u++) {
+                offsets[u + 1] += offsets[u];
+            }
+
+            // Counting sort of edges by source
+            int[] following = new int[edgeCount];
+            int[] cursor = Arrays.copyOf(offsets, n);
+            for (int i = 0; i < edgeCount; i++) {
+                following[cursor[edgeSources[i]]++] = edgeTargets[i];
+            }
+            // Sorted rows allow follows() to binary search
+            for (int u = 0; u < n; u++) {
+                Arrays.sort(following, offsets[u], offsets[u + 1]);
+            }
+
+            edgeSources = null;
+            edgeTargets = null;
+
+            return new FollowGraph(Arrays.copyOf(userIds, n), Arrays.copyOf(countryCodes, n),
+                Arrays.copyOf(suggestable, n), offsets, following, followerCounts);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.luna.user.service;
 
 import com.luna.user.dto.UpdateProfileRequest;
+import com.luna.user.dto.UserAutocompleteResponse;
 import com.luna.user.dto.UserProfileResponse;
 import com.luna.user.dto.UserSuggestionResponse;
 import org.springframework.data.domain.Page;
@@ -22,4 +23,6 @@ public interface IUserService extends UserDetailsService {
     List<UserSuggestionResponse> getSuggestedUsers(UUID userId, int limit);
 
     Page<UserProfileResponse> searchUsers(String query, Pageable pageable);
+
+    List<UserAutocompleteResponse> autocompleteUsers(String prefix, int limit);
 }
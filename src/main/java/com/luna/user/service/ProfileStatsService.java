@@ -0,0 +1,183 @@
+package com.luna.user.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.luna.post.event.PostCreatedEvent;
+import com.luna.post.event.PostDeletedEvent;
+import com.luna.post.event.PostRestoredEvent;
+import com.luna.post.repository.PostRepository;
+import com.luna.user.event.UserFollowedEvent;
+import com.luna.user.event.UserUnfollowedEvent;
+import com.luna.user.repository.UserFollowRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Follower, following and post counts per user.
+ *
+ * Stats live in a Redis hash per user (shared by all instances) with a short-lived JVM
+ * near-cache in front of it. Follow/unfollow and post create/delete/restore adjust the Redis
+ * hash incrementally after commit; a missing or partial hash is recomputed from the database,
+ * and the TTL bounds how long any drift from a failed increment can survive.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProfileStatsService {
+
+    private static final String STATS_KEY = "profile:stats:%s";
+    private static final String FIELD_FOLLOWERS = "followers";
+    private static final String FIELD_FOLLOWING = "following";
+    private static final String FIELD_POSTS = "posts";
+
+    public record ProfileStats(long followerCount, long followingCount, long postCount) {}
+
+    @Value("${app.profile-stats.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    @Value("${app.profile-stats.near-cache-ttl-seconds:5}")
+    private long nearCacheTtlSeconds;
+
+    @Value("${app.profile-stats.near-cache-max-size:10000}")
+    private long nearCacheMaxSize;
+
+    private final UserFollowRepository userFollowRepository;
+    private final PostRepository postRepository;
+    private final StringRedisTemplate redisTemplate;
+
+    private Cache<UUID, ProfileStats> nearCache;
+
+    @PostConstruct
+    void init() {
+        nearCache = Caffeine.newBuilder()
+            .maximumSize(nearCacheMaxSize)
+            .expireAfterWrite(Duration.ofSeconds(nearCacheTtlSeconds))
+            .build();
+    }
+
+    public ProfileStats getStats(UUID userId) {
+        return nearCache.get(userId, this::loadStats);
+    }
+
+    public long getFollowerCount(UUID userId) {
+        return getStats(userId).followerCount();
+    }
+
+    public long getFollowingCount(UUID userId) {
+        return getStats(userId).followingCount();
+    }
+
+    /**
+     * Recompute stats from the database and overwrite the cached copy
+     */
+    public ProfileStats recompute(UUID userId) {
+        ProfileStats stats = countFromDatabase(userId);
+        try {
+            String key = statsKey(userId);
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                conn.hMSet(key, Map.of(
+                    FIELD_FOLLOWERS, String.valueOf(stats.followerCount()),
+                    FIELD_FOLLOWING, String.valueOf(stats.followingCount()),
+                    FIELD_POSTS, String.valueOf(stats.postCount())));
+                conn.expire(key, TimeUnit.MINUTES.toSeconds(ttlMinutes));
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("Failed to cache profile stats for user {}", userId, e);
+        }
+        nearCache.put(userId, stats);
+        return stats;
+    }
+
+    @TransactionalEventListener
+    public void onUserFollowed(UserFollowedEvent event) {
+        increment(event.followingId(), FIELD_FOLLOWERS, 1);
+        increment(event.followerId(), FIELD_FOLLOWING, 1);
+    }
+
+    @TransactionalEventListener
+    public void onUserUnfollowed(UserUnfollowedEvent event) {
+        increment(event.followingId(), FIELD_FOLLOWERS, -1);
+        increment(event.followerId(), FIELD_FOLLOWING, -1);
+    }
+
+    @TransactionalEventListener
+    public void onPostCreated(PostCreatedEvent event) {
+        increment(event.authorId(), FIELD_POSTS, 1);
+    }
+
+    @TransactionalEventListener
+    public void onPostDeleted(PostDeletedEvent event) {
+        increment(event.authorId(), FIELD_POSTS, -1);
+    }
+
+    @TransactionalEventListener
+    public void onPostRestored(PostRestoredEvent event) {
+        increment(event.authorId(), FIELD_POSTS, 1);
+    }
+
+    private ProfileStats loadStats(UUID userId) {
+        try {
+            List<String> values = redisTemplate.<String, String>opsForHash()
+                .multiGet(statsKey(userId), List.of(FIELD_FOLLOWERS, FIELD_FOLLOWING, FIELD_POSTS));
+            // A partial hash (an increment raced with expiry) is treated as a miss
+            if (values.stream().allMatch(Objects::nonNull)) {
+                return new ProfileStats(
+                    Long.parseLong(values.get(0)),
+                    Long.parseLong(values.get(1)),
+                    Long.parseLong(values.get(2)));
+            }
+        } catch (Exception e) {
+            log.warn("Failed to read profile stats for user {}, recomputing", userId, e);
+        }
+        return recompute(userId);
+    }
+
+    /**
+     * Adjust a cached counter only if the hash exists; otherwise the next read recomputes it.
+     * The local near-cache entry is dropped so this instance reads its own writes; other
+     * instances catch up when their near-cache entry expires.
+     */
+    private void increment(UUID userId, String field, long delta) {
+        nearCache.invalidate(userId);
+        try {
+            String key = statsKey(userId);
+            if (Boolean.TRUE.equals(redisTemplate.hasKey(key))) {
+                redisTemplate.opsForHash().increment(key, field, delta);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to update profile stats for user {}, dropping cached copy", userId, e);
+            try {
+                redisTemplate.delete(statsKey(userId));
+            } catch (Exception ignored) {
+                // Redis unavailable; the TTL will expire the stale copy
+            }
+        }
+    }
+
+    private ProfileStats countFromDatabase(UUID userId) {
+        return new ProfileStats(
+            userFollowRepository.countByFollowingId(userId),
+            userFollowRepository.countByFollowerId(userId),
+            postRepository.countByAuthorId(userId));
+    }
+
+    private String statsKey(UUID userId) {
+        return String.format(STATS_KEY, userId);
+    }
+}
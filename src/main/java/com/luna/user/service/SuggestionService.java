@@ -0,0 +1,494 @@
+package com.luna.user.service;
+
+import com.luna.user.event.UserFollowedEvent;
+import com.luna.user.event.UserUnfollowedEvent;
+import com.luna.user.repository.UserFollowRepository;
+import com.luna.user.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Precomputed "who to follow" suggestions.
+ *
+ * A background rebuild loads user_follows into a {@link FollowGraph}, scores friends-of-friends
+ * for every user in parallel on a fork-join pool and stores the top K per user in Redis, along
+ * with global and per-country popular lists. Follows and unfollows adjust the stored lists
+ * incrementally until the next rebuild. Reads are a few Redis lookups; until the first rebuild
+ * has completed, getSuggestions returns empty so callers can use the SQL path.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SuggestionService {
+
+    private static final String USER_KEY = "suggestions:user:%s";
+    private static final String MUTUAL_KEY = "suggestions:user:%s:mutual";
+    private static final String COUNTRY_KEY = "suggestions:country:%s";
+    private static final String POPULAR_KEY = "suggestions:popular";
+    private static final String BUILT_KEY = "suggestions:built";
+    private static final String LOCK_KEY = "suggestions:rebuild:lock";
+    private static final int EDGE_PAGE_SIZE = 50_000;
+    private static final int LEAF_SIZE = 512;
+    private static final int POPULAR_SIZE = 200;
+    private static final int REFRESH_FAN_IN = 200;
+    private static final double MUTUAL_WEIGHT = 10.0;
+    private static final UUID NIL_UUID = new UUID(0, 0);
+
+    /**
+     * Ordered candidates from the precomputed lists; callers filter and hydrate them
+     */
+    public record Suggestions(List<Candidate> friendsOfFriends, List<UUID> sameCountry, List<UUID> popular) {}
+
+    public record Candidate(UUID userId, int mutualConnections) {}
+
+    @Value("${app.suggestions.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.suggestions.top-k:50}")
+    private int topK;
+
+    @Value("${app.suggestions.parallelism:0}")
+    private int parallelism;
+
+    @Value("${app.suggestions.ttl-hours:48}")
+    private long ttlHours;
+
+    private final UserRepository userRepository;
+    private final UserFollowRepository userFollowRepository;
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * Read precomputed candidates, or empty if suggestions haven't been built yet (or Redis is down)
+     */
+    public Optional<Suggestions> getSuggestions(UUID userId, String countryCode, int limit) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        try {
+            if (!Boolean.TRUE.equals(redisTemplate.hasKey(BUILT_KEY))) {
+                return Optional.empty();
+            }
+
+            // Over-fetch so filtering out already-followed users still fills the page
+            int fetch = limit * 3;
+
+            List<Candidate> friendsOfFriends = new ArrayList<>();
+            Set<String> ranked = redisTemplate.opsForZSet().reverseRange(userKey(userId), 0, fetch - 1);
+            if (ranked != null && !ranked.isEmpty()) {
+                List<String> ids = new ArrayList<>(ranked);
+                List<String> mutuals = redisTemplate.<String, String>opsForHash().multiGet(mutualKey(userId), ids);
+                for (int i = 0; i < ids.size(); i++) {
+                    int mutual = mutuals.get(i) == null ? 0 : Integer.parseInt(mutuals.get(i));
+                    if (mutual > 0) {
+                        friendsOfFriends.add(new Candidate(UUID.fromString(ids.get(i)), mutual));
+                    }
+                }
+            }
+
+            List<UUID> sameCountry = List.of();
+            if (countryCode != null && !countryCode.isBlank()) {
+                sameCountry = toUuids(redisTemplate.opsForZSet().reverseRange(countryKey(countryCode), 0, fetch - 1));
+            }
+            List<UUID> popular = toUuids(redisTemplate.opsForZSet().reverseRange(POPULAR_KEY, 0, fetch - 1));
+
+            return Optional.of(new Suggestions(friendsOfFriends, sameCountry, popular));
+        } catch (Exception e) {
+            log.warn("Failed to read precomputed suggestions for user {}", userId, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Rebuild all suggestion lists from a fresh snapshot of the follow graph.
+     * Only one instance rebuilds at a time. Returns the number of users with suggestions.
+     */
+    public int rebuild() {
+        if (!enabled) {
+            return 0;
+        }
+        Boolean acquired = redisTemplate.opsForValue().setIfAbsent(LOCK_KEY, "1", Duration.ofHours(1));
+        if (!Boolean.TRUE.equals(acquired)) {
+            log.debug("Suggestion rebuild already running elsewhere");
+            return 0;
+        }
+
+        try {
+            long start = System.currentTimeMillis();
+            FollowGraph graph = loadGraph();
+            long loaded = System.currentTimeMillis();
+
+            int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            int[] written = new int[1];
+            try {
+                ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(() -> new Scratch(graph.size()));
+                pool.invoke(new ComputeTask(graph, scratch, 0, graph.size(), written));
+            } finally {
+                pool.shutdown();
+            }
+
+            writePopular(graph);
+            redisTemplate.opsForValue().set(BUILT_KEY, String.valueOf(System.currentTimeMillis()),
+                Duration.ofHours(ttlHours));
+
+            log.info("Rebuilt suggestions for {} user(s): graph load {} ms, compute and store {} ms",
+                written[0], loaded - start, System.currentTimeMillis() - loaded);
+            return written[0];
+        } finally {
+            redisTemplate.delete(LOCK_KEY);
+        }
+    }
+
+    /**
+     * The followed account is no longer a candidate, and the accounts it follows become
+     * (or strengthen as) friends-of-friends.
+     */
+    @Async
+    @TransactionalEventListener
+    public void onUserFollowed(UserFollowedEvent event) {
+        try {
+            UUID followerId = event.followerId();
+            String key = userKey(followerId);
+            String mutualKey = mutualKey(followerId);
+            String followingId = event.followingId().toString();
+
+            redisTemplate.opsForZSet().remove(key, followingId);
+            redisTemplate.opsForHash().delete(mutualKey, followingId);
+
+            if (Boolean.TRUE.equals(redisTemplate.hasKey(key))) {
+                adjustSecondDegree(followerId, event.followingId(), 1);
+                redisTemplate.opsForZSet().removeRange(key, 0, -(topK + 1));
+            }
+        } catch (Exception e) {
+            log.error("Failed to refresh suggestions after follow {} -> {}",
+                event.followerId(), event.followingId(), e);
+        }
+    }
+
+    /**
+     * Mutual counts contributed by the unfollowed account are withdrawn; candidates left with
+     * no mutual connections are removed from the list.
+     */
+    @Async
+    @TransactionalEventListener
+    public void onUserUnfollowed(UserUnfollowedEvent event) {
+        try {
+            if (Boolean.TRUE.equals(redisTemplate.hasKey(userKey(event.followerId())))) {
+                adjustSecondDegree(event.followerId(), event.followingId(), -1);
+            }
+        } catch (Exception e) {
+            log.error("Failed to refresh suggestions after unfollow {} -> {}",
+                event.followerId(), event.followingId(), e);
+        }
+    }
+
+    private void adjustSecondDegree(UUID userId, UUID viaUserId, int delta) {
+        List<UUID> candidates = new ArrayList<>(
+            userFollowRepository.findFollowingIds(viaUserId, PageRequest.of(0, REFRESH_FAN_IN)));
+        candidates.remove(userId);
+        if (candidates.isEmpty()) {
+            return;
+        }
+        candidates.removeAll(new HashSet<>(userFollowRepository.findFollowingIdsIn(userId, candidates)));
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        String key = userKey(userId);
+        String mutualKey = mutualKey(userId);
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (UUID candidate : candidates) {
+                conn.zIncrBy(key, delta * MUTUAL_WEIGHT, candidate.toString());
+                conn.hIncrBy(mutualKey, candidate.toString(), delta);
+            }
+            return null;
+        });
+        if (delta >= 0) {
+            return;
+        }
+
+        // The score never reaches zero on its own (country and follower bonuses), so candidates
+        // whose last mutual connection went away are removed by their mutual count
+        List<String> orphaned = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            if (results.get(2 * i + 1) instanceof Long mutual && mutual <= 0) {
+                orphaned.add(candidates.get(i).toString());
+            }
+        }
+        if (!orphaned.isEmpty()) {
+            redisTemplate.opsForZSet().remove(key, orphaned.toArray());
+            redisTemplate.opsForHash().delete(mutualKey, orphaned.toArray());
+        }
+    }
+
+    private FollowGraph loadGraph() {
+        List<Object[]> users = userRepository.findSuggestionGraphUsers();
+        FollowGraph.Builder builder = FollowGraph.builder(users.size());
+        for (Object[] row : users) {
+            builder.addUser((UUID) row[0], (String) row[1], Boolean.TRUE.equals(row[2]));
+        }
+
+        UUID afterFollower = NIL_UUID;
+        UUID afterFollowing = NIL_UUID;
+        while (true) {
+            List<Object[]> edges = userFollowRepository.findEdgesAfter(afterFollower, afterFollowing, EDGE_PAGE_SIZE);
+            for (Object[] edge : edges) {
+                builder.addFollow((UUID) edge[0], (UUID) edge[1]);
+            }
+            if (edges.size() < EDGE_PAGE_SIZE) {
+                break;
+            }
+            Object[] last = edges.get(edges.size() - 1);
+            afterFollower = (UUID) last[0];
+            afterFollowing = (UUID) last[1];
+        }
+        return builder.build();
+    }
+
+    /**
+     * Score = mutual connections * 10, + 5 for the same country, + log2(followers + 1) capped at 10
+     * (same weights as the SQL suggestion path).
+     */
+    private static double score(FollowGraph graph, int user, int candidate, int mutual) {
+        double score = mutual * MUTUAL_WEIGHT;
+        String country = graph.countryCode(user);
+        if (country != null && country.equals(graph.countryCode(candidate))) {
+            score += 5.0;
+        }
+        score += Math.min(Math.log(graph.followerCount(candidate) + 1) / Math.log(2), 10.0);
+        return score;
+    }
+
+    private void writePopular(FollowGraph graph) {
+        Map<String, PriorityQueue<Integer>> byCountry = new HashMap<>();
+        Comparator<Integer> byFollowers = Comparator.comparingInt(graph::followerCount);
+        PriorityQueue<Integer> global = new PriorityQueue<>(byFollowers);
+
+        for (int u = 0; u < graph.size(); u++) {
+            if (!graph.isSuggestable(u) || graph.followerCount(u) == 0) {
+                continue;
+            }
+            offerBounded(global, u, POPULAR_SIZE);
+            String country = graph.countryCode(u);
+            if (country != null && !country.isBlank()) {
+                offerBounded(byCountry.computeIfAbsent(country, c -> new PriorityQueue<>(byFollowers)), u, POPULAR_SIZE);
+            }
+        }
+
+        long ttlSeconds = TimeUnit.HOURS.toSeconds(ttlHours);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            writeRanking(conn, POPULAR_KEY, global, graph, ttlSeconds);
+            byCountry.forEach((country, ranking) ->
+                writeRanking(conn, countryKey(country), ranking, graph, ttlSeconds));
+            return null;
+        });
+    }
+
+    private static void offerBounded(PriorityQueue<Integer> heap, int user, int max) {
+        heap.offer(user);
+        if (heap.size() > max) {
+            heap.poll();
+        }
+    }
+
+    private static void writeRanking(StringRedisConnection conn, String key, Collection<Integer> users,
+                                     FollowGraph graph, long ttlSeconds) {
+        conn.del(key);
+        for (int u : users) {
+            conn.zAdd(key, graph.followerCount(u), graph.userId(u).toString());
+        }
+        conn.expire(key, ttlSeconds);
+    }
+
+    private List<UUID> toUuids(Set<String> members) {
+        if (members == null || members.isEmpty()) {
+            return List.of();
+        }
+        return members.stream().map(UUID::fromString).toList();
+    }
+
+    private String userKey(UUID userId) {
+        return String.format(USER_KEY, userId);
+    }
+
+    private String mutualKey(UUID userId) {
+        return String.format(MUTUAL_KEY, userId);
+    }
+
+    private String countryKey(String countryCode) {
+        return String.format(COUNTRY_KEY, countryCode.toUpperCase());
+    }
+
+    /**
+     * Per-thread working memory: a mutual-count slot per user plus the list of touched slots,
+     * so resetting between users costs O(candidates) rather than O(users).
+     */
+    private static final class Scratch {
+        final int[] mutualCounts;
+        int[] touched = new int[256];
+        int touchedCount;
+
+        Scratch(int users) {
+            mutualCounts = new int[users];
+        }
+
+        void touch(int user) {
+            if (touchedCount == touched.length) {
+                touched = Arrays.copyOf(touched, touchedCount * 2);
+            }
+            touched[touchedCount++] = user;
+        }
+    }
+
+    private final class ComputeTask extends RecursiveAction {
+
+        private final FollowGraph graph;
+        private final ThreadLocal<Scratch> scratch;
+        private final int from;
+        private final int to;
+        private final int[] written;
+
+        ComputeTask(FollowGraph graph, ThreadLocal<Scratch> scratch, int from, int to, int[] written) {
+            this.graph = graph;
+            this.scratch = scratch;
+            this.from = from;
+            this.to = to;
+            this.written = written;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF_SIZE) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ComputeTask(graph, scratch, from, mid, written),
+                          new ComputeTask(graph, scratch, mid, to, written));
+                return;
+            }
+
+            Scratch s = scratch.get();
+            Map<Integer, TopK> results = new HashMap<>();
+            for (int u = from; u < to; u++) {
+                if (graph.followingStart(u) == graph.followingEnd(u)) {
+                    continue;
+                }
+                TopK top = computeFor(u, s);
+                if (top.size > 0) {
+                    results.put(u, top);
+                }
+            }
+            store(results);
+        }
+
+        private TopK computeFor(int u, Scratch s) {
+            s.touchedCount = 0;
+            for (int i = graph.followingStart(u); i < graph.followingEnd(u); i++) {
+                int friend = graph.followingAt(i);
+                for (int j = graph.followingStart(friend); j < graph.followingEnd(friend); j++) {
+                    int candidate = graph.followingAt(j);
+                    if (candidate != u && s.mutualCounts[candidate]++ == 0) {
+                        s.touch(candidate);
+                    }
+                }
+            }
+
+            TopK top = new TopK(topK);
+            for (int t = 0; t < s.touchedCount; t++) {
+                int candidate = s.touched[t];
+                int mutual = s.mutualCounts[candidate];
+                s.mutualCounts[candidate] = 0;
+                if (graph.isSuggestable(candidate) && !graph.follows(u, candidate)) {
+                    top.offer(candidate, mutual, score(graph, u, candidate, mutual));
+                }
+            }
+            return top;
+        }
+
+        private void store(Map<Integer, TopK> results) {
+            if (results.isEmpty()) {
+                return;
+            }
+            long ttlSeconds = TimeUnit.HOURS.toSeconds(ttlHours);
+            try {
+                redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    StringRedisConnection conn = (StringRedisConnection) connection;
+                    results.forEach((u, top) -> {
+                        UUID userId = graph.userId(u);
+                        String key = userKey(userId);
+                        String mutualKey = mutualKey(userId);
+                        Map<String, String> mutuals = new HashMap<>();
+                        conn.del(key, mutualKey);
+                        for (int i = 0; i < top.size; i++) {
+                            String candidateId = graph.userId(top.users[i]).toString();
+                            conn.zAdd(key, top.scores[i], candidateId);
+                            mutuals.put(candidateId, String.valueOf(top.mutuals[i]));
+                        }
+                        conn.hMSet(mutualKey, mutuals);
+                        conn.expire(key, ttlSeconds);
+                        conn.expire(mutualKey, ttlSeconds);
+                    });
+                    return null;
+                });
+                synchronized (written) {
+                    written[0] += results.size();
+                }
+            } catch (Exception e) {
+                log.error("Failed to store suggestions for {} user(s)", results.size(), e);
+            }
+        }
+    }
+
+    /**
+     * Fixed-capacity top-K by score; K is small, so a linear scan for the minimum is cheapest
+     */
+    private static final class TopK {
+        final int[] users;
+        final int[] mutuals;
+        final double[] scores;
+        int size;
+
+        TopK(int capacity) {
+            users = new int[capacity];
+            mutuals = new int[capacity];
+            scores = new double[capacity];
+        }
+
+        void offer(int user, int mutual, double score) {
+            if (size < users.length) {
+                users[size] = user;
+                mutuals[size] = mutual;
+                scores[size] = score;
+                size++;
+                return;
+            }
+            int min = 0;
+            for (int i = 1; i < size; i++) {
+                if (scores[i] < scores[min]) {
+                    min = i;
+                }
+            }
+            if (score > scores[min]) {
+                users[min] = user;
+                mutuals[min] = mutual;
+                scores[min] = score;
+            }
+        }
+    }
+}
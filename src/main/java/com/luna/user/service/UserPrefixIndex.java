@@ -0,0 +1,235 @@
+package com.luna.user.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Immutable prefix index over usernames and display-name words, for type-ahead.
+ *
+ * Keys are lower-cased, sorted and packed as UTF-8 into one byte array with an offset per key,
+ * so the keys matching a prefix are one contiguous range found by two binary searches. A
+ * max-follower segment tree over the key order then yields the k most-followed users in that
+ * range in O(k log n), however many keys share the prefix ("a" matches a large slice of users).
+ */
+final class UserPrefixIndex {
+
+    /**
+     * Searchable fields of one user, as served by autocomplete
+     */
+    record Entry(UUID userId, String username, String displayName, String profileImageUrl, long followerCount) {
+
+        /**
+         * Lower-cased username plus each word of the display name
+         */
+        List<String> keys() {
+            List<String> keys = new ArrayList<>(4);
+            keys.add(username.toLowerCase(Locale.ROOT));
+            if (displayName != null) {
+                for (String word : displayName.toLowerCase(Locale.ROOT).split("\\s+")) {
+                    if (!word.isEmpty() && !keys.contains(word)) {
+                        keys.add(word);
+                    }
+                }
+            }
+            return keys;
+        }
+
+        boolean matches(String prefix) {
+            for (String key : keys()) {
+                if (key.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private final Entry[] entries;
+    private final byte[] keyBytes;
+    private final int[] keyOffsets;
+    private final int[] keyEntries;
+    private final int[] maxTree;
+    private final int leaves;
+
+    private UserPrefixIndex(Entry[] entries, byte[] keyBytes, int[] keyOffsets, int[] keyEntries) {
+        this.entries = entries;
+        this.keyBytes = keyBytes;
+        this.keyOffsets = keyOffsets;
+        this.keyEntries = keyEntries;
+
+        int keyCount = keyEntries.length;
+        int size = 1;
+        while (size < Math.max(keyCount, 1)) {
+            size <<= 1;
+        }
+        // maxTree[leaves + i] = key i; each inner node holds the key with the most followers below it, -1 if none
+        leaves = size;
+        maxTree = new int[2 * size];
+        Arrays.fill(maxTree, -1);
+        for (int i = 0; i < keyCount; i++) {
+            maxTree[size + i] = i;
+        }
+        for (int node = size - 1; node > 0; node--) {
+            maxTree[node] = better(maxTree[2 * node], maxTree[2 * node + 1]);
+        }
+    }
+
+    int size() {
+        return entries.length;
+    }
+
+    /**
+     * The most-followed entries with a key starting with the (lower-cased) prefix, skipping
+     * entries the filter rejects. Each user is returned at most once.
+     */
+    List<Entry> top(String prefix, int limit, Predicate<Entry> filter) {
+        byte[] needle = prefix.getBytes(StandardCharsets.UTF_8);
+        int from = boundary(needle, false);
+        int to = boundary(needle, true);
+        if (from >= to || limit <= 0) {
+            return List.of();
+        }
+
+        // Best-first over sub-ranges: pop the range whose best key has the most followers, emit
+        // that key, push the two halves around it
+        PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) ->
+            Long.compare(followers(b[2]), followers(a[2])));
+        ranges.add(new int[] {from, to, rangeMax(from, to)});
+
+        List<Entry> result = new ArrayList<>(limit);
+        Set<Integer> seen = new HashSet<>();
+        while (!ranges.isEmpty() && result.size() < limit) {
+            int[] range = ranges.poll();
+            int best = range[2];
+            int entry = keyEntries[best];
+            if (seen.add(entry) && filter.test(entries[entry])) {
+                result.add(entries[entry]);
+            }
+            if (range[0] < best) {
+                ranges.add(new int[] {range[0], best, rangeMax(range[0], best)});
+            }
+            if (best + 1 < range[1]) {
+                ranges.add(new int[] {best + 1, range[1], rangeMax(best + 1, range[1])});
+            }
+        }
+        return result;
+    }
+
+    /**
+     * First key position not below the prefix range (upper = false), or first position after
+     * it (upper = true).
+     */
+    private int boundary(byte[] prefix, boolean upper) {
+        int low = 0;
+        int high = keyEntries.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int cmp = comparePrefix(mid, prefix);
+            if (cmp < 0 || (upper && cmp == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Compare key i with the prefix, treating any key that starts with it as equal
+     */
+    private int comparePrefix(int i, byte[] prefix) {
+        int start = keyOffsets[i];
+        int length = Math.min(keyOffsets[i + 1] - start, prefix.length);
+        int cmp = Arrays.compareUnsigned(keyBytes, start, start + length, prefix, 0, length);
+        if (cmp != 0) {
+            return cmp;
+        }
+        return keyOffsets[i + 1] - start >= prefix.length ? 0 : -1;
+    }
+
+    private int rangeMax(int from, int to) {
+        int best = -1;
+        for (int l = from + leaves, r = to + leaves; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                best = better(best, maxTree[l++]);
+            }
+            if ((r & 1) == 1) {
+                best = better(best, maxTree[--r]);
+            }
+        }
+        return best;
+    }
+
+    private int better(int a, int b) {
+        if (a < 0) return b;
+        if (b < 0) return a;
+        return followers(b) > followers(a) ? b : a;
+    }
+
+    private long followers(int key) {
+        return entries[keyEntries[key]].followerCount();
+    }
+
+    static Builder builder(int expectedUsers) {
+        return new Builder(expectedUsers);
+    }
+
+    static final class Builder {
+
+        private final List<Entry> entries;
+
+        private Builder(int expectedUsers) {
+            entries = new ArrayList<>(Math.max(expectedUsers, 16));
+        }
+
+        Builder add(Entry entry) {
+            entries.add(entry);
+            return this;
+        }
+
+        UserPrefixIndex build() {
+            // Pack (key, entry) pairs, sort by key bytes, then lay the keys out contiguously
+            List<byte[]> keys = new ArrayList<>(entries.size() * 2);
+            List<Integer> owners = new ArrayList<>(entries.size() * 2);
+            for (int e = 0; e < entries.size(); e++) {
+                for (String key : entries.get(e).keys()) {
+                    keys.add(key.getBytes(StandardCharsets.UTF_8));
+                    owners.add(e);
+                }
+            }
+
+            Integer[] order = new Integer[keys.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(keys.get(a), keys.get(b)));
+
+            int totalBytes = 0;
+            for (byte[] key : keys) {
+                totalBytes += key.length;
+            }
+            byte[] keyBytes = new byte[totalBytes];
+            int[] keyOffsets = new int[order.length + 1];
+            int[] keyEntries = new int[order.length];
+            int position = 0;
+            for (int i = 0; i < order.length; i++) {
+                byte[] key = keys.get(order[i]);
+                System.arraycopy(key, 0, keyBytes, position, key.length);
+                keyOffsets[i] = position;
+                keyEntries[i] = owners.get(order[i]);
+                position += key.length;
+            }
+            keyOffsets[order.length] = position;
+
+            return new UserPrefixIndex(entries.toArray(new Entry[0]), keyBytes, keyOffsets, keyEntries);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.luna.user.service;
+
+import com.luna.user.entity.User;
+import com.luna.user.event.UserProfileChangedEvent;
+import com.luna.user.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory username/display-name autocomplete over active, verified users.
+ *
+ * A background rebuild loads those users into an immutable {@link UserPrefixIndex}. Profile
+ * changes after that go into a small overlay that takes precedence over the snapshot until the
+ * next rebuild, which is triggered early once the overlay grows past max-overlay-size. The
+ * overlay is per instance: other instances pick the change up on their next rebuild. Follower
+ * counts used for ranking are as of the last rebuild.
+ *
+ * Until the first rebuild has completed, autocomplete returns empty so callers can use the
+ * SQL search.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserSearchIndex {
+
+    private static final int LOAD_PAGE_SIZE = 10_000;
+    private static final UUID NIL_UUID = new UUID(0, 0);
+
+    public record Match(UUID userId, String username, String displayName, String profileImageUrl, long followerCount) {}
+
+    /**
+     * A profile change since the snapshot was built; entry is null if the user is no longer searchable
+     */
+    private record Change(long sequence, UserPrefixIndex.Entry entry) {}
+
+    @Value("${app.user-search.index-enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.user-search.max-overlay-size:5000}")
+    private int maxOverlaySize;
+
+    private final UserRepository userRepository;
+
+    private volatile UserPrefixIndex snapshot;
+    private final Map<UUID, Change> overlay = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    /**
+     * Most-followed users whose username or a display-name word starts with the prefix, or
+     * empty if the index isn't built yet
+     */
+    public Optional<List<Match>> autocomplete(String prefix, int limit) {
+        UserPrefixIndex index = snapshot;
+        if (!enabled || index == null) {
+            return Optional.empty();
+        }
+        String normalized = prefix == null ? "" : prefix.trim().toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty()) {
+            return Optional.of(List.of());
+        }
+
+        // Snapshot entries superseded by the overlay are skipped; the overlay is small enough to scan
+        List<UserPrefixIndex.Entry> candidates = new ArrayList<>(
+            index.top(normalized, limit, entry -> !overlay.containsKey(entry.userId())));
+        for (Change change : overlay.values()) {
+            if (change.entry() != null && change.entry().matches(normalized)) {
+                candidates.add(change.entry());
+            }
+        }
+
+        return Optional.of(candidates.stream()
+            .sorted(Comparator.comparingLong(UserPrefixIndex.Entry::followerCount).reversed())
+            .limit(limit)
+            .map(entry -> new Match(entry.userId(), entry.username(), entry.displayName(),
+                entry.profileImageUrl(), entry.followerCount()))
+            .toList());
+    }
+
+    /**
+     * Rebuild the snapshot from the database. Returns the number of users indexed, or 0 if a
+     * rebuild is already running.
+     */
+    public int rebuild() {
+        if (!enabled || !rebuilding.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            // Changes recorded before this point are committed and visible to the load below
+            long startSequence = sequence.incrementAndGet();
+
+            UserPrefixIndex.Builder builder = UserPrefixIndex.builder(snapshot != null ? snapshot.size() : LOAD_PAGE_SIZE);
+            UUID afterId = NIL_UUID;
+            while (true) {
+                List<Object[]> rows = userRepository.findSearchIndexUsersAfter(afterId, LOAD_PAGE_SIZE);
+                for (Object[] row : rows) {
+                    builder.add(new UserPrefixIndex.Entry(
+                        (UUID) row[0], (String) row[1], (String) row[2], (String) row[3], ((Number) row[4]).longValue()));
+                }
+                if (rows.size() < LOAD_PAGE_SIZE) {
+                    break;
+                }
+                afterId = (UUID) rows.get(rows.size() - 1)[0];
+            }
+            UserPrefixIndex index = builder.build();
+
+            snapshot = index;
+            overlay.values().removeIf(change -> change.sequence() < startSequence);
+
+            log.info("Rebuilt user search index with {} user(s) in {} ms",
+                index.size(), System.currentTimeMillis() - start);
+            return index.size();
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("Initial user search index build failed", e);
+        }
+    }
+
+    @Async
+    @TransactionalEventListener
+    public void onProfileChanged(UserProfileChangedEvent event) {
+        if (!enabled || snapshot == null) {
+            return;
+        }
+        try {
+            UserPrefixIndex.Entry entry = userRepository.findById(event.userId())
+                .filter(user -> Boolean.TRUE.equals(user.getIsActive()) && Boolean.TRUE.equals(user.getEmailVerified()))
+                .map(this::toEntry)
+                .orElse(null);
+            overlay.put(event.userId(), new Change(sequence.incrementAndGet(), entry));
+
+            if (overlay.size() > maxOverlaySize) {
+                rebuild();
+            }
+        } catch (Exception e) {
+            log.error("Failed to update user search index for user {}", event.userId(), e);
+        }
+    }
+
+    private UserPrefixIndex.Entry toEntry(User user) {
+        return new UserPrefixIndex.Entry(user.getId(), user.getUsernameField(), user.getDisplayName(),
+            user.getProfileImageUrl(), user.getFollowerCount() != null ? user.getFollowerCount() : 0);
+    }
+}
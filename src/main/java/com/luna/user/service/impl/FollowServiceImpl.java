@@ -8,10 +8,14 @@ import com.luna.notification.service.INotificationService;
 import com.luna.user.dto.UserProfileResponse;
 import com.luna.user.entity.User;
 import com.luna.user.entity.UserFollow;
+import com.luna.user.event.UserFollowedEvent;
+import com.luna.user.event.UserUnfollowedEvent;
 import com.luna.user.repository.UserFollowRepository;
 import com.luna.user.repository.UserRepository;
 import com.luna.user.service.IFollowService;
+import com.luna.user.service.ProfileStatsService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -27,6 +31,8 @@ public class FollowServiceImpl implements IFollowService {
     private final UserRepository userRepository;
     private final IActivityService activityService;
     private final INotificationService notificationService;
+    private final ProfileStatsService profileStatsService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -51,6 +57,7 @@ public class FollowServiceImpl implements IFollowService {
             .build();
 
         userFollowRepository.save(userFollow);
+        userRepository.addFollowerCount(followingId, 1);
 
         // Log activity
         activityService.logActivity(followerId, ActivityType.FOLLOW, "USER",
@@ -58,6 +65,8 @@ public class FollowServiceImpl implements IFollowService {
 
         // Send push notification (async, Redis-gated)
         notificationService.sendFollowNotification(followerId, followingId);
+
+        eventPublisher.publishEvent(new UserFollowedEvent(followerId, followingId));
     }
 
     @Override
@@ -68,10 +77,13 @@ public class FollowServiceImpl implements IFollowService {
         }
 
         userFollowRepository.deleteByFollowerIdAndFollowingId(followerId, followingId);
+        userRepository.addFollowerCount(followingId, -1);
 
         // Log activity
         activityService.logActivity(followerId, ActivityType.UNFOLLOW, "USER",
             followingId, followingId, null);
+
+        eventPublisher.publishEvent(new UserUnfollowedEvent(followerId, followingId));
     }
 
     @Override
@@ -87,12 +99,12 @@ public class FollowServiceImpl implements IFollowService {
 
     @Override
     public long getFollowerCount(UUID userId) {
-        return userFollowRepository.countByFollowingId(userId);
+        return profileStatsService.getFollowerCount(userId);
     }
 
     @Override
     public long getFollowingCount(UUID userId) {
-        return userFollowRepository.countByFollowerId(userId);
+        return profileStatsService.getFollowingCount(userId);
     }
 
     @Override
@@ -2,17 +2,22 @@ package com.luna.user.service.impl;
 
 import com.luna.common.exception.BadRequestException;
 import com.luna.common.exception.ResourceNotFoundException;
-import com.luna.common.service.CloudinaryService;
-import com.luna.post.repository.PostRepository;
+import com.luna.common.service.MediaService;
 import com.luna.user.dto.UpdateProfileRequest;
+import com.luna.user.dto.UserAutocompleteResponse;
 import com.luna.user.dto.UserProfileResponse;
 import com.luna.user.dto.UserSuggestionProjection;
 import com.luna.user.dto.UserSuggestionResponse;
 import com.luna.user.entity.User;
+import com.luna.user.event.UserProfileChangedEvent;
 import com.luna.user.repository.UserFollowRepository;
 import com.luna.user.repository.UserRepository;
 import com.luna.user.service.IUserService;
+import com.luna.user.service.ProfileStatsService;
+import com.luna.user.service.SuggestionService;
+import com.luna.user.service.UserSearchIndex;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -30,8 +35,11 @@ public class UserServiceImpl implements IUserService {
 
     private final UserRepository userRepository;
     private final UserFollowRepository userFollowRepository;
-    private final CloudinaryService cloudinaryService;
-    private final PostRepository postRepository;
+    private final MediaService mediaService;
+    private final ProfileStatsService profileStatsService;
+    private final SuggestionService suggestionService;
+    private final UserSearchIndex userSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -48,12 +56,9 @@ public class UserServiceImpl implements IUserService {
 
         if (image != null && !image.isEmpty()) {
             if (user.getProfileImageUrl() != null) {
-                String oldPublicId = cloudinaryService.extractPublicId(user.getProfileImageUrl());
-                if (oldPublicId != null) {
-                    cloudinaryService.deleteFile(oldPublicId);
-                }
+                mediaService.delete(user.getProfileImageUrl());
             }
-            String imageUrl = cloudinaryService.uploadImage(image, "profiles");
+            String imageUrl = mediaService.uploadImage(image, "profiles");
             user.setProfileImageUrl(imageUrl);
         }
 
@@ -74,6 +79,7 @@ public class UserServiceImpl implements IUserService {
         }
 
         user = userRepository.save(user);
+        eventPublisher.publishEvent(new UserProfileChangedEvent(userId));
         return mapToUserProfileResponse(user, userId);
     }
 
@@ -100,9 +106,7 @@ public class UserServiceImpl implements IUserService {
     }
 
     private UserProfileResponse mapToUserProfileResponse(User user, UUID currentUserId) {
-        long followerCount = userFollowRepository.countByFollowingId(user.getId());
-        long followingCount = userFollowRepository.countByFollowerId(user.getId());
-        long postCount = postRepository.countByAuthorId(user.getId());
+        ProfileStatsService.ProfileStats stats = profileStatsService.getStats(user.getId());
 
         return UserProfileResponse.builder()
             .id(user.getId())
@@ -115,9 +119,9 @@ public class UserServiceImpl implements IUserService {
             .country(user.getCountry())
             .emailVerified(user.getEmailVerified())
             .createdAt(user.getCreatedAt())
-            .followerCount(followerCount)
-            .followingCount(followingCount)
-            .postCount(postCount)
+            .followerCount(stats.followerCount())
+            .followingCount(stats.followingCount())
+            .postCount(stats.postCount())
             .isMyProfile(user.getId().equals(currentUserId))
             .build();
     }
@@ -132,19 +136,21 @@ public class UserServiceImpl implements IUserService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
         String userCountryCode = currentUser.getCountryCode();
 
-        long followingCount = userFollowRepository.countByFollowerId(userId);
+        // Precomputed lists from the background rebuild; the tiers below are the fallback
+        Optional<SuggestionService.Suggestions> precomputed =
+                suggestionService.getSuggestions(userId, userCountryCode, limit);
+        if (precomputed.isPresent()) {
+            return buildPrecomputedSuggestions(userId, precomputed.get(), limit);
+        }
+
+        long followingCount = profileStatsService.getFollowingCount(userId);
 
         // TIER 1: Graph-based (2nd-degree connections with composite scoring)
         if (followingCount > 0) {
             List<UserSuggestionProjection> graphResults =
                     userRepository.findGraphBasedSuggestions(userId, limit * 2);
 
-            List<UserSuggestionProjection> scored = graphResults.stream()
-                    .sorted((a, b) -> Double.compare(
-                            computeScore(b, userCountryCode),
-                            computeScore(a, userCountryCode)))
-                    .limit(limit)
-                    .toList();
+            List<UserSuggestionProjection> scored = rankByScore(graphResults, userCountryCode, limit);
 
             List<UUID> scoredIds = scored.stream().map(UserSuggestionProjection::getId).toList();
             Map<UUID, List<String>> mutualUsernamesMap = new HashMap<>();
@@ -220,7 +226,7 @@ public class UserServiceImpl implements IUserService {
                             .username(user.getUsernameField())
                             .displayName(user.getDisplayName())
                             .profileImageUrl(user.getProfileImageUrl())
-                            .followerCount(userFollowRepository.countByFollowingId(user.getId()))
+                            .followerCount(user.getFollowerCount())
                             .mutualConnections(0)
                             .mutualConnectionUsernames(List.of())
                             .suggestionReason("Popular on Luna")
@@ -233,7 +239,22 @@ public class UserServiceImpl implements IUserService {
         return suggestions;
     }
 
-    private double computeScore(UserSuggestionProjection projection, String userCountryCode) {
+    /**
+     * Highest-scoring candidates first. Each score is computed once rather than on every
+     * comparison. Package-private for the JMH benchmarks.
+     */
+    static List<UserSuggestionProjection> rankByScore(List<UserSuggestionProjection> candidates,
+                                                      String userCountryCode, int limit) {
+        record Scored(UserSuggestionProjection projection, double score) {}
+        return candidates.stream()
+                .map(projection -> new Scored(projection, computeScore(projection, userCountryCode)))
+                .sorted(Comparator.comparingDouble(Scored::score).reversed())
+                .limit(limit)
+                .map(Scored::projection)
+                .toList();
+    }
+
+    static double computeScore(UserSuggestionProjection projection, String userCountryCode) {
         double score = projection.getMutualConnectionCount() * 10.0;
         if (userCountryCode != null && userCountryCode.equals(projection.getCountryCode())) {
             score += 5.0;
@@ -242,6 +263,75 @@ public class UserServiceImpl implements IUserService {
         return score;
     }
 
+    private List<UserSuggestionResponse> buildPrecomputedSuggestions(
+            UUID userId, SuggestionService.Suggestions precomputed, int limit) {
+        // Candidates in tier order with their mutual count (0 outside friends-of-friends)
+        Map<UUID, Integer> candidates = new LinkedHashMap<>();
+        Map<UUID, String> fallbackReasons = new HashMap<>();
+        for (SuggestionService.Candidate candidate : precomputed.friendsOfFriends()) {
+            candidates.putIfAbsent(candidate.userId(), candidate.mutualConnections());
+        }
+        for (UUID id : precomputed.sameCountry()) {
+            if (candidates.putIfAbsent(id, 0) == null) {
+                fallbackReasons.put(id, "From your country");
+            }
+        }
+        for (UUID id : precomputed.popular()) {
+            if (candidates.putIfAbsent(id, 0) == null) {
+                fallbackReasons.put(id, "Popular on Luna");
+            }
+        }
+        candidates.remove(userId);
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+
+        // Lists can be hours old, so drop anyone followed since the last rebuild
+        userFollowRepository.findFollowingIdsIn(userId, candidates.keySet()).forEach(candidates::remove);
+
+        // Load a little more than needed in case some accounts were deactivated
+        List<UUID> ids = candidates.keySet().stream().limit(limit * 2L).toList();
+        Map<UUID, User> usersById = new HashMap<>();
+        for (User user : userRepository.findAllById(ids)) {
+            if (user.isEnabled() && Boolean.TRUE.equals(user.getEmailVerified())) {
+                usersById.put(user.getId(), user);
+            }
+        }
+
+        List<UUID> selected = ids.stream().filter(usersById::containsKey).limit(limit).toList();
+
+        List<UUID> withMutuals = selected.stream().filter(id -> candidates.get(id) > 0).toList();
+        Map<UUID, List<String>> mutualUsernamesMap = new HashMap<>();
+        if (!withMutuals.isEmpty()) {
+            for (Object[] row : userFollowRepository.findMutualConnectionUsernames(userId, withMutuals)) {
+                mutualUsernamesMap.computeIfAbsent((UUID) row[0], k -> new ArrayList<>()).add((String) row[1]);
+            }
+        }
+
+        List<UserSuggestionResponse> suggestions = new ArrayList<>(selected.size());
+        for (UUID id : selected) {
+            User user = usersById.get(id);
+            int mutualCount = candidates.get(id);
+            List<String> mutualUsernames = mutualUsernamesMap.getOrDefault(id, List.of());
+            String reason = mutualCount > 0
+                    ? buildMutualReason(mutualUsernames, mutualCount)
+                    : fallbackReasons.getOrDefault(id, "You might know");
+
+            suggestions.add(UserSuggestionResponse.builder()
+                    .id(id)
+                    .username(user.getUsernameField())
+                    .displayName(user.getDisplayName())
+                    .profileImageUrl(user.getProfileImageUrl())
+                    .followerCount(user.getFollowerCount())
+                    .mutualConnections(mutualCount)
+                    .mutualConnectionUsernames(mutualUsernames)
+                    .suggestionReason(reason)
+                    .isFollowing(false)
+                    .build());
+        }
+        return suggestions;
+    }
+
     private String buildMutualReason(List<String> mutualUsernames, int mutualCount) {
         if (mutualUsernames.isEmpty()) {
             return "You might know";
@@ -264,7 +354,43 @@ public class UserServiceImpl implements IUserService {
             return Page.empty(pageable);
         }
 
-        Page<User> users = userRepository.searchByUsername(query.trim(), pageable);
+        Page<User> users = userRepository.searchByUsername(escapeLike(query.trim().toLowerCase(Locale.ROOT)), pageable);
         return users.map(this::mapToUserProfileResponse);
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserAutocompleteResponse> autocompleteUsers(String prefix, int limit) {
+        if (prefix == null || prefix.trim().isEmpty()) {
+            return List.of();
+        }
+
+        Optional<List<UserSearchIndex.Match>> matches = userSearchIndex.autocomplete(prefix, limit);
+        if (matches.isPresent()) {
+            return matches.get().stream()
+                .map(match -> UserAutocompleteResponse.builder()
+                    .id(match.userId())
+                    .username(match.username())
+                    .displayName(match.displayName())
+                    .profileImageUrl(match.profileImageUrl())
+                    .followerCount(match.followerCount())
+                    .build())
+                .toList();
+        }
+
+        // Index not built yet, fall back to the SQL search
+        return userRepository.searchByUsername(escapeLike(prefix.trim().toLowerCase(Locale.ROOT)), PageRequest.of(0, limit))
+            .map(user -> UserAutocompleteResponse.builder()
+                .id(user.getId())
+                .username(user.getUsernameField())
+                .displayName(user.getDisplayName())
+                .profileImageUrl(user.getProfileImageUrl())
+                .followerCount(user.getFollowerCount())
+                .build())
+            .getContent();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
 }
@@ -0,0 +1,13 @@
+-- Denormalized counters so feeds don't COUNT(*) comments/reposts/saves per render
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS comment_count BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS repost_count BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS save_count BIGINT NOT NULL DEFAULT 0;
+
+-- Backfill from the source tables
+UPDATE posts p SET
+    like_count    = (SELECT COUNT(*) FROM post_likes pl WHERE pl.post_id = p.id),
+    comment_count = (SELECT COUNT(*) FROM comments c WHERE c.post_id = p.id),
+    repost_count  = (SELECT COUNT(*) FROM reposts r WHERE r.post_id = p.id),
+    save_count    = (SELECT COUNT(*) FROM saved_posts sp WHERE sp.post_id = p.id);
+
+ALTER TABLE posts ALTER COLUMN like_count SET NOT NULL;
@@ -0,0 +1,19 @@
+-- Transactional outbox for email: rows are written with the business change and sent by a background dispatcher
+CREATE TABLE email_outbox (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    email_type VARCHAR(50) NOT NULL,
+    recipient VARCHAR(255) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    body TEXT NOT NULL,
+    dedupe_key VARCHAR(320) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Dispatcher polls due rows; sent rows are deleted so the index stays small
+CREATE INDEX idx_email_outbox_due ON email_outbox(next_attempt_at) WHERE status IN ('PENDING', 'SENDING');
+CREATE INDEX idx_email_outbox_dedupe_key ON email_outbox(dedupe_key) WHERE status = 'PENDING';
+CREATE INDEX idx_email_outbox_created_at ON email_outbox(created_at);
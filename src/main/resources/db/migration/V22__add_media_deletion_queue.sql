@@ -0,0 +1,11 @@
+-- Media files waiting to be deleted from storage after their post was purged
+CREATE TABLE media_deletion_queue (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    url TEXT NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_media_deletion_queue_next_attempt_at ON media_deletion_queue(next_attempt_at);
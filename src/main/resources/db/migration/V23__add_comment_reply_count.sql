@@ -0,0 +1,15 @@
+-- Denormalized direct-reply counter so comment threads don't load every reply just to count them
+ALTER TABLE comments ADD COLUMN IF NOT EXISTS reply_count INTEGER NOT NULL DEFAULT 0;
+
+-- Backfill from existing replies
+UPDATE comments c SET reply_count = r.cnt
+FROM (
+    SELECT parent_id, COUNT(*) AS cnt
+    FROM comments
+    WHERE parent_id IS NOT NULL
+    GROUP BY parent_id
+) r
+WHERE r.parent_id = c.id;
+
+-- Reply previews and on-demand reply pages read children in creation order
+CREATE INDEX IF NOT EXISTS idx_comments_parent_created ON comments(parent_id, created_at, id);
@@ -0,0 +1,17 @@
+-- Trigram indexes so substring user search (LIKE '%q%') doesn't seq-scan users
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_users_username_trgm ON users USING gin (LOWER(username) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_users_display_name_trgm ON users USING gin (LOWER(display_name) gin_trgm_ops);
+
+-- Denormalized follower counter so search and popular-user ranking don't COUNT(*) user_follows per row
+ALTER TABLE users ADD COLUMN IF NOT EXISTS follower_count BIGINT NOT NULL DEFAULT 0;
+
+-- Backfill from existing follows
+UPDATE users u SET follower_count = f.cnt
+FROM (
+    SELECT following_id, COUNT(*) AS cnt
+    FROM user_follows
+    GROUP BY following_id
+) f
+WHERE f.following_id = u.id;
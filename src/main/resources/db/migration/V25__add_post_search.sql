@@ -0,0 +1,28 @@
+-- Full-text search over post title (weight A) and content (weight B)
+CREATE OR REPLACE FUNCTION posts_search_vector(title TEXT, content TEXT) RETURNS tsvector
+LANGUAGE sql IMMUTABLE AS $$
+    SELECT setweight(to_tsvector('english', COALESCE(title, '')), 'A')
+        || setweight(to_tsvector('english', COALESCE(content, '')), 'B')
+$$;
+
+-- Plain nullable column rather than GENERATED ... STORED: adding it is a catalog-only change,
+-- whereas a generated column rewrites the whole table under an exclusive lock. New and edited
+-- rows are filled by the trigger below, existing rows by PostSearchService.backfill in chunks.
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS search_vector tsvector;
+
+CREATE OR REPLACE FUNCTION posts_search_vector_update() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    NEW.search_vector := posts_search_vector(NEW.title, NEW.content);
+    RETURN NEW;
+END
+$$;
+
+DROP TRIGGER IF EXISTS trg_posts_search_vector ON posts;
+CREATE TRIGGER trg_posts_search_vector
+    BEFORE INSERT OR UPDATE OF title, content ON posts
+    FOR EACH ROW EXECUTE FUNCTION posts_search_vector_update();
+
+-- Only live posts are searchable. Built while the column is still empty, so it's quick; the
+-- backfill then fills it incrementally.
+CREATE INDEX IF NOT EXISTS idx_posts_search_vector ON posts USING gin (search_vector) WHERE deleted_at IS NULL;
@@ -0,0 +1,40 @@
+-- Composite and partial indexes matching the hot query shapes, replacing single-column ones.
+--
+-- Every statement is CONCURRENTLY, so Flyway runs this migration outside a transaction and
+-- writes to these tables are not blocked while the indexes build. If a build fails it leaves an
+-- INVALID index behind that IF NOT EXISTS would skip: drop it and rerun (see docs/INDEXES.md).
+
+-- Profile feed and timeline: author's live posts, newest first, keyset on (created_at, id)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_posts_author_live_created
+    ON posts (user_id, created_at DESC, id DESC) WHERE deleted_at IS NULL;
+
+-- Posts by hashtag: hashtag -> post ids without touching the heap
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_post_hashtags_hashtag_post
+    ON post_hashtags (hashtag_id, post_id);
+
+-- Saved posts feed, keyset on (saved_at, id)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_saved_posts_user_saved
+    ON saved_posts (user_id, saved_at DESC, id DESC);
+
+-- A user's reposts, newest first
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_reposts_user_created
+    ON reposts (user_id, created_at DESC);
+
+-- Top-level comments of a post, newest first
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_comments_post_top_level_created
+    ON comments (post_id, created_at DESC) WHERE parent_id IS NULL;
+
+-- Followers in follow order (timeline fan-out) and following, newest first (suggestion refresh)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_user_follows_following_created
+    ON user_follows (following_id, created_at, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_user_follows_follower_created
+    ON user_follows (follower_id, created_at DESC);
+
+-- Single-column indexes now covered by a leading column of the indexes above or of a
+-- unique constraint; dropping them saves a write per insert/delete
+DROP INDEX CONCURRENTLY IF EXISTS idx_post_likes_post_id;          -- unique_post_like (post_id, user_id)
+DROP INDEX CONCURRENTLY IF EXISTS idx_saved_posts_user_id;         -- unique_user_saved_post (user_id, post_id)
+DROP INDEX CONCURRENTLY IF EXISTS idx_reposts_user_id;             -- unique_user_repost (user_id, post_id)
+DROP INDEX CONCURRENTLY IF EXISTS idx_post_hashtags_hashtag_id;    -- idx_post_hashtags_hashtag_post
+DROP INDEX CONCURRENTLY IF EXISTS idx_user_follows_follower;       -- unique_follow (follower_id, following_id)
+DROP INDEX CONCURRENTLY IF EXISTS idx_user_follows_following;      -- idx_user_follows_following_created
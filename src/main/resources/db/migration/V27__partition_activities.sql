@@ -0,0 +1,75 @@
+-- Turn activities into a table range-partitioned by month on created_at, so old months can be
+-- archived or dropped whole instead of deleted row by row (see docs/ACTIVITY_PARTITIONS.md).
+-- Rows are copied under the lock taken by the rename; activity writes wait until this commits.
+
+ALTER TABLE activities RENAME TO activities_unpartitioned;
+ALTER INDEX activities_pkey RENAME TO activities_unpartitioned_pkey;
+
+-- The partition key has to be part of the primary key
+CREATE TABLE activities (
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
+    user_id UUID NOT NULL,
+    activity_type VARCHAR(50) NOT NULL,
+    entity_type VARCHAR(50) NOT NULL,
+    entity_id UUID,
+    target_user_id UUID,
+    metadata TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, created_at),
+    CONSTRAINT fk_activity_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+) PARTITION BY RANGE (created_at);
+
+-- There is deliberately no DEFAULT partition: it would rule out DETACH PARTITION CONCURRENTLY
+-- when old months expire. Partitions are created months ahead instead (ActivityPartitionService).
+
+-- Creates the partition for the month containing month_start, named activities_YYYY_MM.
+-- Returns false if it already existed.
+CREATE OR REPLACE FUNCTION create_activities_partition(month_start DATE)
+RETURNS BOOLEAN LANGUAGE plpgsql AS $$
+DECLARE
+    range_start DATE := date_trunc('month', month_start)::date;
+    range_end DATE := (date_trunc('month', month_start) + INTERVAL '1 month')::date;
+    partition_name TEXT := 'activities_' || to_char(range_start, 'YYYY_MM');
+BEGIN
+    -- Several instances run partition maintenance at startup
+    PERFORM pg_advisory_xact_lock(hashtext('create_activities_partition'));
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN false;
+    END IF;
+
+    -- Built standalone and attached, rather than CREATE ... PARTITION OF: ATTACH only takes a
+    -- SHARE UPDATE EXCLUSIVE lock on activities, so reads and inserts carry on meanwhile
+    EXECUTE format('CREATE TABLE %I (LIKE activities INCLUDING DEFAULTS)', partition_name);
+    EXECUTE format('ALTER TABLE activities ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+        partition_name, range_start, range_end);
+    RETURN true;
+END
+$$;
+
+-- One partition per month from the oldest activity through three months ahead (or the newest
+-- activity, if a skewed clock wrote any later than that)
+SELECT create_activities_partition(month::date)
+FROM generate_series(
+    date_trunc('month', COALESCE((SELECT MIN(created_at) FROM activities_unpartitioned), CURRENT_TIMESTAMP)),
+    date_trunc('month', GREATEST(
+        (SELECT MAX(created_at) FROM activities_unpartitioned),
+        CURRENT_TIMESTAMP + INTERVAL '3 months')),
+    INTERVAL '1 month'
+) AS month;
+
+INSERT INTO activities (id, user_id, activity_type, entity_type, entity_id, target_user_id, metadata, created_at)
+SELECT id, user_id, activity_type, entity_type, entity_id, target_user_id, metadata, created_at
+FROM activities_unpartitioned;
+
+DROP TABLE activities_unpartitioned;
+
+-- Created on every partition. The composite indexes serve activity history by actor, by actor
+-- and type, and by target user, newest first, replacing the single-column user_id and
+-- target_user_id indexes of the old table. Queries ordered by created_at read each partition's
+-- index newest first and stop at the page limit; a created_at range prunes the other partitions.
+CREATE INDEX idx_activity_user_created        ON activities (user_id, created_at DESC);
+CREATE INDEX idx_activity_user_type_created   ON activities (user_id, activity_type, created_at DESC);
+CREATE INDEX idx_activity_target_user_created ON activities (target_user_id, created_at DESC);
+CREATE INDEX idx_activity_entity              ON activities (entity_type, entity_id);
+CREATE INDEX idx_activity_type                ON activities (activity_type);
+CREATE INDEX idx_activity_created_at          ON activities (created_at DESC);
@@ -0,0 +1,60 @@
+package com.luna;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs loadtest/index-plans.sql (see docs/INDEXES.md). Each assertion in the script raises an
+ * error, failing this test, when a hot query doesn't use its index.
+ *
+ * The script runs against INDEX_PLANS_DB_URL, a JDBC URL including credentials of an already
+ * migrated database, if set. Otherwise it runs against a throwaway PostgreSQL container
+ * migrated with Flyway, and the test is skipped when Docker isn't available.
+ */
+class IndexPlanTests {
+
+    private static final Path SCRIPT = Path.of("loadtest", "index-plans.sql");
+    private static final String POSTGRES_IMAGE = "postgres:16-alpine";
+
+    @Test
+    void hotQueriesUseTheirIndexes() throws Exception {
+        String script = Files.readString(SCRIPT);
+
+        String url = System.getenv("INDEX_PLANS_DB_URL");
+        if (url != null && !url.isBlank()) {
+            runScript(DriverManager.getConnection(url), script);
+            return;
+        }
+
+        assumeTrue(DockerClientFactory.instance().isDockerAvailable(),
+            "INDEX_PLANS_DB_URL is not set and Docker is not available");
+        try (PostgreSQLContainer postgres = new PostgreSQLContainer(POSTGRES_IMAGE)) {
+            postgres.start();
+            Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+            runScript(DriverManager.getConnection(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword()), script);
+        }
+    }
+
+    private static void runScript(Connection connection, String script) throws SQLException {
+        try (connection; Statement statement = connection.createStatement()) {
+            statement.execute(script);
+        }
+    }
+
+}